@@ -0,0 +1,59 @@
+package com.peter.solution.benchmark;
+
+import com.peter.solution.dto.VehicleDTO;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Month;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the exemption checks: the date exemption lookup of the default city's rule set on its own, and full calculations that end at the
+ * vehicle exemption and at the date exemption.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExemptionBenchmark {
+
+    private static final LocalDateTime WEEKDAY = LocalDateTime.of(2013, Month.FEBRUARY, 8, 7, 30);
+    private static final LocalDateTime SATURDAY = LocalDateTime.of(2013, Month.FEBRUARY, 9, 7, 30);
+
+    private TollPassFixture fixture;
+    private VehicleDTO exemptedVehicle;
+    private VehicleDTO carOnSaturday;
+    private LocalDate[] dates;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fixture = new TollPassFixture(0);
+        exemptedVehicle = new VehicleDTO("Military", "ABC123", WEEKDAY);
+        carOnSaturday = new VehicleDTO("Car", "ABC123", SATURDAY);
+        dates = new LocalDate[365];
+        for (int i = 0; i < dates.length; i++) {
+            dates[i] = LocalDate.of(2013, Month.JANUARY, 1).plusDays(i);
+        }
+    }
+
+    @Benchmark
+    public boolean isDateExempted() {
+        LocalDate date = dates[next];
+        next = (next + 1) % dates.length;
+        return fixture.cityRuleSets.ruleSetFor(null).isDateExempted(date);
+    }
+
+    @Benchmark
+    public long calculateExemptedVehicle() {
+        return fixture.calculator.calculate(exemptedVehicle);
+    }
+
+    @Benchmark
+    public long calculateExemptedDate() {
+        return fixture.calculator.calculate(carOnSaturday);
+    }
+}
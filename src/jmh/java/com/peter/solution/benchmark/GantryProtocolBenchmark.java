@@ -0,0 +1,36 @@
+package com.peter.solution.benchmark;
+
+import com.peter.solution.dto.VehicleDTO;
+import com.peter.solution.gantry.GantryProtocol;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures reading a vehicle pass from a binary gantry frame in a direct buffer, the counterpart of
+ * {@link VehicleJsonBenchmark#deserialize()} for the gantry listener.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GantryProtocolBenchmark {
+
+    private final byte[] plate = new byte[GantryProtocol.MAX_PLATE_BYTES];
+    private ByteBuffer request;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        request = ByteBuffer.allocateDirect(GantryProtocol.REQUEST_SIZE);
+        GantryProtocol.writeRequest(request, 1, new VehicleDTO("Car", "ABC123", LocalDateTime.of(2013, 2, 8, 6, 20, 27)));
+    }
+
+    @Benchmark
+    public VehicleDTO readRequest() {
+        return GantryProtocol.readRequest(request, 0, plate);
+    }
+}
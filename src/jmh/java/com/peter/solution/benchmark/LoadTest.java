@@ -0,0 +1,238 @@
+package com.peter.solution.benchmark;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.Month;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Closed-loop HTTP load test of {@code POST /api/toll/calculate} against a running application.
+ * <p>
+ * Every simulated client holds one keep-alive connection and sends its next request as soon as the previous response
+ * arrived, so the number of clients is the number of concurrent connections. Clients run on virtual threads, which
+ * lets a single load generator hold tens of thousands of connections. Each client uses its own plate number, so the
+ * calculations do not contend on the plate locks. After a warmup, it reports the throughput and the p50, p99 and
+ * p99.9 latency of the successful requests.
+ * </p>
+ * <p>
+ * Run it once against the application started with {@code spring.threads.virtual.enabled=false} and once with
+ * {@code true} to compare platform and virtual request threads. It is configured through system properties:
+ * <ul>
+ *     <li>{@code load.targets}: comma-separated base URLs, connections are spread over them round-robin
+ *     (default {@code http://127.0.0.1:8080}); list several loopback addresses to open more connections than one
+ *     address has ephemeral ports</li>
+ *     <li>{@code load.connections}: comma-separated numbers of concurrent connections to run one after another
+ *     (default {@code 1000,10000,50000})</li>
+ *     <li>{@code load.warmup}: warmup per run, not measured (default {@code PT10S})</li>
+ *     <li>{@code load.duration}: measured duration per run (default {@code PT30S})</li>
+ * </ul>
+ * </p>
+ */
+public final class LoadTest {
+
+    private static final LocalDateTime FIRST_PASS = LocalDateTime.of(2013, Month.FEBRUARY, 4, 6, 0);
+    private static final long BUCKET_MICROS = 10;
+    private static final int BUCKETS = 1_000_000;
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<InetSocketAddress> targets = new ArrayList<>();
+        for (String target : System.getProperty("load.targets", "http://127.0.0.1:8080").split(",")) {
+            URI uri = URI.create(target.trim());
+            targets.add(new InetSocketAddress(uri.getHost(), uri.getPort() == -1 ? 80 : uri.getPort()));
+        }
+        Duration warmup = Duration.parse(System.getProperty("load.warmup", "PT10S"));
+        Duration duration = Duration.parse(System.getProperty("load.duration", "PT30S"));
+
+        System.out.printf("%12s %12s %10s %10s %10s %10s %8s%n",
+                "connections", "requests/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms", "errors");
+        for (String connections : System.getProperty("load.connections", "1000,10000,50000").split(",")) {
+            Result result = run(targets, Integer.parseInt(connections.trim()), warmup, duration);
+            System.out.printf(Locale.ROOT, "%12d %12.0f %10.2f %10.2f %10.2f %10.2f %8d%n",
+                    result.connections, result.throughput(), result.percentile(0.5), result.percentile(0.99),
+                    result.percentile(0.999), result.max(), result.errors.sum());
+        }
+    }
+
+    private static Result run(List<InetSocketAddress> targets, int connections, Duration warmup, Duration duration)
+            throws InterruptedException {
+        long measureFrom = System.nanoTime() + warmup.toNanos();
+        long measureUntil = measureFrom + duration.toNanos();
+        Result result = new Result(connections, duration);
+        CountDownLatch done = new CountDownLatch(connections);
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int client = 0; client < connections; client++) {
+                InetSocketAddress target = targets.get(client % targets.size());
+                String plateNumber = "LOAD" + client;
+                clients.execute(() -> {
+                    try {
+                        runClient(target, plateNumber, measureFrom, measureUntil, result);
+                    } finally {
+                        done.countDown();
+                    }
+                });
+            }
+            done.await();
+        }
+        return result;
+    }
+
+    /**
+     * Sends requests over one connection until the measurement ends, reconnecting after an error.
+     */
+    private static void runClient(InetSocketAddress target, String plateNumber, long measureFrom, long measureUntil,
+                                  Result result) {
+        LocalDateTime passTime = FIRST_PASS;
+        while (System.nanoTime() < measureUntil) {
+            try (Socket socket = new Socket()) {
+                socket.connect(target, 30_000);
+                socket.setTcpNoDelay(true);
+                OutputStream out = socket.getOutputStream();
+                InputStream in = new BufferedInputStream(socket.getInputStream());
+                while (System.nanoTime() < measureUntil) {
+                    byte[] request = request(target, plateNumber, passTime);
+                    passTime = passTime.plusMinutes(7);
+                    long start = System.nanoTime();
+                    out.write(request);
+                    out.flush();
+                    int status = readResponse(in);
+                    long end = System.nanoTime();
+                    if (start >= measureFrom && end <= measureUntil) {
+                        if (status == 200) result.record(end - start);
+                        else result.errors.increment();
+                    }
+                }
+            } catch (IOException e) {
+                if (System.nanoTime() >= measureFrom) result.errors.increment();
+            }
+        }
+    }
+
+    private static byte[] request(InetSocketAddress target, String plateNumber, LocalDateTime passTime) {
+        String body = "{\"type\":\"Car\",\"plateNumber\":\"" + plateNumber + "\",\"tollPassDateTime\":\""
+                + passTime + "\"}";
+        return ("POST /api/toll/calculate HTTP/1.1\r\n"
+                + "Host: " + target.getHostString() + ":" + target.getPort() + "\r\n"
+                + "Content-Type: application/json\r\n"
+                + "Accept: application/json\r\n"
+                + "Content-Length: " + body.length() + "\r\n"
+                + "\r\n"
+                + body).getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Reads one response with a content length or chunked body and returns its status code.
+     */
+    private static int readResponse(InputStream in) throws IOException {
+        String statusLine = readLine(in);
+        int status = Integer.parseInt(statusLine.substring(9, 12));
+        long contentLength = 0;
+        boolean chunked = false;
+        for (String header = readLine(in); !header.isEmpty(); header = readLine(in)) {
+            String lower = header.toLowerCase(Locale.ROOT);
+            if (lower.startsWith("content-length:")) {
+                contentLength = Long.parseLong(lower.substring(15).trim());
+            } else if (lower.startsWith("transfer-encoding:") && lower.contains("chunked")) {
+                chunked = true;
+            }
+        }
+        if (!chunked) {
+            skip(in, contentLength);
+            return status;
+        }
+        for (long chunk = Long.parseLong(readLine(in).trim(), 16); chunk > 0;
+             chunk = Long.parseLong(readLine(in).trim(), 16)) {
+            skip(in, chunk);
+            readLine(in);
+        }
+        readLine(in);
+        return status;
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        StringBuilder line = new StringBuilder();
+        for (int b = in.read(); b != '\n'; b = in.read()) {
+            if (b == -1) throw new IOException("Connection closed");
+            if (b != '\r') line.append((char) b);
+        }
+        return line.toString();
+    }
+
+    private static void skip(InputStream in, long bytes) throws IOException {
+        while (bytes > 0) {
+            long skipped = in.skip(bytes);
+            if (skipped <= 0) {
+                if (in.read() == -1) throw new IOException("Connection closed");
+                skipped = 1;
+            }
+            bytes -= skipped;
+        }
+    }
+
+    /**
+     * Latency histogram of one run in buckets of {@value #BUCKET_MICROS} microseconds, up to ten seconds.
+     */
+    private static final class Result {
+
+        private final int connections;
+        private final Duration duration;
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+
+        private Result(int connections, Duration duration) {
+            this.connections = connections;
+            this.duration = duration;
+        }
+
+        private void record(long nanos) {
+            int bucket = (int) Math.min(BUCKETS - 1, nanos / 1_000 / BUCKET_MICROS);
+            buckets.incrementAndGet(bucket);
+            requests.increment();
+        }
+
+        private double throughput() {
+            return requests.sum() / (duration.toNanos() / 1e9);
+        }
+
+        private double percentile(double percentile) {
+            long total = requests.sum();
+            if (total == 0) return Double.NaN;
+            long rank = (long) Math.ceil(total * percentile);
+            long seen = 0;
+            for (int bucket = 0; bucket < BUCKETS; bucket++) {
+                seen += buckets.get(bucket);
+                if (seen >= rank) return toMillis(bucket);
+            }
+            return toMillis(BUCKETS - 1);
+        }
+
+        private double max() {
+            for (int bucket = BUCKETS - 1; bucket >= 0; bucket--) {
+                if (buckets.get(bucket) > 0) return toMillis(bucket);
+            }
+            return Double.NaN;
+        }
+
+        private static double toMillis(int bucket) {
+            return (bucket + 1) * BUCKET_MICROS / 1_000.0;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.peter.solution.benchmark;
+
+import com.peter.solution.dto.VehicleDTO;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@code TaxRateCalculatorImpl.calculate} for a charged vehicle with a growing number of stored toll
+ * passes. Every invocation stores one more toll pass, as the calculator does in production. Each round over the
+ * plates continues with the next pass time of the fixture, so every vehicle passes in time order, one single charge
+ * window after the other, instead of piling up passes in one window.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class TaxRateCalculatorBenchmark {
+
+    @Param({"1000", "100000", "10000000"})
+    private int storedPasses;
+
+    private TollPassFixture fixture;
+    private VehicleDTO[] vehicles;
+    private int next;
+    private int pass;
+    private LocalDateTime dateTime;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fixture = new TollPassFixture(storedPasses);
+        pass = storedPasses / TollPassFixture.PLATES + 1;
+        dateTime = TollPassFixture.passTime(pass);
+        vehicles = new VehicleDTO[TollPassFixture.PLATES];
+        for (int i = 0; i < vehicles.length; i++) {
+            vehicles[i] = new VehicleDTO("Car", TollPassFixture.plate(i), dateTime);
+        }
+    }
+
+    @Benchmark
+    public long calculate() {
+        VehicleDTO vehicle = vehicles[next];
+        vehicle.setTollPassDateTime(dateTime);
+        if (++next == vehicles.length) {
+            next = 0;
+            dateTime = TollPassFixture.passTime(++pass);
+        }
+        return fixture.calculator.calculate(vehicle);
+    }
+}
@@ -0,0 +1,72 @@
+package com.peter.solution.benchmark;
+
+import com.peter.solution.repository.city.CityRuleSets;
+import com.peter.solution.repository.dates.ExemptedDateRepository;
+import com.peter.solution.repository.taxrate.TaxRateRepository;
+import com.peter.solution.repository.tollpass.DailyTollStateRepository;
+import com.peter.solution.repository.tollpass.TollPass;
+import com.peter.solution.repository.tollpass.TollPassRepository;
+import com.peter.solution.repository.vehicle.TaxExemptedVehicleRepository;
+import com.peter.solution.service.CalculationMetrics;
+import com.peter.solution.service.TaxRateCalculatorImpl;
+
+import java.time.LocalDateTime;
+import java.time.Month;
+
+/**
+ * Builds the repositories and the calculator used by the benchmarks, pre-populated with toll passes.
+ */
+final class TollPassFixture {
+
+    /**
+     * First day of the generated toll passes, a Monday.
+     */
+    static final LocalDateTime FIRST_PASS = LocalDateTime.of(2013, Month.FEBRUARY, 4, 6, 0);
+
+    /**
+     * Number of distinct plates the generated toll passes are spread over.
+     */
+    static final int PLATES = 10_000;
+
+    private static final int PASSES_PER_DAY = 10;
+
+    final TollPassRepository tollPassRepository;
+    final DailyTollStateRepository dailyTollStateRepository;
+    final ExemptedDateRepository exemptedDateRepository = new ExemptedDateRepository();
+    final TaxExemptedVehicleRepository exemptedVehicleRepository = new TaxExemptedVehicleRepository();
+    final CityRuleSets cityRuleSets =
+            new CityRuleSets(exemptedDateRepository, new TaxRateRepository(), exemptedVehicleRepository);
+    final TaxRateCalculatorImpl calculator;
+
+    /**
+     * Creates the fixture and stores the given number of toll passes, spread evenly over {@link #PLATES} plates,
+     * each plate passing ten times a day. The retention window covers every generated day and the day after, so
+     * all of the passes stay stored.
+     *
+     * @param storedPasses the number of toll passes to store
+     */
+    TollPassFixture(int storedPasses) {
+        int retentionDays = storedPasses / (PLATES * PASSES_PER_DAY) + 2;
+        tollPassRepository = new TollPassRepository(retentionDays);
+        dailyTollStateRepository = new DailyTollStateRepository(retentionDays);
+        calculator = new TaxRateCalculatorImpl(
+                cityRuleSets,
+                tollPassRepository,
+                dailyTollStateRepository,
+                new CalculationMetrics());
+        for (int i = 0; i < storedPasses; i++) {
+            tollPassRepository.save(new TollPass(plate(i % PLATES), passTime(i / PLATES), 800));
+        }
+    }
+
+    static String plate(int index) {
+        return "PLATE" + index;
+    }
+
+    /**
+     * Returns the time of the n-th pass of a plate: ten passes per day, 65 minutes apart.
+     */
+    static LocalDateTime passTime(int pass) {
+        return FIRST_PASS.plusDays(pass / PASSES_PER_DAY).plusMinutes(65L * (pass % PASSES_PER_DAY));
+    }
+}
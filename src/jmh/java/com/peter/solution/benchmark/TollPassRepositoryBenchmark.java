@@ -0,0 +1,42 @@
+package com.peter.solution.benchmark;
+
+import com.peter.solution.repository.tollpass.TollPass;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@code TollPassRepository.findAllByPlateNumberAndDateTime} looking up one day of passes of one plate
+ * with a growing number of stored toll passes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class TollPassRepositoryBenchmark {
+
+    @Param({"1000", "100000", "10000000"})
+    private int storedPasses;
+
+    private TollPassFixture fixture;
+    private LocalDate date;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fixture = new TollPassFixture(storedPasses);
+        date = TollPassFixture.FIRST_PASS.toLocalDate();
+    }
+
+    @Benchmark
+    public List<TollPass> findAllByPlateNumberAndDateTime() {
+        String plate = TollPassFixture.plate(next);
+        next = (next + 1) % TollPassFixture.PLATES;
+        return fixture.tollPassRepository.findAllByPlateNumberAndDateTime(
+                plate, date.atStartOfDay(), date.atTime(23, 59, 59));
+    }
+}
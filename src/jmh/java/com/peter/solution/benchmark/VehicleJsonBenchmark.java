@@ -0,0 +1,83 @@
+package com.peter.solution.benchmark;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.peter.solution.dto.VehicleDTO;
+import com.peter.solution.json.OreAmountDeserializer;
+import com.peter.solution.json.OreAmountSerializer;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures reading and writing a {@link VehicleDTO} as JSON, with an object mapper configured the same way as the
+ * one Spring Boot uses for the HTTP endpoints. The {@code dedicated} binding uses the VehicleDTO serializers of the
+ * application, {@code bean} restores Jackson's generic bean binding for comparison.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VehicleJsonBenchmark {
+
+    private static final byte[] REQUEST =
+            "{\"plateNumber\":\"ABC123\",\"type\":\"Car\",\"tollPassDateTime\":\"2013-02-08T06:20:27\"}".getBytes();
+
+    @Param({"dedicated", "bean"})
+    public String binding;
+
+    private ObjectReader reader;
+    private ObjectWriter writer;
+    private VehicleDTO response;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        if (binding.equals("bean")) {
+            builder.mixIn(VehicleDTO.class, BeanBinding.class);
+        }
+        ObjectMapper objectMapper = builder.build();
+        reader = objectMapper.readerFor(VehicleDTO.class);
+        writer = objectMapper.writerFor(VehicleDTO.class);
+        response = new VehicleDTO("Car", "ABC123", LocalDateTime.of(2013, 2, 8, 6, 20, 27));
+        response.setTaxAmount(800);
+    }
+
+    @Benchmark
+    public VehicleDTO deserialize() throws IOException {
+        return reader.readValue(REQUEST);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        return writer.writeValueAsBytes(response);
+    }
+
+    /**
+     * Jackson's bean binding of {@link VehicleDTO}, as it was before the dedicated serializers.
+     */
+    @JsonSerialize(using = JsonSerializer.None.class)
+    @JsonDeserialize(using = JsonDeserializer.None.class)
+    private abstract static class BeanBinding {
+
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        private String city;
+
+        @JsonSerialize(using = OreAmountSerializer.class)
+        @JsonDeserialize(using = OreAmountDeserializer.class)
+        private long taxAmount;
+    }
+}
@@ -0,0 +1,30 @@
+package com.peter.solution.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.peter.solution.repository.city.CityRuleSets;
+import com.peter.solution.repository.city.CityRuleStore;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Sets up the file-based city rule store when {@code congestion.rules.enabled} is true.
+ * <p>
+ * The rule files are loaded before the application starts serving requests, and are watched for changes for as
+ * long as the application runs.
+ */
+@Configuration
+@EnableConfigurationProperties(RuleStoreProperties.class)
+@ConditionalOnProperty(prefix = "congestion.rules", name = "enabled", havingValue = "true")
+public class CityRuleStoreConfiguration {
+
+    @Bean(destroyMethod = "close")
+    public CityRuleStore cityRuleStore(RuleStoreProperties properties,
+                                       CityRuleSets cityRuleSets,
+                                       ObjectMapper objectMapper) {
+        CityRuleStore store = new CityRuleStore(properties.getDirectory(), cityRuleSets, objectMapper);
+        store.start();
+        return store;
+    }
+}
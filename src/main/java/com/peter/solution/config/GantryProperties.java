@@ -0,0 +1,27 @@
+package com.peter.solution.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration of the binary gantry listener, bound from the {@code congestion.gantry} properties.
+ */
+@Data
+@ConfigurationProperties("congestion.gantry")
+public class GantryProperties {
+
+    /**
+     * Whether the gantry listener is started.
+     */
+    private boolean enabled;
+
+    /**
+     * The port to listen on.
+     */
+    private int port = 9090;
+
+    /**
+     * The number of event loop threads, or 0 for one per processor.
+     */
+    private int threads;
+}
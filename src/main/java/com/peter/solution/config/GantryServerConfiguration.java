@@ -0,0 +1,30 @@
+package com.peter.solution.config;
+
+import com.peter.solution.gantry.GantryServer;
+import com.peter.solution.service.TaxRateCalculator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.net.InetSocketAddress;
+
+/**
+ * Starts the binary gantry listener next to the HTTP endpoints when {@code congestion.gantry.enabled} is true.
+ */
+@Configuration
+@EnableConfigurationProperties(GantryProperties.class)
+@ConditionalOnProperty(prefix = "congestion.gantry", name = "enabled", havingValue = "true")
+public class GantryServerConfiguration {
+
+    @Bean(destroyMethod = "close")
+    public GantryServer gantryServer(GantryProperties properties, TaxRateCalculator taxRateCalculator) {
+        int threads = properties.getThreads() > 0
+                ? properties.getThreads()
+                : Runtime.getRuntime().availableProcessors();
+        GantryServer server = new GantryServer(new InetSocketAddress(properties.getPort()), threads,
+                taxRateCalculator);
+        server.start();
+        return server;
+    }
+}
@@ -0,0 +1,35 @@
+package com.peter.solution.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Configuration of the toll pass journal, bound from the {@code congestion.journal} properties.
+ */
+@Data
+@ConfigurationProperties("congestion.journal")
+public class JournalProperties {
+
+    /**
+     * Whether toll passes are journaled to disk and restored on startup.
+     */
+    private boolean enabled;
+
+    /**
+     * The journal file.
+     */
+    private Path path = Path.of("data", "toll-passes.journal");
+
+    /**
+     * The time between two flushes of the journal to disk.
+     */
+    private Duration flushInterval = Duration.ofMillis(10);
+
+    /**
+     * Whether a calculation waits until its toll pass is flushed to disk before it returns.
+     */
+    private boolean syncCommit;
+}
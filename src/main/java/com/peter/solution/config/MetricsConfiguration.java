@@ -0,0 +1,25 @@
+package com.peter.solution.config;
+
+import com.peter.solution.repository.tollpass.TollPassRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Registers the application meters that are not owned by a single service.
+ * <p>
+ * The stage timers and outcome counters of the toll calculation are registered by
+ * {@link com.peter.solution.service.CalculationMetrics}.
+ */
+@Configuration
+public class MetricsConfiguration {
+
+    @Bean
+    public MeterBinder storedTollPassesGauge(TollPassRepository tollPassRepository) {
+        return registry -> Gauge.builder("congestion.toll.passes.stored", tollPassRepository,
+                        TollPassRepository::count)
+                .description("Toll passes stored within the retention window")
+                .register(registry);
+    }
+}
@@ -0,0 +1,22 @@
+package com.peter.solution.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Serves the reactive stack, enabled with {@code spring.main.web-application-type=reactive}, on Netty.
+ * <p>
+ * Tomcat is on the classpath for the servlet stack and would otherwise be picked for the reactive stack as well.
+ * Netty serves all connections from a small fixed number of event loop threads and keeps no thread per connection.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveServerConfiguration {
+
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+}
@@ -0,0 +1,24 @@
+package com.peter.solution.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+
+/**
+ * Configuration of the file-based city rule store, bound from the {@code congestion.rules} properties.
+ */
+@Data
+@ConfigurationProperties("congestion.rules")
+public class RuleStoreProperties {
+
+    /**
+     * Whether the congestion tax rules of the cities are loaded from rule files.
+     */
+    private boolean enabled;
+
+    /**
+     * The directory holding one rule file per city.
+     */
+    private Path directory = Path.of("rules");
+}
@@ -0,0 +1,65 @@
+package com.peter.solution.config;
+
+import com.peter.solution.repository.city.CityRuleStore;
+import com.peter.solution.repository.tollpass.TollPassJournal;
+import com.peter.solution.repository.tollpass.TollPassRepository;
+import com.peter.solution.service.TollChargeHistory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sets up the toll pass journal when {@code congestion.journal.enabled} is true.
+ * <p>
+ * On startup the journal is replayed into the {@link TollPassRepository} and the daily toll states of the
+ * calculator, each in the city it was charged in, so the single charge rule and the daily cap continue where they
+ * left off before the restart; corrected amounts are applied to their stored toll passes and totals. The city
+ * rule store, if enabled, is a dependency of the journal, so its rules are loaded before the replay. The journal is
+ * then compacted to what the retention windows still keep, and only then attached to the repository, so that every
+ * further toll pass is appended to it.
+ */
+@Slf4j
+@Configuration
+@EnableConfigurationProperties(JournalProperties.class)
+@ConditionalOnProperty(prefix = "congestion.journal", name = "enabled", havingValue = "true")
+public class TollPassJournalConfiguration {
+
+    @Bean(destroyMethod = "close")
+    public TollPassJournal tollPassJournal(JournalProperties properties,
+                                           TollPassRepository tollPassRepository,
+                                           TollChargeHistory tollChargeHistory,
+                                           Optional<CityRuleStore> cityRuleStore) throws IOException {
+        // the rule store is a parameter so that it is created and has loaded the rules of the cities before the
+        // passes are restored into the states of their cities
+        TollPassJournal journal = new TollPassJournal(properties.getPath(), properties.getFlushInterval(),
+                properties.isSyncCommit());
+
+        long start = System.nanoTime();
+        AtomicLong restored = new AtomicLong();
+        journal.replay(tollPass -> {
+            tollPassRepository.restore(tollPass);
+            tollChargeHistory.restore(tollPass);
+            restored.incrementAndGet();
+        }, tollPassRepository::deleteById, tollPassRepository::restoreCorrection,
+                tollPassRepository::restoreDayTotal);
+        journal.close();
+        log.info("Restored {} toll passes from {} in {} ms", restored.get(), properties.getPath(),
+                (System.nanoTime() - start) / 1_000_000);
+
+        start = System.nanoTime();
+        TollPassJournal.compact(properties.getPath(), properties.getFlushInterval(), tollPassRepository::compactInto);
+        log.info("Compacted {} to {} retained toll passes in {} ms", properties.getPath(), tollPassRepository.count(),
+                (System.nanoTime() - start) / 1_000_000);
+
+        TollPassJournal compacted = new TollPassJournal(properties.getPath(), properties.getFlushInterval(),
+                properties.isSyncCommit());
+        tollPassRepository.attachJournal(compacted);
+        return compacted;
+    }
+}
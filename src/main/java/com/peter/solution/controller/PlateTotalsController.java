@@ -0,0 +1,65 @@
+package com.peter.solution.controller;
+
+import com.peter.solution.dto.DailyTotalDTO;
+import com.peter.solution.dto.PlateTotalsDTO;
+import com.peter.solution.repository.tollpass.PlateMonthTotals;
+import com.peter.solution.repository.tollpass.TollPassRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/toll")
+@RequiredArgsConstructor
+public class PlateTotalsController {
+
+    private final TollPassRepository tollPassRepository;
+
+    /**
+     * Retrieves the toll a vehicle owes for a month, with the totals of the days it was charged on.
+     *
+     * @param plateNumber the plate number of the vehicle
+     * @param month       the month, for example {@code 2013-02}
+     * @return the totals of the vehicle, zero if it was not charged in the month
+     */
+    @GetMapping(value = "/plates/{plateNumber}/totals", produces = MediaType.APPLICATION_JSON_VALUE)
+    public PlateTotalsDTO getPlateTotals(@PathVariable String plateNumber, @RequestParam YearMonth month) {
+        PlateMonthTotals totals = tollPassRepository.findMonthTotals(plateNumber, month);
+        return totals == null ? new PlateTotalsDTO(plateNumber, month, 0, List.of()) : toDto(totals);
+    }
+
+    /**
+     * Retrieves the totals of every vehicle charged in a month, for example to bill them at the end of the month.
+     *
+     * @param month the month, for example {@code 2013-02}
+     * @return the totals of each charged vehicle, ordered by plate number
+     */
+    @GetMapping(value = "/totals", produces = MediaType.APPLICATION_JSON_VALUE)
+    public List<PlateTotalsDTO> getAllTotals(@RequestParam YearMonth month) {
+        return tollPassRepository.findAllMonthTotals(month).stream()
+                .sorted(Comparator.comparing(PlateMonthTotals::getPlateNumber))
+                .map(PlateTotalsController::toDto)
+                .toList();
+    }
+
+    private static PlateTotalsDTO toDto(PlateMonthTotals totals) {
+        YearMonth month = totals.getMonth();
+        List<DailyTotalDTO> dailyTotals = new ArrayList<>();
+        for (int day = 1; day <= month.lengthOfMonth(); day++) {
+            long dailyTotal = totals.getDailyTotal(day);
+            if (dailyTotal != 0) {
+                dailyTotals.add(new DailyTotalDTO(totals.getPlateNumber(), month.atDay(day), dailyTotal));
+            }
+        }
+        return new PlateTotalsDTO(totals.getPlateNumber(), month, totals.getTotal(), dailyTotals);
+    }
+}
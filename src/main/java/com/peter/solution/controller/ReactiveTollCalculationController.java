@@ -0,0 +1,66 @@
+package com.peter.solution.controller;
+
+import com.peter.solution.dto.BatchResultDTO;
+import com.peter.solution.dto.VehicleDTO;
+import com.peter.solution.service.ReactiveTollCalculator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Toll calculation endpoints of the reactive stack, serving the same requests as the {@link TollCalculationController}
+ * and the {@link TollStreamController} of the servlet stack.
+ * <p>
+ * Request bodies are parsed without blocking as their bytes arrive, and streamed passes are written back one line
+ * at a time as soon as they are calculated.
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequestMapping("/api/toll")
+@RequiredArgsConstructor
+public class ReactiveTollCalculationController {
+
+    private final ReactiveTollCalculator reactiveTollCalculator;
+
+    /**
+     * Calculate the toll for a vehicle.
+     *
+     * @param vehicle the vehicle object
+     * @return the calculated toll for the vehicle
+     */
+    @PostMapping(value = "/calculate", consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<VehicleDTO> calculateToll(@RequestBody Mono<VehicleDTO> vehicle) {
+        return reactiveTollCalculator.calculate(vehicle);
+    }
+
+    /**
+     * Calculate the toll for a batch of vehicle passes.
+     *
+     * @param vehicles the vehicle passes
+     * @return the calculated toll for every pass and the daily totals per vehicle
+     */
+    @PostMapping(value = "/calculate/batch", consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<BatchResultDTO> calculateTollBatch(@RequestBody Flux<VehicleDTO> vehicles) {
+        return reactiveTollCalculator.calculateBatch(vehicles);
+    }
+
+    /**
+     * Calculate the toll for a stream of vehicle passes, one JSON object per line.
+     *
+     * @param vehicles the vehicle passes
+     * @return the calculated vehicle passes, one per line
+     */
+    @PostMapping(value = "/calculate/stream", consumes = MediaType.APPLICATION_NDJSON_VALUE,
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<VehicleDTO> calculateTollStream(@RequestBody Flux<VehicleDTO> vehicles) {
+        return reactiveTollCalculator.calculateStream(vehicles);
+    }
+}
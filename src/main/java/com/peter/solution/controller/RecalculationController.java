@@ -0,0 +1,74 @@
+package com.peter.solution.controller;
+
+import com.peter.solution.dto.RecalculationJobDTO;
+import com.peter.solution.service.RecalculationJob;
+import com.peter.solution.service.RecalculationScope;
+import com.peter.solution.service.TollRecalculator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Controller reporting the progress of the recalculations started by changes of the tax rates and exempted dates.
+ */
+@RestController
+@RequestMapping("/api/recalculations")
+@RequiredArgsConstructor
+public class RecalculationController {
+
+    private final TollRecalculator tollRecalculator;
+
+    /**
+     * Retrieves the recent recalculations.
+     *
+     * @return the recent recalculations, the newest first
+     */
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public List<RecalculationJobDTO> getAllRecalculations() {
+        return tollRecalculator.findAllJobs().stream()
+                .map(RecalculationController::toDto)
+                .toList();
+    }
+
+    /**
+     * Retrieves the progress of a recalculation.
+     *
+     * @param id the identifier of the recalculation
+     * @return the progress, or not found if there is no such recent recalculation
+     */
+    @GetMapping(value = "/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<RecalculationJobDTO> getRecalculation(@PathVariable long id) {
+        return ResponseEntity.of(tollRecalculator.findJob(id).map(RecalculationController::toDto));
+    }
+
+    /**
+     * Starts recalculating all stored toll passes within a range of days, e.g. after the rules were changed in a
+     * way that is not covered by the automatic recalculations.
+     *
+     * @param from the first day (inclusive)
+     * @param to   the last day (inclusive)
+     * @return the started recalculation
+     */
+    @PostMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public RecalculationJobDTO startRecalculation(@RequestParam LocalDate from, @RequestParam LocalDate to) {
+        return toDto(tollRecalculator.submit(RecalculationScope.ofDays(from, to)));
+    }
+
+    private static RecalculationJobDTO toDto(RecalculationJob job) {
+        return new RecalculationJobDTO(job.getId(), job.getDescription(), job.getStatus(), job.getPlateDays(),
+                job.getRecalculatedPlateDays(), job.getAdjustment(), job.getStartedAt(), job.getCompletedAt(),
+                job.getError());
+    }
+}
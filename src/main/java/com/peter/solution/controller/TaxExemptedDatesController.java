@@ -2,6 +2,8 @@ package com.peter.solution.controller;
 
 import com.peter.solution.repository.dates.ExemptedDate;
 import com.peter.solution.repository.dates.ExemptedDateRepository;
+import com.peter.solution.service.RecalculationScope;
+import com.peter.solution.service.TollRecalculator;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -18,6 +20,7 @@ import java.util.List;
 public class TaxExemptedDatesController {
 
     private final ExemptedDateRepository exemptedDateRepository;
+    private final TollRecalculator tollRecalculator;
 
     /**
      * Retrieves all exempted dates.
@@ -30,7 +33,7 @@ public class TaxExemptedDatesController {
     }
 
     /**
-     * Saves a new exempted date entry.
+     * Saves a new exempted date entry and starts recalculating the stored toll passes on the days it exempts.
      *
      * @param exemptedDate the exempted date entry to save
      * @return the saved exempted date
@@ -38,17 +41,24 @@ public class TaxExemptedDatesController {
     @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
     @ResponseStatus(HttpStatus.CREATED)
     public ExemptedDate saveExemptedDate(@RequestBody ExemptedDate exemptedDate) {
-        return exemptedDateRepository.save(exemptedDate);
+        ExemptedDate saved = exemptedDateRepository.save(exemptedDate);
+        tollRecalculator.submit(RecalculationScope.ofExemptedDate(saved));
+        return saved;
     }
 
     /**
-     * Deletes an exempted date by its unique identifier.
+     * Deletes an exempted date by its unique identifier and starts recalculating the stored toll passes on the days
+     * it exempted.
      *
      * @param id the unique identifier of the exempted date to delete
      */
     @DeleteMapping("/{id}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
     public void deleteExemptedDate(@PathVariable Long id) {
+        List<ExemptedDate> deleted = exemptedDateRepository.findAll().stream()
+                .filter(exemptedDate -> exemptedDate.getId().equals(id))
+                .toList();
         exemptedDateRepository.deleteById(id);
+        deleted.forEach(exemptedDate -> tollRecalculator.submit(RecalculationScope.ofExemptedDate(exemptedDate)));
     }
 }
\ No newline at end of file
@@ -2,6 +2,8 @@ package com.peter.solution.controller;
 
 import com.peter.solution.repository.taxrate.TaxRate;
 import com.peter.solution.repository.taxrate.TaxRateRepository;
+import com.peter.solution.service.RecalculationScope;
+import com.peter.solution.service.TollRecalculator;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -15,6 +17,7 @@ import java.util.List;
 public class TaxRateController {
 
     private final TaxRateRepository taxRateRepository;
+    private final TollRecalculator tollRecalculator;
 
     /**
      * Retrieves all tax rates.
@@ -27,7 +30,7 @@ public class TaxRateController {
     }
 
     /**
-     * Creates a new tax rate.
+     * Creates a new tax rate and starts recalculating the stored toll passes within its minutes.
      *
      * @param taxRate the tax rate to be created
      * @return the created tax rate
@@ -35,18 +38,24 @@ public class TaxRateController {
     @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
     @ResponseStatus(HttpStatus.CREATED)
     public TaxRate createTaxRate(@RequestBody TaxRate taxRate) {
-        return taxRateRepository.save(taxRate);
+        TaxRate saved = taxRateRepository.save(taxRate);
+        tollRecalculator.submit(RecalculationScope.ofTaxRate(saved));
+        return saved;
     }
 
     /**
-     * Deletes a tax rate by its ID.
+     * Deletes a tax rate by its ID and starts recalculating the stored toll passes within its minutes.
      *
      * @param id the ID of the tax rate to be deleted
      */
     @DeleteMapping("/{id}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
     public void deleteTaxRate(@PathVariable Long id) {
+        List<TaxRate> deleted = taxRateRepository.findAll().stream()
+                .filter(taxRate -> taxRate.getId().equals(id))
+                .toList();
         taxRateRepository.deleteById(id);
+        deleted.forEach(taxRate -> tollRecalculator.submit(RecalculationScope.ofTaxRate(taxRate)));
     }
 
 }
\ No newline at end of file
@@ -1,20 +1,27 @@
 package com.peter.solution.controller;
 
+import com.peter.solution.dto.BatchResultDTO;
 import com.peter.solution.dto.VehicleDTO;
+import com.peter.solution.service.BatchTollCalculator;
 import com.peter.solution.service.TaxRateCalculator;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.List;
+
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("/api/toll")
 @RequiredArgsConstructor
 public class TollCalculationController {
 
     private final TaxRateCalculator taxRateCalculator;
+    private final BatchTollCalculator batchTollCalculator;
 
     /**
      * Calculate the toll for a vehicle.
@@ -25,8 +32,20 @@ public class TollCalculationController {
     @PostMapping(value = "/calculate", consumes = MediaType.APPLICATION_JSON_VALUE,
             produces = MediaType.APPLICATION_JSON_VALUE)
     public VehicleDTO calculateToll(@RequestBody VehicleDTO vehicle) {
-        double amount = taxRateCalculator.calculate(vehicle);
+        long amount = taxRateCalculator.calculate(vehicle);
         vehicle.setTaxAmount(amount);
         return vehicle;
     }
+
+    /**
+     * Calculate the toll for a batch of vehicle passes.
+     *
+     * @param vehicles the vehicle passes
+     * @return the calculated toll for every pass and the daily totals per vehicle
+     */
+    @PostMapping(value = "/calculate/batch", consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    public BatchResultDTO calculateTollBatch(@RequestBody List<VehicleDTO> vehicles) {
+        return batchTollCalculator.calculate(vehicles);
+    }
 }
\ No newline at end of file
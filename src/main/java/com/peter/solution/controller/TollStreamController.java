@@ -0,0 +1,91 @@
+package com.peter.solution.controller;
+
+import com.fasterxml.jackson.core.exc.StreamReadException;
+import com.fasterxml.jackson.databind.DatabindException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.peter.solution.dto.StreamErrorDTO;
+import com.peter.solution.dto.VehicleDTO;
+import com.peter.solution.service.TaxRateCalculator;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Controller for calculating the toll of a stream of vehicle passes.
+ * <p>
+ * The request body is read as newline-delimited JSON, one vehicle pass per line. Every pass is calculated as soon
+ * as it is parsed and written back as a line of the response before the next pass is read. Nothing is buffered
+ * beyond the current pass, so memory use does not depend on the size of the upload, and a client that does not
+ * read the response stalls the reading of its own request body.
+ * <p>
+ * A pass that cannot be mapped or calculated is answered with an error line in its place, and the passes after it
+ * are still calculated. A line that is not valid JSON ends the stream with an error line, since the passes after it
+ * cannot be told apart reliably. The response status is 200 either way, as it is sent before the first pass is read.
+ */
+@Slf4j
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequestMapping("/api/toll")
+@RequiredArgsConstructor
+public class TollStreamController {
+
+    private final TaxRateCalculator taxRateCalculator;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Calculate the toll for a stream of vehicle passes.
+     *
+     * @param body     the request body holding one vehicle pass per line
+     * @param response the response receiving one calculated vehicle pass per line
+     * @throws IOException if reading the request or writing the response fails
+     */
+    @PostMapping(value = "/calculate/stream", consumes = MediaType.APPLICATION_NDJSON_VALUE,
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void calculateTollStream(InputStream body, HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        try (MappingIterator<VehicleDTO> vehicles = objectMapper.readerFor(VehicleDTO.class).readValues(body);
+             SequenceWriter results = objectMapper.writer()
+                     .withRootValueSeparator("\n")
+                     .writeValues(response.getOutputStream())) {
+            long pass = 1;
+            try {
+                for (; vehicles.hasNextValue(); pass++) {
+                    results.write(calculate(vehicles, pass));
+                }
+            } catch (StreamReadException e) {
+                results.write(new StreamErrorDTO(pass, e.getOriginalMessage()));
+            }
+        }
+    }
+
+    private Object calculate(MappingIterator<VehicleDTO> vehicles, long pass) throws IOException {
+        VehicleDTO vehicle;
+        try {
+            vehicle = vehicles.nextValue();
+        } catch (DatabindException e) {
+            return new StreamErrorDTO(pass, e.getOriginalMessage());
+        }
+        try {
+            vehicle.setTaxAmount(taxRateCalculator.calculate(vehicle));
+            return vehicle;
+        } catch (RuntimeException e) {
+            if (AnnotationUtils.findAnnotation(e.getClass(), ResponseStatus.class) != null) {
+                return new StreamErrorDTO(pass, e.getMessage());
+            }
+            log.warn("Calculating the toll of {} failed", vehicle, e);
+            return new StreamErrorDTO(pass, "Calculating the toll failed");
+        }
+    }
+}
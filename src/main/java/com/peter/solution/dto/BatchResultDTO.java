@@ -0,0 +1,19 @@
+package com.peter.solution.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Result of a batch toll calculation: every toll pass of the batch with its calculated tax amount, in the order
+ * they were submitted, and the resulting totals per vehicle and day.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public final class BatchResultDTO {
+    private List<VehicleDTO> passes;
+    private List<DailyTotalDTO> dailyTotals;
+}
@@ -0,0 +1,29 @@
+package com.peter.solution.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.peter.solution.json.OreAmountSerializer;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Total toll charged to one vehicle on one day, in öre, either in one city or, without a city, in all of them.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public final class DailyTotalDTO {
+    private String plateNumber;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String city;
+    private LocalDate date;
+    @JsonSerialize(using = OreAmountSerializer.class)
+    private long totalAmount;
+
+    public DailyTotalDTO(String plateNumber, LocalDate date, long totalAmount) {
+        this(plateNumber, null, date, totalAmount);
+    }
+}
@@ -0,0 +1,24 @@
+package com.peter.solution.dto;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.peter.solution.json.OreAmountSerializer;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * Total toll charged to one vehicle in one month, in öre, with the totals of the days it was charged on.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public final class PlateTotalsDTO {
+    private String plateNumber;
+    private YearMonth month;
+    @JsonSerialize(using = OreAmountSerializer.class)
+    private long totalAmount;
+    private List<DailyTotalDTO> dailyTotals;
+}
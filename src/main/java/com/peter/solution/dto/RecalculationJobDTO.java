@@ -0,0 +1,30 @@
+package com.peter.solution.dto;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.peter.solution.json.OreAmountSerializer;
+import com.peter.solution.service.RecalculationJob;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Progress of a recalculation of stored toll passes. The adjustment is the sum of the new charges minus the sum of
+ * the previous charges recalculated so far, in öre.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public final class RecalculationJobDTO {
+    private long id;
+    private String description;
+    private RecalculationJob.Status status;
+    private long plateDays;
+    private long recalculatedPlateDays;
+    @JsonSerialize(using = OreAmountSerializer.class)
+    private long adjustment;
+    private Instant startedAt;
+    private Instant completedAt;
+    private String error;
+}
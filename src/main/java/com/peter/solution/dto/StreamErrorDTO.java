@@ -0,0 +1,19 @@
+package com.peter.solution.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Error written in place of a pass of a toll stream that could not be read or calculated.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public final class StreamErrorDTO {
+    /**
+     * The position of the pass in the stream, counting from 1.
+     */
+    private long pass;
+    private String error;
+}
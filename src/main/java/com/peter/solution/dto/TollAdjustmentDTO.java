@@ -0,0 +1,29 @@
+package com.peter.solution.dto;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.peter.solution.json.OreAmountDeserializer;
+import com.peter.solution.json.OreAmountSerializer;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Changed charge of an earlier toll pass of the same vehicle and day, caused by a toll pass that arrived late, in
+ * öre. Billing applies the difference between the amount and the previous amount.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public final class TollAdjustmentDTO {
+    private long tollPassId;
+    private LocalDateTime tollPassDateTime;
+    @JsonSerialize(using = OreAmountSerializer.class)
+    @JsonDeserialize(using = OreAmountDeserializer.class)
+    private long previousAmount;
+    @JsonSerialize(using = OreAmountSerializer.class)
+    @JsonDeserialize(using = OreAmountDeserializer.class)
+    private long amount;
+}
@@ -1,17 +1,29 @@
 package com.peter.solution.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.peter.solution.json.VehicleDTODeserializer;
+import com.peter.solution.json.VehicleDTOSerializer;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Data
 @NoArgsConstructor
+@JsonSerialize(using = VehicleDTOSerializer.class)
+@JsonDeserialize(using = VehicleDTODeserializer.class)
 public final class VehicleDTO {
     private String type;
     private String plateNumber;
+    private String city;
     private LocalDateTime tollPassDateTime;
-    private double taxAmount;
+    private long taxAmount;
+    // changed charges of earlier passes of the vehicle and day, if this pass arrived late
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    private List<TollAdjustmentDTO> adjustments;
 
     public VehicleDTO(String type, String plateNumber, LocalDateTime tollPassDateTime) {
         this.type = type;
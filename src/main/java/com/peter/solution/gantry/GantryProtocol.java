@@ -0,0 +1,137 @@
+package com.peter.solution.gantry;
+
+import com.peter.solution.dto.VehicleDTO;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Fixed-width binary frames exchanged with the gantries over the {@link GantryServer}.
+ * <p>
+ * A gantry sends one request frame of {@value #REQUEST_SIZE} bytes per vehicle pass and receives one response frame
+ * of {@value #RESPONSE_SIZE} bytes per request, in the same order. Requests may be pipelined without waiting for
+ * their responses. All numbers are big endian.
+ * <p>
+ * Request frame:
+ * <pre>
+ *  0  long   correlation identifier, echoed in the response
+ *  8  long   pass time in epoch seconds, the local time of the gantry taken as UTC
+ * 16  byte   vehicle type code, see {@link #vehicleTypeCode(String)}
+ * 17  byte   length of the plate number in bytes
+ * 18  byte[] plate number, UTF-8, at most 30 bytes
+ * </pre>
+ * Response frame:
+ * <pre>
+ *  0  long   correlation identifier of the request
+ *  8  long   tax amount in öre, or {@link #INVALID_FRAME} or {@link #CALCULATION_FAILED}
+ * </pre>
+ */
+public final class GantryProtocol {
+
+    public static final int REQUEST_SIZE = 48;
+    public static final int RESPONSE_SIZE = 16;
+    public static final int MAX_PLATE_BYTES = REQUEST_SIZE - 18;
+
+    /**
+     * Tax amount answered for a request with an unknown vehicle type code, an invalid plate number length or a pass
+     * time outside the range of {@link LocalDateTime}.
+     */
+    public static final long INVALID_FRAME = -1;
+
+    /**
+     * Tax amount answered for a request whose calculation failed.
+     */
+    public static final long CALCULATION_FAILED = -2;
+
+    private static final long MIN_EPOCH_SECOND = LocalDateTime.MIN.toEpochSecond(ZoneOffset.UTC);
+    private static final long MAX_EPOCH_SECOND = LocalDateTime.MAX.toEpochSecond(ZoneOffset.UTC);
+
+    private static final String[] VEHICLE_TYPES = {
+            "Car", "Motorcycle", "Tractor", "Emergency", "Diplomat", "Foreign", "Military", "Bus"};
+
+    private GantryProtocol() {
+    }
+
+    /**
+     * Returns the code of a vehicle type in request frames.
+     *
+     * @param type the vehicle type
+     * @return the code of the vehicle type
+     * @throws IllegalArgumentException if the vehicle type has no code
+     */
+    public static byte vehicleTypeCode(String type) {
+        for (int code = 0; code < VEHICLE_TYPES.length; code++) {
+            if (VEHICLE_TYPES[code].equals(type)) return (byte) code;
+        }
+        throw new IllegalArgumentException("No code for vehicle type " + type);
+    }
+
+    /**
+     * Writes a request frame at the position of the buffer and advances it.
+     *
+     * @param buffer        the buffer to write to
+     * @param correlationId the correlation identifier of the request
+     * @param vehicle       the vehicle pass
+     * @throws IllegalArgumentException if the vehicle type has no code or the plate number is too long
+     */
+    public static void writeRequest(ByteBuffer buffer, long correlationId, VehicleDTO vehicle) {
+        byte[] plate = vehicle.getPlateNumber().getBytes(StandardCharsets.UTF_8);
+        if (plate.length > MAX_PLATE_BYTES) {
+            throw new IllegalArgumentException("Plate number too long for a gantry frame: " + vehicle.getPlateNumber());
+        }
+        int offset = buffer.position();
+        buffer.putLong(offset, correlationId);
+        buffer.putLong(offset + 8, vehicle.getTollPassDateTime().toEpochSecond(ZoneOffset.UTC));
+        buffer.put(offset + 16, vehicleTypeCode(vehicle.getType()));
+        buffer.put(offset + 17, (byte) plate.length);
+        buffer.put(offset + 18, plate);
+        buffer.put(offset + 18 + plate.length, new byte[MAX_PLATE_BYTES - plate.length]);
+        buffer.position(offset + REQUEST_SIZE);
+    }
+
+    /**
+     * Reads the vehicle pass of the request frame at the given offset, without moving the position of the buffer.
+     *
+     * @param buffer the buffer holding the request frame
+     * @param offset the offset of the request frame
+     * @param plate  a scratch array of at least {@value #MAX_PLATE_BYTES} bytes to copy the plate number through
+     * @return the vehicle pass, or null if the frame is invalid
+     */
+    public static VehicleDTO readRequest(ByteBuffer buffer, int offset, byte[] plate) {
+        long epochSecond = buffer.getLong(offset + 8);
+        int typeCode = buffer.get(offset + 16);
+        int plateLength = buffer.get(offset + 17);
+        if (typeCode < 0 || typeCode >= VEHICLE_TYPES.length || plateLength <= 0 || plateLength > MAX_PLATE_BYTES
+                || epochSecond < MIN_EPOCH_SECOND || epochSecond > MAX_EPOCH_SECOND) {
+            return null;
+        }
+        buffer.get(offset + 18, plate, 0, plateLength);
+        return new VehicleDTO(VEHICLE_TYPES[typeCode],
+                new String(plate, 0, plateLength, StandardCharsets.UTF_8),
+                LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC));
+    }
+
+    /**
+     * Returns the correlation identifier of the request frame at the given offset.
+     *
+     * @param buffer the buffer holding the request frame
+     * @param offset the offset of the request frame
+     * @return the correlation identifier
+     */
+    public static long correlationId(ByteBuffer buffer, int offset) {
+        return buffer.getLong(offset);
+    }
+
+    /**
+     * Writes a response frame at the position of the buffer and advances it.
+     *
+     * @param buffer        the buffer to write to
+     * @param correlationId the correlation identifier of the request
+     * @param taxAmount     the tax amount in öre, or an error code
+     */
+    public static void writeResponse(ByteBuffer buffer, long correlationId, long taxAmount) {
+        buffer.putLong(correlationId).putLong(taxAmount);
+    }
+}
@@ -0,0 +1,333 @@
+package com.peter.solution.gantry;
+
+import com.peter.solution.dto.VehicleDTO;
+import com.peter.solution.service.TaxRateCalculator;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Non-blocking TCP server calculating the toll of the vehicle passes sent by gantries as binary frames of the
+ * {@link GantryProtocol}.
+ * <p>
+ * An acceptor thread hands every accepted connection to one of a fixed number of event loops, each running on its
+ * own thread with its own selector. An event loop reads the frames of a connection into a direct buffer and decodes
+ * the complete requests in place, without parsing text. The decoded batch is calculated on a virtual thread with the
+ * same {@link TaxRateCalculator} as the HTTP endpoints, since a calculation may wait for the lock of its plate or for
+ * the journal to reach the disk. When the batch is done, the event loop writes its responses from a second direct
+ * buffer. A connection has at most one batch in flight, so its responses keep the order of its requests.
+ * </p>
+ * <p>
+ * Requests are only decoded while their responses fit into the write buffer. If a gantry does not read its
+ * responses, its connection stops being read until the responses are written, so its requests queue up in the
+ * socket buffers of the network instead of in memory.
+ * </p>
+ */
+@Slf4j
+public final class GantryServer implements Closeable {
+
+    private static final int FRAMES_PER_BUFFER = 512;
+
+    private final TaxRateCalculator taxRateCalculator;
+    private final ServerSocketChannel serverChannel;
+    private final List<EventLoop> eventLoops = new ArrayList<>();
+    private final ExecutorService calculations = Executors.newVirtualThreadPerTaskExecutor();
+    private volatile boolean running = true;
+
+    /**
+     * Binds the server to the given address. The server does not accept connections until it is started.
+     *
+     * @param address           the address to listen on, with port 0 for any free port
+     * @param threads           the number of event loop threads
+     * @param taxRateCalculator the calculator of the toll passes
+     * @throws UncheckedIOException if the address cannot be bound
+     */
+    public GantryServer(InetSocketAddress address, int threads, TaxRateCalculator taxRateCalculator) {
+        this.taxRateCalculator = taxRateCalculator;
+        try {
+            serverChannel = ServerSocketChannel.open();
+            serverChannel.bind(address);
+            for (int i = 0; i < threads; i++) {
+                eventLoops.add(new EventLoop(Selector.open(), "gantry-event-loop-" + i));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot listen for gantries on " + address, e);
+        }
+    }
+
+    /**
+     * Starts accepting connections.
+     */
+    public void start() {
+        eventLoops.forEach(eventLoop -> eventLoop.thread.start());
+        Thread acceptor = new Thread(this::accept, "gantry-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+        log.info("Listening for gantries on port {}", getPort());
+    }
+
+    /**
+     * Returns the port the server listens on.
+     *
+     * @return the local port
+     */
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    /**
+     * Stops accepting connections, closes all open connections and waits for the running calculations.
+     */
+    @Override
+    public void close() throws IOException {
+        running = false;
+        serverChannel.close();
+        for (EventLoop eventLoop : eventLoops) {
+            eventLoop.selector.wakeup();
+            try {
+                eventLoop.thread.join(10_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        calculations.shutdown();
+        try {
+            calculations.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void accept() {
+        int next = 0;
+        while (running) {
+            try {
+                SocketChannel channel = serverChannel.accept();
+                channel.configureBlocking(false);
+                channel.socket().setTcpNoDelay(true);
+                eventLoops.get(next).register(channel);
+                next = (next + 1) % eventLoops.size();
+            } catch (ClosedChannelException e) {
+                return;
+            } catch (IOException e) {
+                log.warn("Accepting a gantry connection failed", e);
+            }
+        }
+    }
+
+    /**
+     * Selector loop serving a share of the connections on its own thread.
+     */
+    private final class EventLoop {
+
+        private final Selector selector;
+        private final Thread thread;
+        private final Queue<SocketChannel> registrations = new ConcurrentLinkedQueue<>();
+        private final Queue<Connection> completions = new ConcurrentLinkedQueue<>();
+
+        private EventLoop(Selector selector, String name) {
+            this.selector = selector;
+            this.thread = new Thread(this::run, name);
+            this.thread.setDaemon(true);
+        }
+
+        private void register(SocketChannel channel) {
+            registrations.add(channel);
+            selector.wakeup();
+        }
+
+        private void complete(Connection connection) {
+            completions.add(connection);
+            selector.wakeup();
+        }
+
+        private void run() {
+            while (running) {
+                try {
+                    selector.select();
+                    for (SocketChannel channel = registrations.poll(); channel != null; channel = registrations.poll()) {
+                        channel.register(selector, SelectionKey.OP_READ, new Connection(this, channel));
+                    }
+                    for (Connection connection = completions.poll(); connection != null;
+                         connection = completions.poll()) {
+                        SelectionKey key = connection.channel.keyFor(selector);
+                        connection.writeResponses();
+                        if (key != null && key.isValid()) {
+                            progress(key);
+                        }
+                    }
+                    Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                    while (keys.hasNext()) {
+                        SelectionKey key = keys.next();
+                        keys.remove();
+                        serve(key);
+                    }
+                } catch (IOException e) {
+                    log.error("Gantry event loop failed", e);
+                }
+            }
+            for (SelectionKey key : selector.keys()) {
+                closeQuietly(key);
+            }
+            closeQuietly(selector);
+        }
+
+        private void serve(SelectionKey key) {
+            Connection connection = (Connection) key.attachment();
+            try {
+                if (key.isReadable() && connection.channel.read(connection.requests) == -1) {
+                    closeQuietly(key);
+                    return;
+                }
+            } catch (IOException e) {
+                log.debug("Closing gantry connection {}", connection.channel, e);
+                closeQuietly(key);
+                return;
+            }
+            progress(key);
+        }
+
+        /**
+         * Writes the pending responses, hands the next batch of requests to a calculation if none is running, and
+         * reads from the connection only while there is room for more requests.
+         */
+        private void progress(SelectionKey key) {
+            Connection connection = (Connection) key.attachment();
+            try {
+                boolean flushed = connection.flush();
+                if (!connection.calculating && connection.decode() > 0) {
+                    calculations.execute(connection::calculate);
+                }
+                int interestOps = flushed ? 0 : SelectionKey.OP_WRITE;
+                if (connection.requests.hasRemaining()) {
+                    interestOps |= SelectionKey.OP_READ;
+                }
+                key.interestOps(interestOps);
+            } catch (IOException | RejectedExecutionException e) {
+                log.debug("Closing gantry connection {}", connection.channel, e);
+                closeQuietly(key);
+            }
+        }
+
+        private void closeQuietly(SelectionKey key) {
+            key.cancel();
+            closeQuietly(key.channel());
+        }
+
+        private void closeQuietly(Closeable closeable) {
+            try {
+                closeable.close();
+            } catch (IOException e) {
+                log.debug("Closing {} failed", closeable, e);
+            }
+        }
+    }
+
+    /**
+     * The buffers of one gantry connection and its batch of decoded requests. Both buffers are kept in write mode
+     * between calls and are only touched by the event loop; the batch is handed to the calculation and back through
+     * the executor and the completion queue.
+     */
+    private final class Connection {
+
+        private final EventLoop eventLoop;
+        private final SocketChannel channel;
+        private final ByteBuffer requests = ByteBuffer.allocateDirect(GantryProtocol.REQUEST_SIZE * FRAMES_PER_BUFFER);
+        private final ByteBuffer responses = ByteBuffer.allocateDirect(GantryProtocol.RESPONSE_SIZE * FRAMES_PER_BUFFER);
+        private final byte[] plate = new byte[GantryProtocol.MAX_PLATE_BYTES];
+        private final long[] correlationIds = new long[FRAMES_PER_BUFFER];
+        private final VehicleDTO[] vehicles = new VehicleDTO[FRAMES_PER_BUFFER];
+        private final long[] amounts = new long[FRAMES_PER_BUFFER];
+        private int batchSize;
+        private boolean calculating;
+
+        private Connection(EventLoop eventLoop, SocketChannel channel) {
+            this.eventLoop = eventLoop;
+            this.channel = channel;
+        }
+
+        /**
+         * Decodes the complete requests read so far into the batch, as long as their responses fit into the write
+         * buffer, and marks the batch as calculating.
+         *
+         * @return the number of decoded requests
+         */
+        private int decode() {
+            requests.flip();
+            batchSize = 0;
+            int room = responses.remaining() / GantryProtocol.RESPONSE_SIZE;
+            while (requests.remaining() >= GantryProtocol.REQUEST_SIZE && batchSize < room) {
+                int offset = requests.position();
+                correlationIds[batchSize] = GantryProtocol.correlationId(requests, offset);
+                vehicles[batchSize] = GantryProtocol.readRequest(requests, offset, plate);
+                batchSize++;
+                requests.position(offset + GantryProtocol.REQUEST_SIZE);
+            }
+            requests.compact();
+            calculating = batchSize > 0;
+            return batchSize;
+        }
+
+        /**
+         * Calculates the batch on a worker thread and hands the connection back to its event loop.
+         */
+        private void calculate() {
+            for (int i = 0; i < batchSize; i++) {
+                amounts[i] = calculate(vehicles[i]);
+                vehicles[i] = null;
+            }
+            eventLoop.complete(this);
+        }
+
+        private long calculate(VehicleDTO vehicle) {
+            if (vehicle == null) return GantryProtocol.INVALID_FRAME;
+            try {
+                return taxRateCalculator.calculate(vehicle);
+            } catch (RuntimeException e) {
+                log.warn("Calculating the toll of {} failed", vehicle, e);
+                return GantryProtocol.CALCULATION_FAILED;
+            }
+        }
+
+        /**
+         * Writes the responses of the calculated batch into the write buffer.
+         */
+        private void writeResponses() {
+            for (int i = 0; i < batchSize; i++) {
+                GantryProtocol.writeResponse(responses, correlationIds[i], amounts[i]);
+            }
+            batchSize = 0;
+            calculating = false;
+        }
+
+        /**
+         * Writes as many responses as the socket accepts.
+         *
+         * @return whether all responses were written
+         */
+        private boolean flush() throws IOException {
+            responses.flip();
+            channel.write(responses);
+            responses.compact();
+            return responses.position() == 0;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.peter.solution.json;
+
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+
+/**
+ * Parses and formats the fixed ISO-8601 layout of local date-times, {@code yyyy-MM-ddTHH:mm[:ss[.SSSSSSSSS]]},
+ * directly on character arrays, without building intermediate strings or going through a {@code DateTimeFormatter}.
+ * <p>
+ * Only the layout written by clients and by Jackson's default formatter is handled; everything else, such as
+ * years beyond 9999 or a trailing offset, is left to the caller to fall back to the standard Jackson handling.
+ */
+final class IsoLocalDateTime {
+
+    /**
+     * The longest formatted date-time, with nanoseconds.
+     */
+    static final int MAX_LENGTH = 29;
+
+    private IsoLocalDateTime() {
+    }
+
+    /**
+     * Parses a local date-time in the fixed layout.
+     *
+     * @param text   the characters holding the date-time
+     * @param offset the offset of the first character
+     * @param length the number of characters
+     * @return the date-time, or null if the characters are not a valid date-time in the fixed layout
+     */
+    static LocalDateTime parse(char[] text, int offset, int length) {
+        if (length < 16 || text[offset + 4] != '-' || text[offset + 7] != '-' || text[offset + 10] != 'T'
+                || text[offset + 13] != ':') {
+            return null;
+        }
+        int year = digits(text, offset, 4);
+        int month = digits(text, offset + 5, 2);
+        int day = digits(text, offset + 8, 2);
+        int hour = digits(text, offset + 11, 2);
+        int minute = digits(text, offset + 14, 2);
+        int second = 0;
+        int nano = 0;
+        if (length > 16) {
+            if (length < 19 || text[offset + 16] != ':') return null;
+            second = digits(text, offset + 17, 2);
+            if (length > 19) {
+                int fractionDigits = length - 20;
+                if (fractionDigits < 1 || fractionDigits > 9 || text[offset + 19] != '.') return null;
+                nano = digits(text, offset + 20, fractionDigits);
+                for (int i = fractionDigits; i < 9; i++) {
+                    nano *= 10;
+                }
+            }
+        }
+        if ((year | month | day | hour | minute | second | nano) < 0) return null;
+        try {
+            return LocalDateTime.of(year, month, day, hour, minute, second, nano);
+        } catch (DateTimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Formats a local date-time in the fixed layout, always with seconds and with the fraction of a second without
+     * trailing zeros, the same as Jackson's default formatter.
+     *
+     * @param dateTime the date-time to format
+     * @param buffer   the buffer of at least {@value #MAX_LENGTH} characters to format into
+     * @return the number of characters written, or -1 if the year is not between 0 and 9999
+     */
+    static int format(LocalDateTime dateTime, char[] buffer) {
+        int year = dateTime.getYear();
+        if (year < 0 || year > 9999) return -1;
+        writeDigits(buffer, 0, year, 4);
+        buffer[4] = '-';
+        writeDigits(buffer, 5, dateTime.getMonthValue(), 2);
+        buffer[7] = '-';
+        writeDigits(buffer, 8, dateTime.getDayOfMonth(), 2);
+        buffer[10] = 'T';
+        writeDigits(buffer, 11, dateTime.getHour(), 2);
+        buffer[13] = ':';
+        writeDigits(buffer, 14, dateTime.getMinute(), 2);
+        buffer[16] = ':';
+        writeDigits(buffer, 17, dateTime.getSecond(), 2);
+        int nano = dateTime.getNano();
+        if (nano == 0) return 19;
+
+        int fractionDigits = 9;
+        while (nano % 10 == 0) {
+            nano /= 10;
+            fractionDigits--;
+        }
+        buffer[19] = '.';
+        writeDigits(buffer, 20, nano, fractionDigits);
+        return 20 + fractionDigits;
+    }
+
+    /**
+     * Reads a fixed number of decimal digits, or returns -1 if any of the characters is not a digit.
+     */
+    private static int digits(char[] text, int offset, int count) {
+        int value = 0;
+        for (int i = offset; i < offset + count; i++) {
+            int digit = text[i] - '0';
+            if (digit < 0 || digit > 9) return -1;
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private static void writeDigits(char[] buffer, int offset, int value, int count) {
+        for (int i = offset + count - 1; i >= offset; i--) {
+            buffer[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.peter.solution.json;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+
+import java.io.IOException;
+import java.math.RoundingMode;
+
+/**
+ * Reads a decimal number of kronor, e.g. {@code 13.5}, as an amount in öre. Fractions of an öre are rounded half
+ * up.
+ */
+public final class OreAmountDeserializer extends StdDeserializer<Long> {
+
+    public OreAmountDeserializer() {
+        super(Long.class);
+    }
+
+    /**
+     * Reads an amount in kronor and converts it to öre.
+     *
+     * @param parser  the parser positioned at the amount
+     * @param context the deserialization context
+     * @return the amount in öre
+     * @throws IOException if the amount is not a number or does not fit into a long
+     */
+    @Override
+    public Long deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+        if (!parser.currentToken().isNumeric()) {
+            return (Long) context.handleUnexpectedToken(Long.class, parser);
+        }
+        try {
+            return parser.getDecimalValue().movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+        } catch (ArithmeticException e) {
+            return (Long) context.handleWeirdNumberValue(Long.class, parser.getNumberValue(), "amount out of range");
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.peter.solution.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+
+/**
+ * Writes an amount held in öre as a decimal number of kronor with two decimals, e.g. 1350 as {@code 13.50}.
+ */
+public final class OreAmountSerializer extends StdSerializer<Long> {
+
+    private static final int MAX_LENGTH = 22;
+
+    public OreAmountSerializer() {
+        super(Long.class);
+    }
+
+    /**
+     * Writes the given amount in öre as kronor.
+     *
+     * @param ore       the amount in öre
+     * @param generator the generator to write to
+     * @param provider  the serializer provider
+     * @throws IOException if writing fails
+     */
+    @Override
+    public void serialize(Long ore, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        if (ore == Long.MIN_VALUE) {
+            generator.writeNumber(BigDecimal.valueOf(ore, 2).toPlainString());
+            return;
+        }
+        char[] buffer = new char[MAX_LENGTH];
+        int start = format(Math.abs(ore), buffer);
+        if (ore < 0) buffer[--start] = '-';
+        generator.writeNumber(buffer, start, MAX_LENGTH - start);
+    }
+
+    /**
+     * Formats a non-negative amount in öre as kronor into the end of the buffer.
+     *
+     * @return the offset of the first character written
+     */
+    private static int format(long ore, char[] buffer) {
+        int position = MAX_LENGTH;
+        buffer[--position] = (char) ('0' + ore % 10);
+        buffer[--position] = (char) ('0' + ore / 10 % 10);
+        buffer[--position] = '.';
+        long kronor = ore / 100;
+        do {
+            buffer[--position] = (char) ('0' + kronor % 10);
+            kronor /= 10;
+        } while (kronor > 0);
+        return position;
+    }
+}
@@ -0,0 +1,111 @@
+package com.peter.solution.json;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import com.peter.solution.dto.TollAdjustmentDTO;
+import com.peter.solution.dto.VehicleDTO;
+import com.peter.solution.repository.tollpass.TollPass;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Reads a {@link VehicleDTO} from the token stream, without introspecting the bean or creating it reflectively.
+ * <p>
+ * Plain string values are taken as they are, and the pass time is parsed by {@link IsoLocalDateTime} straight
+ * from the parser's character buffer. Any other representation, e.g. a date-time array or a number where a string
+ * is expected, is read by the deserializer Jackson would use, so the accepted input and the errors stay the same as
+ * with the bean binding. The adjustments, which only late passes carry, are always read by Jackson. Unknown
+ * properties are handled according to {@code DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES}. A plate number
+ * longer than a toll pass can store is rejected here, before anything is charged for it.
+ */
+public final class VehicleDTODeserializer extends StdDeserializer<VehicleDTO> {
+
+    private static final OreAmountDeserializer AMOUNT_DESERIALIZER = new OreAmountDeserializer();
+    private static final JavaType ADJUSTMENTS_TYPE =
+            TypeFactory.defaultInstance().constructCollectionType(List.class, TollAdjustmentDTO.class);
+
+    public VehicleDTODeserializer() {
+        super(VehicleDTO.class);
+    }
+
+    /**
+     * Reads a vehicle pass from a JSON object.
+     *
+     * @param parser  the parser positioned at the start of the object
+     * @param context the deserialization context
+     * @return the vehicle pass
+     * @throws IOException if the input is not a valid vehicle pass
+     */
+    @Override
+    public VehicleDTO deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.START_OBJECT) {
+            token = parser.nextToken();
+        } else if (token != JsonToken.FIELD_NAME && token != JsonToken.END_OBJECT) {
+            return (VehicleDTO) context.handleUnexpectedToken(VehicleDTO.class, parser);
+        }
+
+        VehicleDTO vehicle = new VehicleDTO();
+        for (; token == JsonToken.FIELD_NAME; token = parser.nextToken()) {
+            String name = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (name) {
+                case "type" -> vehicle.setType(readString(parser, context));
+                case "plateNumber" -> vehicle.setPlateNumber(readPlateNumber(parser, context));
+                case "city" -> vehicle.setCity(readString(parser, context));
+                case "tollPassDateTime" -> vehicle.setTollPassDateTime(readPassTime(parser, context));
+                case "taxAmount" -> {
+                    if (value != JsonToken.VALUE_NULL) {
+                        vehicle.setTaxAmount(AMOUNT_DESERIALIZER.deserialize(parser, context));
+                    }
+                }
+                case "adjustments" -> vehicle.setAdjustments(readAdjustments(parser, context));
+                default -> context.handleUnknownProperty(parser, this, VehicleDTO.class, name);
+            }
+        }
+        return vehicle;
+    }
+
+    private static String readString(JsonParser parser, DeserializationContext context) throws IOException {
+        return switch (parser.currentToken()) {
+            case VALUE_STRING -> parser.getText();
+            case VALUE_NULL -> null;
+            default -> context.readValue(parser, String.class);
+        };
+    }
+
+    private static String readPlateNumber(JsonParser parser, DeserializationContext context) throws IOException {
+        String plateNumber = readString(parser, context);
+        // a character takes at most three bytes of UTF-8, so short plate numbers need not be encoded
+        if (plateNumber != null && plateNumber.length() * 3 > TollPass.MAX_PLATE_NUMBER_BYTES
+                && plateNumber.getBytes(StandardCharsets.UTF_8).length > TollPass.MAX_PLATE_NUMBER_BYTES) {
+            throw context.weirdStringException(plateNumber, String.class,
+                    "longer than " + TollPass.MAX_PLATE_NUMBER_BYTES + " bytes of UTF-8");
+        }
+        return plateNumber;
+    }
+
+    private static List<TollAdjustmentDTO> readAdjustments(JsonParser parser, DeserializationContext context)
+            throws IOException {
+        if (parser.currentToken() == JsonToken.VALUE_NULL) return null;
+        return context.readValue(parser, ADJUSTMENTS_TYPE);
+    }
+
+    private static LocalDateTime readPassTime(JsonParser parser, DeserializationContext context) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.VALUE_NULL) return null;
+        if (token == JsonToken.VALUE_STRING) {
+            LocalDateTime passTime = IsoLocalDateTime.parse(parser.getTextCharacters(), parser.getTextOffset(),
+                    parser.getTextLength());
+            if (passTime != null) return passTime;
+        }
+        return context.readValue(parser, LocalDateTime.class);
+    }
+}
@@ -0,0 +1,68 @@
+package com.peter.solution.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.peter.solution.dto.VehicleDTO;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+
+/**
+ * Writes a {@link VehicleDTO} field by field, without introspecting the bean.
+ * <p>
+ * The output is the same as the one of Jackson's bean binding: the city is left out when it is null, the adjustments
+ * when there are none, the tax amount
+ * is written as kronor by the {@link OreAmountSerializer} and the pass time in the ISO layout of
+ * {@link IsoLocalDateTime}, formatted straight into a character buffer. When dates are written as timestamps, or
+ * for years the fixed layout cannot hold, the pass time is written by the serializer Jackson would use.
+ */
+public final class VehicleDTOSerializer extends StdSerializer<VehicleDTO> {
+
+    private static final OreAmountSerializer AMOUNT_SERIALIZER = new OreAmountSerializer();
+
+    public VehicleDTOSerializer() {
+        super(VehicleDTO.class);
+    }
+
+    /**
+     * Writes the given vehicle pass as a JSON object.
+     *
+     * @param vehicle   the vehicle pass
+     * @param generator the generator to write to
+     * @param provider  the serializer provider
+     * @throws IOException if writing fails
+     */
+    @Override
+    public void serialize(VehicleDTO vehicle, JsonGenerator generator, SerializerProvider provider)
+            throws IOException {
+        generator.writeStartObject(vehicle);
+        generator.writeStringField("type", vehicle.getType());
+        generator.writeStringField("plateNumber", vehicle.getPlateNumber());
+        if (vehicle.getCity() != null) {
+            generator.writeStringField("city", vehicle.getCity());
+        }
+        writePassTime(vehicle.getTollPassDateTime(), generator, provider);
+        generator.writeFieldName("taxAmount");
+        AMOUNT_SERIALIZER.serialize(vehicle.getTaxAmount(), generator, provider);
+        if (vehicle.getAdjustments() != null && !vehicle.getAdjustments().isEmpty()) {
+            provider.defaultSerializeField("adjustments", vehicle.getAdjustments(), generator);
+        }
+        generator.writeEndObject();
+    }
+
+    private static void writePassTime(LocalDateTime passTime, JsonGenerator generator, SerializerProvider provider)
+            throws IOException {
+        if (passTime != null && !provider.isEnabled(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)) {
+            char[] buffer = new char[IsoLocalDateTime.MAX_LENGTH];
+            int length = IsoLocalDateTime.format(passTime, buffer);
+            if (length > 0) {
+                generator.writeFieldName("tollPassDateTime");
+                generator.writeString(buffer, 0, length);
+                return;
+            }
+        }
+        provider.defaultSerializeField("tollPassDateTime", passTime, generator);
+    }
+}
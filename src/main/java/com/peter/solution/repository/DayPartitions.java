@@ -0,0 +1,130 @@
+package com.peter.solution.repository;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Supplier;
+
+/**
+ * Data partitioned by day with a retention window.
+ * <p>
+ * Every day has its own partition. Whenever a partition for a new day is created, all partitions that fall out of
+ * the retention window counted back from the newest day are dropped as a whole, so old data never has to be
+ * removed entry by entry and memory use stays flat over time. The window is counted from the newest day seen in
+ * the data rather than from the wall clock, so replaying or importing historic data behaves the same as live
+ * traffic. A day more than a few days ahead of the clock is rejected before its partition is created, so a single
+ * entry dated far in the future cannot drop the retained days.
+ *
+ * @param <P> the type of a partition
+ */
+public final class DayPartitions<P> {
+
+    /**
+     * The number of days after today that are accepted by default.
+     */
+    public static final int DEFAULT_MAX_DAYS_AHEAD = 1;
+
+    private final NavigableMap<LocalDate, P> partitions = new ConcurrentSkipListMap<>();
+    private final int retentionDays;
+    private final int maxDaysAhead;
+    private final Clock clock;
+    private final Supplier<P> partitionFactory;
+
+    /**
+     * Creates an empty set of day partitions accepting days up to {@value #DEFAULT_MAX_DAYS_AHEAD} day after today
+     * by the system clock.
+     *
+     * @param retentionDays    the number of days kept, including the newest day
+     * @param partitionFactory creates the partition of a new day
+     * @throws IllegalArgumentException if the retention is not positive
+     */
+    public DayPartitions(int retentionDays, Supplier<P> partitionFactory) {
+        this(retentionDays, DEFAULT_MAX_DAYS_AHEAD, Clock.systemDefaultZone(), partitionFactory);
+    }
+
+    /**
+     * Creates an empty set of day partitions.
+     *
+     * @param retentionDays    the number of days kept, including the newest day
+     * @param maxDaysAhead     the number of days after today of the clock that are accepted
+     * @param clock            the clock today is taken from
+     * @param partitionFactory creates the partition of a new day
+     * @throws IllegalArgumentException if the retention is not positive or the days ahead are negative
+     */
+    public DayPartitions(int retentionDays, int maxDaysAhead, Clock clock, Supplier<P> partitionFactory) {
+        if (retentionDays < 1) throw new IllegalArgumentException("Retention must be at least one day");
+        if (maxDaysAhead < 0) throw new IllegalArgumentException("Days ahead must not be negative");
+        this.retentionDays = retentionDays;
+        this.maxDaysAhead = maxDaysAhead;
+        this.clock = clock;
+        this.partitionFactory = partitionFactory;
+    }
+
+    /**
+     * Returns the partition of the given day.
+     *
+     * @param date the day
+     * @return the partition, or null if there is none for the day
+     */
+    public P get(LocalDate date) {
+        return partitions.get(date);
+    }
+
+    /**
+     * Returns the partition of the given day, creating it if there is none yet. Creating a partition drops all
+     * partitions outside the retention window, which includes the new partition itself if its day is too old.
+     *
+     * @param date the day
+     * @return the partition of the day
+     * @throws FutureDayException if the day is further ahead of the clock than accepted
+     */
+    public P getOrCreate(LocalDate date) {
+        P partition = partitions.get(date);
+        if (partition != null) return partition;
+
+        checkAccepted(date);
+
+        P created = partitionFactory.get();
+        partition = partitions.putIfAbsent(date, created);
+        if (partition != null) return partition;
+
+        dropExpired();
+        return created;
+    }
+
+    /**
+     * Checks that a partition can be created for the given day, without creating it.
+     *
+     * @param date the day
+     * @throws FutureDayException if the day is further ahead of the clock than accepted
+     */
+    public void checkAccepted(LocalDate date) {
+        LocalDate latest = LocalDate.now(clock).plusDays(maxDaysAhead);
+        if (date.isAfter(latest)) throw new FutureDayException(date, latest);
+    }
+
+    /**
+     * Returns the partitions within the retention window, from the oldest to the newest day.
+     *
+     * @return a live view of the partitions
+     */
+    public Collection<P> values() {
+        return partitions.values();
+    }
+
+    /**
+     * Returns the partitions within the retention window by day, from the oldest to the newest day.
+     *
+     * @return a live view of the partitions by day
+     */
+    public NavigableMap<LocalDate, P> byDay() {
+        return partitions;
+    }
+
+    private void dropExpired() {
+        LocalDate oldestRetained = partitions.lastKey().minusDays(retentionDays - 1L);
+        partitions.headMap(oldestRetained).clear();
+    }
+}
@@ -0,0 +1,18 @@
+package com.peter.solution.repository;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.time.LocalDate;
+
+/**
+ * Thrown when data is dated further ahead of the clock than {@link DayPartitions} accept, since its day would
+ * otherwise push every retained day out of the retention window.
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class FutureDayException extends RuntimeException {
+
+    public FutureDayException(LocalDate date, LocalDate latest) {
+        super("Day " + date + " is after the latest accepted day " + latest);
+    }
+}
@@ -1,14 +1,19 @@
 package com.peter.solution.repository;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 
 /**
  * Abstract base class for in-memory repository implementation.
  * Provides basic CRUD operations for entities of type T with a Long identifier.
+ * <p>
+ * Every change increments the version of the repository. Reads of all entities are served from an immutable
+ * {@link Snapshot}, which is taken again only on the first read after a change, so repeated reads of data that
+ * rarely changes do not copy anything.
  *
  * @param <T> the type of entity managed by this repository
  */
@@ -16,15 +21,42 @@ public abstract class InMemoryRepository<T extends BaseEntity<Long>> implements
 
     private final Map<Long, T> storage = new ConcurrentHashMap<>();
     private final AtomicLong idGenerator = new AtomicLong(1);
+    private final AtomicLong version = new AtomicLong();
+    private volatile Snapshot<T> snapshot = Snapshot.empty();
 
     /**
      * Retrieves all entities of type T stored in the repository.
      *
-     * @return a list of all entities in the repository
+     * @return an immutable list of all entities in the repository
      */
     @Override
     public List<T> findAll() {
-        return new ArrayList<>(storage.values());
+        return snapshot().entities();
+    }
+
+    /**
+     * Returns an immutable snapshot of all entities at the current version of the repository.
+     *
+     * @return the current snapshot
+     */
+    public Snapshot<T> snapshot() {
+        Snapshot<T> current = snapshot;
+        long currentVersion = version.get();
+        if (current.version() != currentVersion) {
+            current = new Snapshot<>(currentVersion, List.copyOf(storage.values()));
+            snapshot = current;
+        }
+        return current;
+    }
+
+    /**
+     * Performs the given action for each entity in the repository without copying them. Changes made while
+     * iterating may or may not be seen by the action.
+     *
+     * @param action the action to perform for each entity
+     */
+    public void forEach(Consumer<? super T> action) {
+        storage.values().forEach(action);
     }
 
     /**
@@ -38,6 +70,7 @@ public abstract class InMemoryRepository<T extends BaseEntity<Long>> implements
         Long id = generateId();
         entity.setId(id);
         storage.put(id, entity);
+        version.incrementAndGet();
         return entity;
     }
 
@@ -48,7 +81,17 @@ public abstract class InMemoryRepository<T extends BaseEntity<Long>> implements
      */
     @Override
     public void deleteById(Long id) {
-        storage.remove(id);
+        if (storage.remove(id) != null) version.incrementAndGet();
+    }
+
+    /**
+     * Retrieves the entity with the given identifier.
+     *
+     * @param id the identifier of the entity to retrieve
+     * @return the entity, or an empty optional if no entity has the given identifier
+     */
+    protected Optional<T> findById(Long id) {
+        return Optional.ofNullable(storage.get(id));
     }
 
     /**
@@ -60,4 +103,4 @@ public abstract class InMemoryRepository<T extends BaseEntity<Long>> implements
         return idGenerator.getAndIncrement();
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,130 @@
+package com.peter.solution.repository;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Map from non-negative {@code int} keys to {@code int} values, without boxing either.
+ * <p>
+ * Entries are kept in two parallel arrays with open addressing and linear probing, 8 bytes per slot and at most
+ * half of the slots used. Writes are serialized by a lock, while reads never lock: the value of a new entry is
+ * written before its key with release semantics and read after it with acquire semantics, and the arrays are
+ * replaced as a whole when they grow. A reader that finds a value therefore also sees everything the writer did
+ * before putting it. Entries cannot be removed.
+ * </p>
+ */
+public final class IntIntMap {
+
+    private static final VarHandle INTS = MethodHandles.arrayElementVarHandle(int[].class);
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final Lock lock = new ReentrantLock();
+    private volatile Table table = new Table(INITIAL_CAPACITY);
+    private int size;
+
+    /**
+     * Returns the value of the given key.
+     *
+     * @param key     the key
+     * @param missing the value to return if the key is not in the map
+     * @return the value of the key, or {@code missing}
+     */
+    public int get(int key, int missing) {
+        Table current = table;
+        for (int slot = slotOf(key, current.mask); ; slot = (slot + 1) & current.mask) {
+            int stored = (int) INTS.getAcquire(current.keys, slot);
+            if (stored == 0) return missing;
+            if (stored == key + 1) return (int) INTS.getAcquire(current.values, slot);
+        }
+    }
+
+    /**
+     * Sets the value of the given key.
+     *
+     * @param key   the key, not negative
+     * @param value the value
+     * @throws IllegalArgumentException if the key is negative
+     */
+    public void put(int key, int value) {
+        if (key < 0) throw new IllegalArgumentException("Negative key " + key);
+        lock.lock();
+        try {
+            Table current = table;
+            int slot = slotOf(key, current.mask);
+            for (int stored; (stored = current.keys[slot]) != 0; slot = (slot + 1) & current.mask) {
+                if (stored == key + 1) {
+                    INTS.setRelease(current.values, slot, value);
+                    return;
+                }
+            }
+            if ((size + 1) * 2 > current.keys.length) {
+                current = grow(current);
+                slot = freeSlot(current, key);
+            }
+            INTS.setRelease(current.values, slot, value);
+            INTS.setRelease(current.keys, slot, key + 1);
+            size++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of keys in the map.
+     *
+     * @return the number of keys
+     */
+    public int size() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Table grow(Table current) {
+        Table grown = new Table(current.keys.length * 2);
+        for (int slot = 0; slot < current.keys.length; slot++) {
+            int stored = current.keys[slot];
+            if (stored != 0) {
+                int target = freeSlot(grown, stored - 1);
+                grown.keys[target] = stored;
+                grown.values[target] = current.values[slot];
+            }
+        }
+        table = grown;
+        return grown;
+    }
+
+    private static int freeSlot(Table table, int key) {
+        int slot = slotOf(key, table.mask);
+        while (table.keys[slot] != 0) {
+            slot = (slot + 1) & table.mask;
+        }
+        return slot;
+    }
+
+    private static int slotOf(int key, int mask) {
+        int hash = key * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    /**
+     * Keys, stored plus one so that 0 marks a free slot, and their values.
+     */
+    private static final class Table {
+
+        private final int[] keys;
+        private final int[] values;
+        private final int mask;
+
+        private Table(int capacity) {
+            keys = new int[capacity];
+            values = new int[capacity];
+            mask = capacity - 1;
+        }
+    }
+}
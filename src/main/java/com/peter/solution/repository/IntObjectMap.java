@@ -0,0 +1,153 @@
+package com.peter.solution.repository;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+
+/**
+ * Map from non-negative {@code int} keys to objects, without boxing the keys.
+ * <p>
+ * Entries are kept in two parallel arrays with open addressing and linear probing, at most half of the slots used.
+ * Writes are serialized by a lock, while reads never lock: the value of a new entry is written before its key with
+ * release semantics and read after it with acquire semantics, and the arrays are replaced as a whole when they
+ * grow, so a reader that finds a value sees it fully constructed. Entries cannot be removed.
+ * </p>
+ *
+ * @param <V> the type of the values
+ */
+public final class IntObjectMap<V> {
+
+    private static final VarHandle INTS = MethodHandles.arrayElementVarHandle(int[].class);
+    private static final VarHandle OBJECTS = MethodHandles.arrayElementVarHandle(Object[].class);
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final Lock lock = new ReentrantLock();
+    private volatile Table table = new Table(INITIAL_CAPACITY);
+    private int size;
+
+    /**
+     * Returns the value of the given key.
+     *
+     * @param key the key
+     * @return the value of the key, or null if the key is not in the map
+     */
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        Table current = table;
+        for (int slot = slotOf(key, current.mask); ; slot = (slot + 1) & current.mask) {
+            int stored = (int) INTS.getAcquire(current.keys, slot);
+            if (stored == 0) return null;
+            if (stored == key + 1) return (V) OBJECTS.getAcquire(current.values, slot);
+        }
+    }
+
+    /**
+     * Returns the value of the given key, adding the value created by the factory if the key is not in the map yet.
+     * The factory is called at most once per key, while holding the write lock.
+     *
+     * @param key     the key, not negative
+     * @param factory creates the value of a new key
+     * @return the value of the key
+     * @throws IllegalArgumentException if the key is negative
+     */
+    public V computeIfAbsent(int key, IntFunction<? extends V> factory) {
+        V value = get(key);
+        if (value != null) return value;
+        if (key < 0) throw new IllegalArgumentException("Negative key " + key);
+
+        lock.lock();
+        try {
+            value = get(key);
+            if (value != null) return value;
+
+            value = factory.apply(key);
+            Table current = table;
+            if ((size + 1) * 2 > current.keys.length) {
+                current = grow(current);
+            }
+            int slot = freeSlot(current, key);
+            OBJECTS.setRelease(current.values, slot, value);
+            INTS.setRelease(current.keys, slot, key + 1);
+            size++;
+            return value;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Passes every value to the given action, in no particular order. Values added while iterating may or may not
+     * be seen.
+     *
+     * @param action the action to perform on each value
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(Consumer<? super V> action) {
+        Table current = table;
+        for (int slot = 0; slot < current.keys.length; slot++) {
+            if ((int) INTS.getAcquire(current.keys, slot) != 0) {
+                action.accept((V) OBJECTS.getAcquire(current.values, slot));
+            }
+        }
+    }
+
+    /**
+     * Returns the number of keys in the map.
+     *
+     * @return the number of keys
+     */
+    public int size() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Table grow(Table current) {
+        Table grown = new Table(current.keys.length * 2);
+        for (int slot = 0; slot < current.keys.length; slot++) {
+            int stored = current.keys[slot];
+            if (stored != 0) {
+                int target = freeSlot(grown, stored - 1);
+                grown.keys[target] = stored;
+                grown.values[target] = current.values[slot];
+            }
+        }
+        table = grown;
+        return grown;
+    }
+
+    private static int freeSlot(Table table, int key) {
+        int slot = slotOf(key, table.mask);
+        while (table.keys[slot] != 0) {
+            slot = (slot + 1) & table.mask;
+        }
+        return slot;
+    }
+
+    private static int slotOf(int key, int mask) {
+        int hash = key * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    /**
+     * Keys, stored plus one so that 0 marks a free slot, and their values.
+     */
+    private static final class Table {
+
+        private final int[] keys;
+        private final Object[] values;
+        private final int mask;
+
+        private Table(int capacity) {
+            keys = new int[capacity];
+            values = new Object[capacity];
+            mask = capacity - 1;
+        }
+    }
+}
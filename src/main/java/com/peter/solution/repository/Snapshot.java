@@ -0,0 +1,23 @@
+package com.peter.solution.repository;
+
+import java.util.List;
+
+/**
+ * Immutable view of all entities of a repository at a given version.
+ *
+ * @param version  the version of the repository the snapshot was taken at
+ * @param entities the entities stored in the repository at that version
+ * @param <T>      the type of the entities
+ */
+public record Snapshot<T>(long version, List<T> entities) {
+
+    /**
+     * Returns an empty snapshot at version zero.
+     *
+     * @param <T> the type of the entities
+     * @return an empty snapshot
+     */
+    public static <T> Snapshot<T> empty() {
+        return new Snapshot<>(0, List.of());
+    }
+}
@@ -0,0 +1,164 @@
+package com.peter.solution.repository.city;
+
+import com.peter.solution.repository.dates.ExemptedDate;
+import com.peter.solution.repository.dates.ExemptionCalendar;
+import com.peter.solution.repository.taxrate.TariffTable;
+import com.peter.solution.repository.taxrate.TaxRate;
+import lombok.Getter;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * The compiled congestion tax rules of one city.
+ * <p>
+ * A rule set holds everything needed to charge a toll pass in its city: the tariff table, the calendar of exempted
+ * days, the exempted vehicle types, the daily cap and the length of the single charge window. A rule set compiled
+ * from the rules of a city never changes afterward, so it can be read by any number of threads without locking.
+ * Rule sets of different cities share no state. Every rule set carries a version, so a changed set of rules is
+ * published as a new rule set with a higher version rather than by changing an existing one.
+ * </p>
+ * <p>
+ * A rule set can also be assembled from exemption lookups that are kept up to date elsewhere, as the rule set of
+ * the default city is from its repositories; such a rule set follows the changes of its lookups.
+ * </p>
+ */
+public final class CityRuleSet {
+
+    /**
+     * The daily cap applied when a city does not define one, in öre.
+     */
+    public static final long DEFAULT_DAILY_CAP = 6000;
+
+    /**
+     * The single charge window applied when a city does not define one.
+     */
+    public static final Duration DEFAULT_SINGLE_CHARGE_WINDOW = Duration.ofMinutes(60);
+
+    @Getter
+    private final String city;
+    @Getter
+    private final long version;
+    private final TariffTable tariffTable;
+    private final Predicate<LocalDate> exemptedDates;
+    private final Predicate<String> exemptedVehicleTypes;
+    @Getter
+    private final long dailyCap;
+    @Getter
+    private final Duration singleChargeWindow;
+
+    private CityRuleSet(String city, long version, TariffTable tariffTable, Predicate<LocalDate> exemptedDates,
+                        Predicate<String> exemptedVehicleTypes, long dailyCap, Duration singleChargeWindow) {
+        this.city = city;
+        this.version = version;
+        this.tariffTable = tariffTable;
+        this.exemptedDates = exemptedDates;
+        this.exemptedVehicleTypes = exemptedVehicleTypes;
+        this.dailyCap = dailyCap;
+        this.singleChargeWindow = singleChargeWindow;
+    }
+
+    /**
+     * Compiles the rules of a city into a rule set.
+     *
+     * @param city                 the normalized name of the city
+     * @param version              the version of the rules
+     * @param taxRates             the tax rates of the city
+     * @param exemptedDates        the exempted date rules of the city
+     * @param exemptedVehicleTypes the exempted vehicle types of the city, compared case-insensitively
+     * @param dailyCap             the maximum total toll per vehicle and day, in öre
+     * @param singleChargeWindow   the length of the single charge window
+     * @return the compiled rule set
+     */
+    public static CityRuleSet compile(String city,
+                                      long version,
+                                      Collection<TaxRate> taxRates,
+                                      Collection<ExemptedDate> exemptedDates,
+                                      Collection<String> exemptedVehicleTypes,
+                                      long dailyCap,
+                                      Duration singleChargeWindow) {
+        List<ExemptedDate> dateRules = List.copyOf(exemptedDates);
+        Set<String> vehicleTypes = exemptedVehicleTypes.stream()
+                .map(CityRuleSet::normalize)
+                .collect(Collectors.toUnmodifiableSet());
+        return new CityRuleSet(city,
+                version,
+                TariffTable.compile(taxRates),
+                new ExemptionCalendar(() -> dateRules, new ReentrantLock())::isExempted,
+                type -> vehicleTypes.contains(normalize(type)),
+                dailyCap,
+                singleChargeWindow);
+    }
+
+    /**
+     * Assembles a rule set from a compiled tariff table and exemption lookups, which are asked on every check and
+     * may change.
+     *
+     * @param city                 the normalized name of the city
+     * @param version              the version of the rules
+     * @param tariffTable          the compiled tariff table of the city
+     * @param exemptedDates        tells whether a date is exempted
+     * @param exemptedVehicleTypes tells whether a vehicle type, never null, is exempted
+     * @param dailyCap             the maximum total toll per vehicle and day, in öre
+     * @param singleChargeWindow   the length of the single charge window
+     * @return the rule set
+     */
+    public static CityRuleSet of(String city,
+                                 long version,
+                                 TariffTable tariffTable,
+                                 Predicate<LocalDate> exemptedDates,
+                                 Predicate<String> exemptedVehicleTypes,
+                                 long dailyCap,
+                                 Duration singleChargeWindow) {
+        return new CityRuleSet(city, version, tariffTable, exemptedDates, exemptedVehicleTypes, dailyCap,
+                singleChargeWindow);
+    }
+
+    /**
+     * Returns the toll amount charged at the given time of day.
+     *
+     * @param time the time of day
+     * @return the toll amount in öre
+     */
+    public long tollAt(LocalTime time) {
+        return tariffTable.amountAt(time);
+    }
+
+    /**
+     * Checks if the given date is exempted from toll charges.
+     *
+     * @param date the date to check
+     * @return true if the date is exempted, false otherwise
+     */
+    public boolean isDateExempted(LocalDate date) {
+        return exemptedDates.test(date);
+    }
+
+    /**
+     * Checks if the given vehicle type is exempted from toll charges.
+     *
+     * @param type the vehicle type to check
+     * @return true if the vehicle type is exempted, false otherwise
+     */
+    public boolean isVehicleExempted(String type) {
+        return type != null && exemptedVehicleTypes.test(type);
+    }
+
+    /**
+     * Normalizes a city name or vehicle type into the form it is compared in.
+     *
+     * @param name the city name or vehicle type
+     * @return the name without surrounding whitespace, in lower case
+     */
+    public static String normalize(String name) {
+        return name.strip().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,141 @@
+package com.peter.solution.repository.city;
+
+import com.peter.solution.repository.dates.ExemptedDateRepository;
+import com.peter.solution.repository.taxrate.TariffTable;
+import com.peter.solution.repository.taxrate.TaxRateRepository;
+import com.peter.solution.repository.vehicle.TaxExemptedVehicleRepository;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Registry of the compiled {@link CityRuleSet} of every city, looked up by city name.
+ * <p>
+ * Rule sets are registered as a whole, typically by the {@link CityRuleStore}. The registered rule sets are held
+ * in an immutable map that is replaced by a single volatile write on every change, so a lookup never locks and
+ * always sees either the previous or the new rule set of a city, never a mix of both.
+ * </p>
+ * <p>
+ * Toll passes without a city are charged by the rules of the default city, Gothenburg. Unless a rule set is
+ * registered for it, its rule set reads the tariff table, the exemption calendar and the exempted vehicle types the
+ * tax rate, exempted date and exempted vehicle repositories keep compiled, which can be edited at runtime; edits of
+ * the exemptions take effect at once, and a new tariff table is picked up on the next lookup.
+ * </p>
+ */
+@Component
+public class CityRuleSets {
+
+    /**
+     * The city whose rules are kept in the repositories and which is used for toll passes without a city.
+     */
+    public static final String DEFAULT_CITY = "gothenburg";
+
+    private final TaxRateRepository taxRateRepository;
+    private final ExemptedDateRepository exemptedDateRepository;
+    private final TaxExemptedVehicleRepository exemptedVehicleRepository;
+    private final Lock writeLock = new ReentrantLock();
+    private final AtomicLong versions = new AtomicLong();
+    private volatile Map<String, CityRuleSet> cities = Map.of();
+    private volatile DefaultRuleSet defaultRuleSet;
+
+    public CityRuleSets(ExemptedDateRepository exemptedDateRepository,
+                        TaxRateRepository taxRateRepository,
+                        TaxExemptedVehicleRepository exemptedVehicleRepository) {
+        this.exemptedDateRepository = exemptedDateRepository;
+        this.taxRateRepository = taxRateRepository;
+        this.exemptedVehicleRepository = exemptedVehicleRepository;
+    }
+
+    /**
+     * Returns the rule set of the given city.
+     *
+     * @param city the name of the city, compared case-insensitively, or null for the default city
+     * @return the rule set of the city
+     * @throws UnknownCityException if there are no rules for the city
+     */
+    public CityRuleSet ruleSetFor(String city) {
+        String key = city == null ? DEFAULT_CITY : CityRuleSet.normalize(city);
+        CityRuleSet ruleSet = cities.get(key);
+        if (ruleSet != null) return ruleSet;
+        if (key.equals(DEFAULT_CITY)) return defaultRuleSet();
+        throw new UnknownCityException(city);
+    }
+
+    /**
+     * Registers the rule set of a city, replacing its previous rule set. A rule set registered for the default
+     * city takes precedence over the rules in the repositories.
+     *
+     * @param ruleSet the rule set to register
+     */
+    public void register(CityRuleSet ruleSet) {
+        writeLock.lock();
+        try {
+            Map<String, CityRuleSet> updated = new HashMap<>(cities);
+            updated.put(ruleSet.getCity(), ruleSet);
+            cities = Map.copyOf(updated);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Removes the rule set of a city. Removing the registered rule set of the default city falls back to the
+     * rules in the repositories.
+     *
+     * @param city the name of the city
+     */
+    public void unregister(String city) {
+        writeLock.lock();
+        try {
+            Map<String, CityRuleSet> updated = new HashMap<>(cities);
+            updated.remove(CityRuleSet.normalize(city));
+            cities = Map.copyOf(updated);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Returns a new rule set version, higher than every version handed out before. The versions of the default
+     * city's rule sets and of the rule sets registered for any city are taken from this one sequence, so a newer
+     * rule set always has a higher version.
+     *
+     * @return the new version
+     */
+    public long nextVersion() {
+        return versions.incrementAndGet();
+    }
+
+    /**
+     * Returns the rule set of the default city, assembled from the tariff table the tax rate repository compiles
+     * and the exemption lookups of the exempted date and vehicle repositories, which are kept up to date on every
+     * change. Only a new tariff table needs a new rule set; concurrent callers may assemble it more than once and
+     * publish equivalent rule sets.
+     */
+    private CityRuleSet defaultRuleSet() {
+        TariffTable tariffTable = taxRateRepository.getTariffTable();
+        DefaultRuleSet current = defaultRuleSet;
+        if (current == null || current.tariffTable != tariffTable) {
+            CityRuleSet ruleSet = CityRuleSet.of(DEFAULT_CITY,
+                    nextVersion(),
+                    tariffTable,
+                    exemptedDateRepository::isExempted,
+                    exemptedVehicleRepository::isExempted,
+                    CityRuleSet.DEFAULT_DAILY_CAP,
+                    CityRuleSet.DEFAULT_SINGLE_CHARGE_WINDOW);
+            current = new DefaultRuleSet(tariffTable, ruleSet);
+            defaultRuleSet = current;
+        }
+        return current.ruleSet;
+    }
+
+    /**
+     * The rule set of the default city together with the tariff table it was assembled from.
+     */
+    private record DefaultRuleSet(TariffTable tariffTable, CityRuleSet ruleSet) {
+    }
+}
@@ -0,0 +1,158 @@
+package com.peter.solution.repository.city;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+
+/**
+ * File-based store of the congestion tax rules of every city.
+ * <p>
+ * The rules of a city are kept in one JSON file named after the city, e.g. {@code stockholm.json}, holding a
+ * {@link CityRulesDocument}. On {@link #start()} every rule file in the directory is loaded, and the directory is
+ * watched for changes afterward: a created or modified file is parsed, validated and compiled into a new
+ * {@link CityRuleSet} with a version from {@link CityRuleSets#nextVersion()}, which then replaces the previous
+ * rule set of the city in {@link CityRuleSets} as a whole; a deleted file removes the rules of its city. Parsing
+ * and compiling happen once per change on the watcher thread, never on the request path.
+ * </p>
+ * <p>
+ * A file that cannot be read or parsed, or whose rules are invalid, is logged and skipped, and the previous rule
+ * set of its city stays in use. Editors should therefore write a rule file next to the directory and move it into
+ * place, so the watcher never sees a half-written file.
+ * </p>
+ */
+@Slf4j
+public final class CityRuleStore implements Closeable {
+
+    private static final String SUFFIX = ".json";
+
+    private final Path directory;
+    private final CityRuleSets cityRuleSets;
+    private final ObjectMapper objectMapper;
+    private WatchService watchService;
+
+    /**
+     * Creates a store for the rule files in the given directory.
+     *
+     * @param directory    the directory holding one rule file per city
+     * @param cityRuleSets the registry to publish the compiled rule sets to
+     * @param objectMapper the object mapper to parse the rule files with
+     */
+    public CityRuleStore(Path directory, CityRuleSets cityRuleSets, ObjectMapper objectMapper) {
+        this.directory = directory;
+        this.cityRuleSets = cityRuleSets;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Loads every rule file in the directory and starts watching the directory for changes.
+     *
+     * @throws UncheckedIOException if the directory cannot be created, listed or watched
+     */
+    public void start() {
+        try {
+            Files.createDirectories(directory);
+            watchService = directory.getFileSystem().newWatchService();
+            directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot watch rule directory " + directory, e);
+        }
+        loadAll();
+
+        Thread watcher = new Thread(this::watch, "city-rule-store-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    /**
+     * Loads every rule file in the directory.
+     *
+     * @throws UncheckedIOException if the directory cannot be listed
+     */
+    public void loadAll() {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+            for (Path file : files) {
+                load(file);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot list rule directory " + directory, e);
+        }
+    }
+
+    /**
+     * Loads a rule file and publishes its compiled rule set, or removes the rules of its city if the file no
+     * longer exists.
+     *
+     * @param file the rule file
+     * @return true if a new rule set was published or the rules were removed, false if the file was invalid or
+     * could not be read
+     */
+    public boolean load(Path file) {
+        String city = cityOf(file);
+        if (!Files.exists(file)) {
+            cityRuleSets.unregister(city);
+            log.info("Removed congestion tax rules of {}", city);
+            return true;
+        }
+        try {
+            CityRulesDocument rules = objectMapper.readValue(file.toFile(), CityRulesDocument.class);
+            rules.validate();
+            CityRuleSet ruleSet = CityRuleSet.compile(city, cityRuleSets.nextVersion(), rules.getTaxRates(),
+                    rules.getExemptedDates(), rules.getExemptedVehicles(), rules.getDailyCap(),
+                    rules.getSingleChargeWindow());
+            cityRuleSets.register(ruleSet);
+            log.info("Loaded congestion tax rules of {} from {}, version {}", city, file, ruleSet.getVersion());
+            return true;
+        } catch (IOException | RuntimeException e) {
+            log.error("Cannot load congestion tax rules from {}, keeping the previous rules of {}", file, city, e);
+            return false;
+        }
+    }
+
+    /**
+     * Stops watching the directory.
+     */
+    @Override
+    public void close() throws IOException {
+        if (watchService != null) watchService.close();
+    }
+
+    private void watch() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        loadAll();
+                    } else if (event.context() instanceof Path name && name.toString().endsWith(SUFFIX)) {
+                        load(directory.resolve(name));
+                    }
+                }
+                if (!key.reset()) {
+                    log.error("Rule directory {} is no longer accessible, stopped watching it", directory);
+                    return;
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // the store was closed
+        } catch (RuntimeException e) {
+            log.error("Watching rule directory {} failed", directory, e);
+        }
+    }
+
+    private static String cityOf(Path file) {
+        String name = file.getFileName().toString();
+        return CityRuleSet.normalize(name.substring(0, name.length() - SUFFIX.length()));
+    }
+}
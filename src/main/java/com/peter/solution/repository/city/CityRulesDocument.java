@@ -0,0 +1,78 @@
+package com.peter.solution.repository.city;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.peter.solution.json.OreAmountDeserializer;
+import com.peter.solution.repository.dates.ExemptedDate;
+import com.peter.solution.repository.taxrate.TaxRate;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Duration;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * The congestion tax rules of one city as stored in its rule file. Amounts are given in kronor.
+ */
+@Data
+@NoArgsConstructor
+public final class CityRulesDocument {
+    private static final int MINUTES_PER_DAY = 24 * 60;
+
+    @JsonDeserialize(using = OreAmountDeserializer.class)
+    private long dailyCap = CityRuleSet.DEFAULT_DAILY_CAP;
+    private Duration singleChargeWindow = CityRuleSet.DEFAULT_SINGLE_CHARGE_WINDOW;
+    private List<TaxRate> taxRates = List.of();
+    private List<ExemptedDate> exemptedDates = List.of();
+    private List<String> exemptedVehicles = List.of();
+
+    /**
+     * Checks that the rules can be compiled into a rule set: the single charge window is positive, no amount is
+     * negative, every tax rate has a start and an end time, no two tax rates cover the same minute, and every
+     * exempted date names the day, date or month of its type.
+     *
+     * @throws IllegalArgumentException if the rules are invalid
+     */
+    public void validate() {
+        if (singleChargeWindow == null || singleChargeWindow.isNegative() || singleChargeWindow.isZero()) {
+            throw new IllegalArgumentException("Single charge window must be positive: " + singleChargeWindow);
+        }
+        if (dailyCap < 0) throw new IllegalArgumentException("Daily cap must not be negative: " + dailyCap);
+        if (taxRates == null || exemptedDates == null || exemptedVehicles == null) {
+            throw new IllegalArgumentException("Tax rates, exempted dates and exempted vehicles must not be null");
+        }
+        TaxRate[] rateAt = new TaxRate[MINUTES_PER_DAY];
+        for (TaxRate taxRate : taxRates) {
+            if (taxRate == null || taxRate.getStartTime() == null || taxRate.getEndTime() == null) {
+                throw new IllegalArgumentException("Tax rate without start or end time: " + taxRate);
+            }
+            if (taxRate.getAmount() < 0) throw new IllegalArgumentException("Negative tax rate: " + taxRate);
+            int start = minuteOfDay(taxRate.getStartTime());
+            int length = Math.floorMod(minuteOfDay(taxRate.getEndTime()) - start, MINUTES_PER_DAY) + 1;
+            for (int i = 0; i < length; i++) {
+                int minute = (start + i) % MINUTES_PER_DAY;
+                if (rateAt[minute] != null) {
+                    throw new IllegalArgumentException("Tax rates overlap: " + rateAt[minute] + " and " + taxRate);
+                }
+                rateAt[minute] = taxRate;
+            }
+        }
+        for (ExemptedDate exemptedDate : exemptedDates) {
+            if (exemptedDate == null || exemptedDate.getType() == null || switch (exemptedDate.getType()) {
+                case DAY_OF_WEEK -> exemptedDate.getDayOfWeek() == null;
+                case HOLIDAY_DATE -> exemptedDate.getHolidayDate() == null;
+                case MONTH -> exemptedDate.getMonth() == null;
+            }) {
+                throw new IllegalArgumentException("Exempted date without its day, date or month: " + exemptedDate);
+            }
+        }
+        if (exemptedVehicles.stream().anyMatch(Objects::isNull)) {
+            throw new IllegalArgumentException("Exempted vehicle type is null");
+        }
+    }
+
+    private static int minuteOfDay(LocalTime time) {
+        return time.getHour() * 60 + time.getMinute();
+    }
+}
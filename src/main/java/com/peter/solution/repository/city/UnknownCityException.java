@@ -0,0 +1,15 @@
+package com.peter.solution.repository.city;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when a toll pass refers to a city without congestion tax rules.
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class UnknownCityException extends RuntimeException {
+
+    public UnknownCityException(String city) {
+        super("No congestion tax rules for city " + city);
+    }
+}
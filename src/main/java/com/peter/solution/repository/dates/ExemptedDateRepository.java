@@ -1,49 +1,54 @@
 package com.peter.solution.repository.dates;
 
 import com.peter.solution.repository.Repository;
-import com.peter.solution.repository.dates.ExemptedDate.Type;
 import org.springframework.stereotype.Component;
 
 import java.time.DayOfWeek;
+import java.time.LocalDate;
 import java.time.Month;
-import java.util.*;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * In-memory repository for storing and managing exempted dates.
  * This class handles the storage and retrieval of exempted dates, which can be categorized by type
  * (e.g., day of the week, holiday date, month). It also provides functionality for saving and deleting
  * exempted date entries by their unique identifier.
+ * <p>
+ * The stored entries are compiled into an {@link ExemptionCalendar}, which is updated on every save and delete,
+ * so checking whether a date is exempted does not have to go through the entries one by one.
+ * <p>
+ * The entries are held in an immutable list. Every save and delete builds a new list while holding the write lock
+ * and publishes it by a single volatile write, so readers never lock and never see a list while it is changed.
  */
 @Component
 public class ExemptedDateRepository implements Repository<ExemptedDate, Long> {
-    private final Map<Type, Set<ExemptedDate>> dateEntries = new EnumMap<>(Type.class);
     private final AtomicLong idGenerator = new AtomicLong(1);
+    private final Lock writeLock = new ReentrantLock();
+    private final ExemptionCalendar calendar = new ExemptionCalendar(this::findAll, writeLock);
+    private volatile List<ExemptedDate> allEntries = List.of();
 
     /**
-     * Constructs a new repository for storing exempted dates. Initializes categories for day of the week,
-     * holiday date, and month.
+     * Constructs a new repository for storing exempted dates, pre-populated with weekends and July.
      */
     public ExemptedDateRepository() {
-        dateEntries.put(Type.DAY_OF_WEEK, new HashSet<>());
-        dateEntries.put(Type.HOLIDAY_DATE, new HashSet<>());
-        dateEntries.put(Type.MONTH, new HashSet<>());
-
-        dateEntries.get(Type.DAY_OF_WEEK).add(ExemptedDate.ofDayOfWeek(generateId(), DayOfWeek.SATURDAY));
-        dateEntries.get(Type.DAY_OF_WEEK).add(ExemptedDate.ofDayOfWeek(generateId(), DayOfWeek.SUNDAY));
-        dateEntries.get(Type.MONTH).add(ExemptedDate.ofMonth(generateId(), Month.JULY));
+        allEntries = List.of(
+                ExemptedDate.ofDayOfWeek(generateId(), DayOfWeek.SATURDAY),
+                ExemptedDate.ofDayOfWeek(generateId(), DayOfWeek.SUNDAY),
+                ExemptedDate.ofMonth(generateId(), Month.JULY));
     }
 
     /**
      * Retrieves all exempted dates from the repository.
      *
-     * @return a list of all exempted dates
+     * @return an immutable list of all exempted dates
      */
     @Override
     public List<ExemptedDate> findAll() {
-        return dateEntries.values().stream()
-                .flatMap(Collection::stream)
-                .toList();
+        return allEntries;
     }
 
     /**
@@ -59,7 +64,15 @@ public class ExemptedDateRepository implements Repository<ExemptedDate, Long> {
                 entry.getDayOfWeek(),
                 entry.getHolidayDate(),
                 entry.getMonth());
-        dateEntries.get(entry.getType()).add(entryWithId);
+        writeLock.lock();
+        try {
+            List<ExemptedDate> updated = new ArrayList<>(allEntries);
+            updated.add(entryWithId);
+            allEntries = List.copyOf(updated);
+            calendar.ruleAdded(entryWithId);
+        } finally {
+            writeLock.unlock();
+        }
         return entryWithId;
     }
 
@@ -70,11 +83,32 @@ public class ExemptedDateRepository implements Repository<ExemptedDate, Long> {
      */
     @Override
     public void deleteById(Long id) {
-        for (Collection<ExemptedDate> entries : dateEntries.values()) {
-            if (entries.removeIf(entry -> id.equals(entry.getId()))) break;
+        writeLock.lock();
+        try {
+            allEntries.stream()
+                    .filter(entry -> id.equals(entry.getId()))
+                    .findFirst()
+                    .ifPresent(removed -> {
+                        allEntries = allEntries.stream()
+                                .filter(entry -> entry != removed)
+                                .toList();
+                        calendar.ruleRemoved(removed);
+                    });
+        } finally {
+            writeLock.unlock();
         }
     }
 
+    /**
+     * Checks if the given date is exempted from toll charges by any of the stored entries.
+     *
+     * @param date the date to check
+     * @return true if the date is exempted, false otherwise
+     */
+    public boolean isExempted(LocalDate date) {
+        return calendar.isExempted(date);
+    }
+
     /**
      * Generates a unique identifier for an exempted date entry.
      *
@@ -0,0 +1,164 @@
+package com.peter.solution.repository.dates;
+
+import java.time.LocalDate;
+import java.time.Year;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Supplier;
+
+/**
+ * Calendar of toll exempted days, compiled from {@link ExemptedDate} rules into one bitmap per year with one bit
+ * per day of the year.
+ * <p>
+ * A day is exempted when its month or day of the week is exempted, when it is a public holiday, or when it is the
+ * day before a public holiday. Years are compiled on first use; afterward an exemption check is a single bit test.
+ * When a rule is added, the bits it covers are set in copies of the affected years; when a rule is removed, only
+ * the affected years are compiled again. Updated bitmaps are published by replacing them as a whole, so readers
+ * never see a partially updated year.
+ * </p>
+ * <p>
+ * At most {@value #MAX_COMPILED_YEARS} years are kept compiled. Compiling another year first drops the kept year
+ * farthest from it, so passes dated in arbitrary years cannot grow the calendar; such a year is simply compiled
+ * again when it is asked for.
+ * </p>
+ */
+public final class ExemptionCalendar {
+
+    private static final int WORDS_PER_YEAR = (366 + Long.SIZE - 1) / Long.SIZE;
+    static final int MAX_COMPILED_YEARS = 16;
+
+    private final Supplier<Collection<ExemptedDate>> rules;
+    private final Lock ruleLock;
+    private final Map<Integer, long[]> years = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a calendar for the given rules.
+     *
+     * @param rules    supplies the current exemption rules
+     * @param ruleLock the lock held while the rules are changed, also held while a year is compiled
+     */
+    public ExemptionCalendar(Supplier<Collection<ExemptedDate>> rules, Lock ruleLock) {
+        this.rules = rules;
+        this.ruleLock = ruleLock;
+    }
+
+    /**
+     * Checks if the given date is exempted from toll charges.
+     *
+     * @param date the date to check
+     * @return true if the date is exempted, false otherwise
+     */
+    public boolean isExempted(LocalDate date) {
+        long[] bits = years.get(date.getYear());
+        if (bits == null) bits = compileYear(date.getYear());
+        int day = date.getDayOfYear() - 1;
+        return (bits[day >>> 6] & (1L << day)) != 0;
+    }
+
+    /**
+     * Sets the days covered by a newly added rule in the compiled years. Must be called while holding the rule
+     * lock, after the rule was added.
+     *
+     * @param rule the added rule
+     */
+    void ruleAdded(ExemptedDate rule) {
+        years.replaceAll((year, bits) -> {
+            if (!affectsYear(rule, year)) return bits;
+            long[] updated = bits.clone();
+            mark(updated, year, rule);
+            return updated;
+        });
+    }
+
+    /**
+     * Compiles the years affected by a removed rule again. Must be called while holding the rule lock, after the
+     * rule was removed.
+     *
+     * @param rule the removed rule
+     */
+    void ruleRemoved(ExemptedDate rule) {
+        Collection<ExemptedDate> current = rules.get();
+        years.replaceAll((year, bits) -> affectsYear(rule, year) ? compile(year, current) : bits);
+    }
+
+    /**
+     * Returns the number of years kept compiled.
+     *
+     * @return the number of compiled years
+     */
+    int compiledYears() {
+        return years.size();
+    }
+
+    /**
+     * Compiles the given year from the current rules and publishes it, unless another thread already did. When
+     * {@value #MAX_COMPILED_YEARS} years are kept already, the one farthest from the given year is dropped first.
+     *
+     * @param year the year to compile
+     * @return the compiled year
+     */
+    private long[] compileYear(int year) {
+        ruleLock.lock();
+        try {
+            long[] bits = years.get(year);
+            if (bits != null) return bits;
+            if (years.size() >= MAX_COMPILED_YEARS) {
+                years.keySet().stream()
+                        .max(Comparator.comparingLong(kept -> Math.abs((long) kept - year)))
+                        .ifPresent(years::remove);
+            }
+            bits = compile(year, rules.get());
+            years.put(year, bits);
+            return bits;
+        } finally {
+            ruleLock.unlock();
+        }
+    }
+
+    private static long[] compile(int year, Collection<ExemptedDate> rules) {
+        long[] bits = new long[WORDS_PER_YEAR];
+        rules.forEach(rule -> mark(bits, year, rule));
+        return bits;
+    }
+
+    /**
+     * Sets the bits of all days of the given year that are exempted by the given rule.
+     */
+    private static void mark(long[] bits, int year, ExemptedDate rule) {
+        switch (rule.getType()) {
+            case MONTH -> {
+                LocalDate first = Year.of(year).atMonth(rule.getMonth()).atDay(1);
+                for (LocalDate date = first; date.getMonth() == rule.getMonth(); date = date.plusDays(1)) {
+                    set(bits, date);
+                }
+            }
+            case DAY_OF_WEEK -> {
+                LocalDate first = LocalDate.of(year, 1, 1);
+                int offset = Math.floorMod(rule.getDayOfWeek().getValue() - first.getDayOfWeek().getValue(), 7);
+                for (LocalDate date = first.plusDays(offset); date.getYear() == year; date = date.plusWeeks(1)) {
+                    set(bits, date);
+                }
+            }
+            case HOLIDAY_DATE -> {
+                LocalDate holiday = rule.getHolidayDate();
+                LocalDate dayBefore = holiday.minusDays(1);
+                if (holiday.getYear() == year) set(bits, holiday);
+                if (dayBefore.getYear() == year) set(bits, dayBefore);
+            }
+        }
+    }
+
+    private static boolean affectsYear(ExemptedDate rule, int year) {
+        if (rule.getType() != ExemptedDate.Type.HOLIDAY_DATE) return true;
+        LocalDate holiday = rule.getHolidayDate();
+        return holiday.getYear() == year || holiday.minusDays(1).getYear() == year;
+    }
+
+    private static void set(long[] bits, LocalDate date) {
+        int day = date.getDayOfYear() - 1;
+        bits[day >>> 6] |= 1L << day;
+    }
+}
@@ -0,0 +1,70 @@
+package com.peter.solution.repository.taxrate;
+
+import java.time.LocalTime;
+import java.util.Collection;
+import java.util.Comparator;
+
+/**
+ * Immutable lookup table holding the toll amount in öre for every minute of the day.
+ * <p>
+ * The table is compiled from a set of {@link TaxRate} entries, so that the amount for a given time is a single
+ * array access instead of a search through all tax rates. Both the start and the end minute of a tax rate are
+ * inclusive, which matches how the rates are published (e.g. 06:00–06:29 covers 06:29:59). A tax rate whose end
+ * time is before its start time wraps around midnight (e.g. 18:30–05:59).
+ * </p>
+ */
+public final class TariffTable {
+
+    private static final int MINUTES_PER_DAY = 24 * 60;
+
+    /**
+     * A tariff table without any tax rates, charging nothing at any time of the day.
+     */
+    public static final TariffTable EMPTY = new TariffTable(new long[MINUTES_PER_DAY]);
+
+    private final long[] amountPerMinute;
+
+    private TariffTable(long[] amountPerMinute) {
+        this.amountPerMinute = amountPerMinute;
+    }
+
+    /**
+     * Compiles the given tax rates into a tariff table. When tax rates overlap, the one with the lowest identifier
+     * takes precedence; minutes not covered by any tax rate are free of charge.
+     *
+     * @param taxRates the tax rates to compile
+     * @return the compiled tariff table
+     */
+    public static TariffTable compile(Collection<TaxRate> taxRates) {
+        long[] amountPerMinute = new long[MINUTES_PER_DAY];
+        boolean[] assigned = new boolean[MINUTES_PER_DAY];
+        taxRates.stream()
+                .sorted(Comparator.comparing(TaxRate::getId, Comparator.nullsLast(Comparator.naturalOrder())))
+                .forEach(taxRate -> {
+                    int start = minuteOfDay(taxRate.getStartTime());
+                    int length = Math.floorMod(minuteOfDay(taxRate.getEndTime()) - start, MINUTES_PER_DAY) + 1;
+                    for (int i = 0; i < length; i++) {
+                        int minute = (start + i) % MINUTES_PER_DAY;
+                        if (!assigned[minute]) {
+                            assigned[minute] = true;
+                            amountPerMinute[minute] = taxRate.getAmount();
+                        }
+                    }
+                });
+        return new TariffTable(amountPerMinute);
+    }
+
+    /**
+     * Returns the toll amount charged at the given time of day.
+     *
+     * @param time the time of day
+     * @return the toll amount in öre for the minute containing the given time
+     */
+    public long amountAt(LocalTime time) {
+        return amountPerMinute[minuteOfDay(time)];
+    }
+
+    private static int minuteOfDay(LocalTime time) {
+        return time.getHour() * 60 + time.getMinute();
+    }
+}
@@ -1,5 +1,9 @@
 package com.peter.solution.repository.taxrate;
 
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.peter.solution.json.OreAmountDeserializer;
+import com.peter.solution.json.OreAmountSerializer;
 import com.peter.solution.repository.BaseEntity;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -10,7 +14,7 @@ import java.util.Objects;
 /**
  * Represents a tax rate applicable within a specific time range.
  * This record holds the start and end times for the period during which the tax rate is valid,
- * as well as the corresponding tax amount for that period.
+ * as well as the corresponding tax amount for that period in öre, which is exchanged as kronor in JSON.
  */
 @Data
 @NoArgsConstructor
@@ -19,16 +23,18 @@ public final class TaxRate implements BaseEntity<Long> {
     private Long id;
     private LocalTime startTime;
     private LocalTime endTime;
-    private double amount;
+    @JsonSerialize(using = OreAmountSerializer.class)
+    @JsonDeserialize(using = OreAmountDeserializer.class)
+    private long amount;
 
-    public TaxRate(Long id, LocalTime startTime, LocalTime endTime, double amount) {
+    public TaxRate(Long id, LocalTime startTime, LocalTime endTime, long amount) {
         this.id = id;
         this.startTime = startTime;
         this.endTime = endTime;
         this.amount = amount;
     }
 
-    public TaxRate(LocalTime startTime, LocalTime endTime, double amount) {
+    public TaxRate(LocalTime startTime, LocalTime endTime, long amount) {
         this(null, startTime, endTime, amount);
     }
 
@@ -4,29 +4,82 @@ import com.peter.solution.repository.InMemoryRepository;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalTime;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Repository class for managing tax rates applied during different time intervals.
  * <p>
  * This class extends {@link InMemoryRepository} to leverage basic CRUD operations for storing
  * and retrieving {@link TaxRate} entities. Each tax rate represents a specific time range and
- * the corresponding toll amount that should be applied during that range.
+ * the corresponding toll amount in öre that should be applied during that range.
+ * <p>
+ * The stored tax rates are compiled into a {@link TariffTable}, which is rebuilt and published
+ * as a whole whenever a tax rate is saved or deleted. Readers therefore always see a complete
+ * tariff table and never have to search the tax rates themselves.
  * <p>
  * The constructor pre-populates the repository with a set of predefined tax rates that
  * define toll amounts for various time periods throughout the day.
  */
 @Component
 public class TaxRateRepository extends InMemoryRepository<TaxRate> {
+
+    private final Lock writeLock = new ReentrantLock();
+    private volatile TariffTable tariffTable = TariffTable.EMPTY;
+
     public TaxRateRepository() {
-        save(new TaxRate(LocalTime.of(6, 0), LocalTime.of(6, 29), 8));
-        save(new TaxRate(LocalTime.of(6, 30), LocalTime.of(6, 59), 13));
-        save(new TaxRate(LocalTime.of(7, 0), LocalTime.of(7, 59), 18));
-        save(new TaxRate(LocalTime.of(8, 0), LocalTime.of(8, 29), 13));
-        save(new TaxRate(LocalTime.of(8, 30), LocalTime.of(14, 59), 8));
-        save(new TaxRate(LocalTime.of(15, 0), LocalTime.of(15, 29), 13));
-        save(new TaxRate(LocalTime.of(15, 30), LocalTime.of(16, 59), 18));
-        save(new TaxRate(LocalTime.of(17, 0), LocalTime.of(17, 59), 13));
-        save(new TaxRate(LocalTime.of(18, 0), LocalTime.of(18, 29), 8));
+        save(new TaxRate(LocalTime.of(6, 0), LocalTime.of(6, 29), 800));
+        save(new TaxRate(LocalTime.of(6, 30), LocalTime.of(6, 59), 1300));
+        save(new TaxRate(LocalTime.of(7, 0), LocalTime.of(7, 59), 1800));
+        save(new TaxRate(LocalTime.of(8, 0), LocalTime.of(8, 29), 1300));
+        save(new TaxRate(LocalTime.of(8, 30), LocalTime.of(14, 59), 800));
+        save(new TaxRate(LocalTime.of(15, 0), LocalTime.of(15, 29), 1300));
+        save(new TaxRate(LocalTime.of(15, 30), LocalTime.of(16, 59), 1800));
+        save(new TaxRate(LocalTime.of(17, 0), LocalTime.of(17, 59), 1300));
+        save(new TaxRate(LocalTime.of(18, 0), LocalTime.of(18, 29), 800));
         save(new TaxRate(LocalTime.of(18, 30), LocalTime.of(5, 59), 0));
     }
-}
\ No newline at end of file
+
+    /**
+     * Saves the given tax rate and republishes the tariff table.
+     *
+     * @param taxRate the tax rate to save
+     * @return the saved tax rate
+     */
+    @Override
+    public TaxRate save(TaxRate taxRate) {
+        writeLock.lock();
+        try {
+            TaxRate saved = super.save(taxRate);
+            tariffTable = TariffTable.compile(findAll());
+            return saved;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Deletes the tax rate with the given identifier and republishes the tariff table.
+     *
+     * @param id the identifier of the tax rate to delete
+     */
+    @Override
+    public void deleteById(Long id) {
+        writeLock.lock();
+        try {
+            super.deleteById(id);
+            tariffTable = TariffTable.compile(findAll());
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Returns the tariff table compiled from the currently stored tax rates.
+     *
+     * @return the current tariff table
+     */
+    public TariffTable getTariffTable() {
+        return tariffTable;
+    }
+}
@@ -0,0 +1,253 @@
+package com.peter.solution.repository.tollpass;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Toll passes of one vehicle on one day, kept in time order with their charges, in öre.
+ * <p>
+ * The passes are charged as if they had arrived in time order, whatever order they actually arrive in: the first
+ * pass opens a single charge window, every pass within the window only adds the amount by which its toll exceeds
+ * the highest toll of the window so far, the first pass after the window opens the next one, and the charges are
+ * limited in time order so that the daily total never exceeds the daily cap. Passes at the same time are taken in
+ * the order of their identifiers.
+ * </p>
+ * <p>
+ * A new pass is placed by a binary search. The opener and the highest toll of the last window are tracked, so a
+ * pass arriving in time order is appended and charged in constant time, also once the daily cap is reached. A
+ * pass arriving late recalculates the windows from the one it falls into up to the first window that opens with
+ * the same pass as before, after which nothing changes, so its cost grows with the passes of those windows; if the
+ * daily cap is reached, the capped charges of the whole day are recalculated as well. Every earlier pass whose
+ * charge changes is reported as a {@link TollAdjustment}.
+ * </p>
+ * <p>
+ * The passes are held in two primitive arrays, so a day with a few passes takes about a hundred bytes. Instances are
+ * not thread-safe; callers must make sure that the passes of a vehicle are applied one at a time.
+ * </p>
+ */
+public final class DailyTollState {
+
+    private static final int INITIAL_CAPACITY = 2;
+    // per pass: time of day in nanoseconds, with the opener flag in a bit above the largest time, and identifier
+    private static final int LONGS = 2;
+    // per pass: toll, charge without the daily cap and charge
+    private static final int INTS = 3;
+    private static final int TOLL = 0;
+    private static final int UNCAPPED = 1;
+    private static final int CHARGE = 2;
+    private static final long OPENER = 1L << 62;
+
+    private long[] passes = new long[INITIAL_CAPACITY * LONGS];
+    private int[] amounts = new int[INITIAL_CAPACITY * INTS];
+    private int size;
+    private long uncappedTotal;
+    private long dailyTotal;
+    // the time of the opener and the highest toll of the last window
+    private long lastOpenerTime;
+    private int lastWindowMax;
+
+    /**
+     * Adds a toll pass of the day and returns the amount it is charged.
+     *
+     * @param id          the identifier of the toll pass
+     * @param passTime    the time of the toll pass
+     * @param toll        the toll of the toll pass on its own
+     * @param window      the length of the single charge window
+     * @param dailyCap    the maximum total toll per day
+     * @param adjustments receives the changed charges of the earlier passes, or null to ignore them
+     * @return the amount charged for the toll pass
+     */
+    public long charge(long id, LocalDateTime passTime, long toll, Duration window, long dailyCap,
+                       List<TollAdjustment> adjustments) {
+        long time = passTime.toLocalTime().toNanoOfDay();
+        int added = insert(id, time, Math.toIntExact(toll));
+        boolean appended = added == size - 1;
+        int from;
+        int to;
+        if (appended) {
+            appendToLastWindow(added, time, window.toNanos());
+            from = added;
+            to = size;
+        } else {
+            from = windowStartOf(added, window.toNanos());
+            to = recalculateWindows(from, added, window.toNanos());
+            if (to == size) trackLastWindow();
+        }
+
+        long previousTotal = dailyTotal;
+        if (uncappedTotal <= dailyCap && previousTotal < dailyCap) {
+            // the cap is not reached, before nor after, so every pass is charged without it
+            for (int i = from; i < to; i++) {
+                setCharge(i, amounts[i * INTS + UNCAPPED], added, passTime, adjustments);
+            }
+            dailyTotal = uncappedTotal;
+        } else {
+            // the passes before an appended pass keep their charges
+            long charged = appended ? previousTotal : 0;
+            for (int i = appended ? added : 0; i < size; i++) {
+                int uncapped = amounts[i * INTS + UNCAPPED];
+                int charge = (int) Math.min(uncapped, dailyCap - charged);
+                setCharge(i, charge, added, passTime, adjustments);
+                charged += charge;
+            }
+            dailyTotal = charged;
+        }
+        return amounts[added * INTS + CHARGE];
+    }
+
+    /**
+     * Returns the amount a toll pass of the day is charged.
+     *
+     * @param id the identifier of the toll pass
+     * @return the amount charged for the toll pass
+     * @throws IllegalArgumentException if the toll pass is not part of the day
+     */
+    public long chargeOf(long id) {
+        for (int i = 0; i < size; i++) {
+            if (passes[i * LONGS + 1] == id) return amounts[i * INTS + CHARGE];
+        }
+        throw new IllegalArgumentException("No toll pass " + id);
+    }
+
+    /**
+     * Removes all passes, so that the passes of the day can be applied again from the start.
+     */
+    public void reset() {
+        size = 0;
+        uncappedTotal = 0;
+        dailyTotal = 0;
+    }
+
+    /**
+     * Returns the total charged on this day.
+     *
+     * @return the daily total
+     */
+    public long getDailyTotal() {
+        return dailyTotal;
+    }
+
+    /**
+     * Inserts a pass after all passes at an earlier time, and after those at the same time with a lower identifier.
+     *
+     * @return the index of the inserted pass
+     */
+    private int insert(long id, long time, int toll) {
+        if (size * LONGS == passes.length) {
+            passes = Arrays.copyOf(passes, passes.length * 2);
+            amounts = Arrays.copyOf(amounts, amounts.length * 2);
+        }
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            long middleTime = timeOf(middle);
+            if (middleTime < time || middleTime == time && passes[middle * LONGS + 1] <= id) low = middle + 1;
+            else high = middle;
+        }
+        System.arraycopy(passes, low * LONGS, passes, (low + 1) * LONGS, (size - low) * LONGS);
+        System.arraycopy(amounts, low * INTS, amounts, (low + 1) * INTS, (size - low) * INTS);
+        passes[low * LONGS] = time;
+        passes[low * LONGS + 1] = id;
+        amounts[low * INTS + TOLL] = toll;
+        amounts[low * INTS + UNCAPPED] = 0;
+        amounts[low * INTS + CHARGE] = 0;
+        size++;
+        return low;
+    }
+
+    /**
+     * Charges a pass appended after all others without the daily cap, within the last window or as the opener of a
+     * new one.
+     */
+    private void appendToLastWindow(int added, long time, long window) {
+        int toll = amounts[added * INTS + TOLL];
+        int uncapped;
+        if (added == 0 || time - lastOpenerTime > window) {
+            passes[added * LONGS] = time | OPENER;
+            lastOpenerTime = time;
+            lastWindowMax = toll;
+            uncapped = toll;
+        } else {
+            uncapped = Math.max(0, toll - lastWindowMax);
+            lastWindowMax = Math.max(lastWindowMax, toll);
+        }
+        amounts[added * INTS + UNCAPPED] = uncapped;
+        uncappedTotal += uncapped;
+    }
+
+    /**
+     * Reads the opener and the highest toll of the last window again, after its passes were recalculated.
+     */
+    private void trackLastWindow() {
+        int opener = size - 1;
+        while (!isOpener(opener)) opener--;
+        lastOpenerTime = timeOf(opener);
+        lastWindowMax = 0;
+        for (int i = opener; i < size; i++) {
+            lastWindowMax = Math.max(lastWindowMax, amounts[i * INTS + TOLL]);
+        }
+    }
+
+    /**
+     * Returns the first pass whose window has to be recalculated after a pass was inserted: the opener of the
+     * window the inserted pass falls into, or the inserted pass itself if it opens a new window.
+     */
+    private int windowStartOf(int added, long window) {
+        for (int i = added - 1; i >= 0; i--) {
+            if (isOpener(i)) return timeOf(added) - timeOf(i) <= window ? i : added;
+        }
+        return added;
+    }
+
+    /**
+     * Assigns the passes from the given one on to windows again and recalculates their charges without the daily
+     * cap, up to the first pass after the inserted one that opened a window before and still does.
+     *
+     * @return the index of the first pass left unchanged
+     */
+    private int recalculateWindows(int from, int added, long window) {
+        long windowStart = timeOf(from);
+        int windowMax = 0;
+        for (int i = from; i < size; i++) {
+            long time = timeOf(i);
+            boolean opener = i == from || time - windowStart > window;
+            if (opener && i > added && isOpener(i)) return i;
+
+            if (opener) {
+                windowStart = time;
+                windowMax = 0;
+                passes[i * LONGS] = time | OPENER;
+            } else {
+                passes[i * LONGS] = time;
+            }
+            int toll = amounts[i * INTS + TOLL];
+            int uncapped = Math.max(0, toll - windowMax);
+            windowMax = Math.max(windowMax, toll);
+            uncappedTotal += uncapped - amounts[i * INTS + UNCAPPED];
+            amounts[i * INTS + UNCAPPED] = uncapped;
+        }
+        return size;
+    }
+
+    private void setCharge(int index, int charge, int added, LocalDateTime passTime,
+                           List<TollAdjustment> adjustments) {
+        int previous = amounts[index * INTS + CHARGE];
+        if (previous == charge) return;
+        amounts[index * INTS + CHARGE] = charge;
+        if (index != added && adjustments != null) {
+            adjustments.add(new TollAdjustment(passes[index * LONGS + 1],
+                    passTime.toLocalDate().atStartOfDay().plusNanos(timeOf(index)), previous, charge));
+        }
+    }
+
+    private long timeOf(int index) {
+        return passes[index * LONGS] & ~OPENER;
+    }
+
+    private boolean isOpener(int index) {
+        return (passes[index * LONGS] & OPENER) != 0;
+    }
+}
@@ -0,0 +1,84 @@
+package com.peter.solution.repository.tollpass;
+
+import com.peter.solution.repository.DayPartitions;
+import com.peter.solution.repository.FutureDayException;
+import com.peter.solution.repository.IntObjectMap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Repository holding the running {@link DailyTollState} of every vehicle, city and day.
+ * <p>
+ * States are partitioned by day and kept for the same retention window as the toll passes, and are rejected as
+ * far ahead of today. Within a day, the
+ * states of every city are kept apart, so a vehicle passing toll stations in two cities is capped per city. The
+ * states of a city and day are keyed by the plate identifier of {@link TollPassRepository#plateIdOf(String)} in a
+ * primitive {@link IntObjectMap}.
+ */
+@Component
+public class DailyTollStateRepository {
+
+    private final DayPartitions<Map<String, IntObjectMap<DailyTollState>>> partitions;
+
+    public DailyTollStateRepository() {
+        this(TollPassRepository.DEFAULT_RETENTION_DAYS);
+    }
+
+    public DailyTollStateRepository(int retentionDays) {
+        this(retentionDays, DayPartitions.DEFAULT_MAX_DAYS_AHEAD, Clock.systemDefaultZone());
+    }
+
+    @Autowired
+    public DailyTollStateRepository(@Value("${congestion.retention.days:7}") int retentionDays,
+                                    @Value("${congestion.retention.max-days-ahead:1}") int maxDaysAhead,
+                                    Clock clock) {
+        partitions = new DayPartitions<>(retentionDays, maxDaysAhead, clock, ConcurrentHashMap::new);
+    }
+
+    /**
+     * Returns the toll state of the given vehicle in the given city and day, creating an empty state if the
+     * vehicle has no toll passes in that city on that day yet.
+     *
+     * @param city    the normalized name of the city
+     * @param plateId the plate identifier of the vehicle
+     * @param date    the day
+     * @return the toll state of the vehicle in the city on the day
+     * @throws FutureDayException if the day is too far ahead of today
+     */
+    public DailyTollState findOrCreate(String city, int plateId, LocalDate date) {
+        return partitions.getOrCreate(date)
+                .computeIfAbsent(city, key -> new IntObjectMap<>())
+                .computeIfAbsent(plateId, key -> new DailyTollState());
+    }
+
+    /**
+     * Checks that toll states can be kept for the given day, without creating any.
+     *
+     * @param date the day
+     * @throws FutureDayException if the day is too far ahead of today
+     */
+    public void checkDay(LocalDate date) {
+        partitions.checkAccepted(date);
+    }
+
+    /**
+     * Returns the toll state of the given vehicle in the given city and day, if it has one.
+     *
+     * @param city    the normalized name of the city
+     * @param plateId the plate identifier of the vehicle
+     * @param date    the day
+     * @return the toll state of the vehicle in the city on the day, or null if it has no charged passes there
+     */
+    public DailyTollState find(String city, int plateId, LocalDate date) {
+        Map<String, IntObjectMap<DailyTollState>> cities = partitions.get(date);
+        if (cities == null) return null;
+        IntObjectMap<DailyTollState> states = cities.get(city);
+        return states == null ? null : states.get(plateId);
+    }
+}
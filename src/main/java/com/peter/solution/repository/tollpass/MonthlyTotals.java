@@ -0,0 +1,101 @@
+package com.peter.solution.repository.tollpass;
+
+import com.peter.solution.repository.IntObjectMap;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Consumer;
+
+/**
+ * Rollups of the toll totals of every vehicle per month and per day.
+ * <p>
+ * Every month has a primitive {@link IntObjectMap} from plate identifier to the {@link PlateMonthTotals} of the
+ * vehicle, so looking up the totals of one vehicle in one month takes two hash lookups however many passes it
+ * made. Months are kept for a retention window counted back from the newest month seen, longer than the day
+ * partitions of the toll passes themselves, so totals can still be billed after the passes have been dropped.
+ * </p>
+ */
+final class MonthlyTotals {
+
+    private final NavigableMap<YearMonth, IntObjectMap<PlateMonthTotals>> months = new ConcurrentSkipListMap<>();
+    private final int retentionMonths;
+
+    /**
+     * Creates empty rollups.
+     *
+     * @param retentionMonths the number of months kept, including the newest month
+     * @throws IllegalArgumentException if the retention is not positive
+     */
+    MonthlyTotals(int retentionMonths) {
+        if (retentionMonths < 1) throw new IllegalArgumentException("Retention must be at least one month");
+        this.retentionMonths = retentionMonths;
+    }
+
+    /**
+     * Adds a toll amount to the totals of a vehicle on the given day. Amounts of months outside the retention
+     * window are ignored.
+     *
+     * @param plateId     the dictionary identifier of the plate number
+     * @param plateNumber the plate number
+     * @param date        the day
+     * @param amount      the amount in öre, negative to take back a deleted toll pass
+     */
+    void add(int plateId, String plateNumber, LocalDate date, long amount) {
+        if (amount == 0) return;
+        IntObjectMap<PlateMonthTotals> month = monthOf(YearMonth.from(date));
+        if (month == null) return;
+        month.computeIfAbsent(plateId, id -> new PlateMonthTotals(plateNumber, YearMonth.from(date))).add(date, amount);
+    }
+
+    /**
+     * Returns the totals of a vehicle in the given month.
+     *
+     * @param plateId the dictionary identifier of the plate number
+     * @param month   the month
+     * @return the totals, or null if the vehicle was not charged in the month
+     */
+    PlateMonthTotals get(int plateId, YearMonth month) {
+        IntObjectMap<PlateMonthTotals> plates = months.get(month);
+        return plates == null ? null : plates.get(plateId);
+    }
+
+    /**
+     * Passes the totals of every vehicle charged in the given month to the action, in no particular order.
+     *
+     * @param month  the month
+     * @param action the action to perform on the totals of each vehicle
+     */
+    void forEach(YearMonth month, Consumer<PlateMonthTotals> action) {
+        IntObjectMap<PlateMonthTotals> plates = months.get(month);
+        if (plates != null) plates.forEach(action);
+    }
+
+    /**
+     * Passes the totals of every vehicle in every retained month to the action, from the oldest month on.
+     *
+     * @param action the action to perform on the totals of each vehicle and month
+     */
+    void forEach(Consumer<PlateMonthTotals> action) {
+        months.values().forEach(plates -> plates.forEach(action));
+    }
+
+    /**
+     * Returns the rollup of the given month, creating it and dropping the months that fall out of the retention
+     * window if it is new.
+     *
+     * @return the rollup, or null if the month is already outside the retention window
+     */
+    private IntObjectMap<PlateMonthTotals> monthOf(YearMonth month) {
+        IntObjectMap<PlateMonthTotals> plates = months.get(month);
+        if (plates != null) return plates;
+
+        IntObjectMap<PlateMonthTotals> created = new IntObjectMap<>();
+        plates = months.putIfAbsent(month, created);
+        if (plates != null) return plates;
+
+        months.headMap(months.lastKey().minusMonths(retentionMonths - 1L)).clear();
+        return months.get(month);
+    }
+}
@@ -0,0 +1,14 @@
+package com.peter.solution.repository.tollpass;
+
+import java.time.LocalDate;
+
+/**
+ * The toll total of a vehicle on a day whose toll passes are no longer stored, as kept by a compacted
+ * {@link TollPassJournal}.
+ *
+ * @param plateNumber the plate number of the vehicle
+ * @param date        the day
+ * @param amount      the total of the day, in öre
+ */
+public record PlateDayTotal(String plateNumber, LocalDate date, long amount) {
+}
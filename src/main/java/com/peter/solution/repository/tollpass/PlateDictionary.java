@@ -0,0 +1,123 @@
+package com.peter.solution.repository.tollpass;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Dictionary encoding plate numbers as dense integer identifiers.
+ * <p>
+ * Every distinct plate number is stored once and referred to by its identifier, so the toll pass columns and the
+ * daily toll states only hold an {@code int} per vehicle instead of a reference to a string. Identifiers are
+ * assigned in order starting at 0 and are never reused.
+ * </p>
+ * <p>
+ * Plate numbers are looked up in an open-addressing hash table of identifiers, 4 bytes per slot, probed linearly
+ * and compared against the plate number stored for the identifier; no boxed keys or entry objects are created.
+ * New plate numbers are added under a lock, while lookups never lock: the plate number of a new identifier is
+ * stored before the identifier is written into the table with release semantics, and the table is replaced as a
+ * whole when it grows.
+ * </p>
+ */
+final class PlateDictionary {
+
+    static final int UNKNOWN = -1;
+
+    private static final VarHandle SLOTS = MethodHandles.arrayElementVarHandle(int[].class);
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final Lock lock = new ReentrantLock();
+    private volatile String[] plates = new String[INITIAL_CAPACITY];
+    // identifier plus one of the plate number in every slot, 0 for a free slot
+    private volatile int[] slots = new int[INITIAL_CAPACITY * 2];
+    private int size;
+
+    /**
+     * Returns the identifier of the given plate number, assigning a new one if the plate number is not known yet.
+     *
+     * @param plateNumber the plate number
+     * @return the identifier of the plate number
+     */
+    int idOf(String plateNumber) {
+        int id = find(plateNumber);
+        if (id != UNKNOWN) return id;
+
+        lock.lock();
+        try {
+            id = find(plateNumber);
+            if (id != UNKNOWN) return id;
+
+            id = size;
+            String[] currentPlates = plates;
+            if (id == currentPlates.length) {
+                currentPlates = Arrays.copyOf(currentPlates, currentPlates.length * 2);
+            }
+            currentPlates[id] = plateNumber;
+            plates = currentPlates;
+
+            int[] currentSlots = slots;
+            if ((id + 1) * 2 > currentSlots.length) {
+                currentSlots = rehash(currentSlots.length * 2, currentPlates);
+                slots = currentSlots;
+            }
+            SLOTS.setRelease(currentSlots, freeSlot(currentSlots, plateNumber.hashCode()), id + 1);
+            size = id + 1;
+            return id;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the identifier of the given plate number without assigning one.
+     *
+     * @param plateNumber the plate number
+     * @return the identifier of the plate number, or {@link #UNKNOWN} if the plate number is not known
+     */
+    int find(String plateNumber) {
+        int[] currentSlots = slots;
+        int mask = currentSlots.length - 1;
+        for (int slot = slotOf(plateNumber.hashCode(), mask); ; slot = (slot + 1) & mask) {
+            int stored = (int) SLOTS.getAcquire(currentSlots, slot);
+            if (stored == 0) return UNKNOWN;
+            if (plates[stored - 1].equals(plateNumber)) return stored - 1;
+        }
+    }
+
+    /**
+     * Returns the plate number of the given identifier.
+     *
+     * @param id an identifier returned by {@link #idOf(String)}
+     * @return the plate number
+     */
+    String plateOf(int id) {
+        return plates[id];
+    }
+
+    /**
+     * Builds a table of the given capacity holding the identifiers assigned so far.
+     */
+    private int[] rehash(int capacity, String[] currentPlates) {
+        int[] rehashed = new int[capacity];
+        for (int id = 0; id < size; id++) {
+            rehashed[freeSlot(rehashed, currentPlates[id].hashCode())] = id + 1;
+        }
+        return rehashed;
+    }
+
+    private static int freeSlot(int[] table, int hash) {
+        int mask = table.length - 1;
+        int slot = slotOf(hash, mask);
+        while (table[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private static int slotOf(int hash, int mask) {
+        int mixed = hash * 0x9E3779B9;
+        return (mixed ^ (mixed >>> 16)) & mask;
+    }
+}
@@ -0,0 +1,63 @@
+package com.peter.solution.repository.tollpass;
+
+import lombok.Getter;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Running toll totals of one vehicle in one month, in öre.
+ * <p>
+ * The totals are kept up to date as toll passes are saved and deleted, so reading them never looks at the passes
+ * themselves. One month of one vehicle takes a fixed amount of memory: a total per day of the month and the total
+ * of the month.
+ * </p>
+ */
+public final class PlateMonthTotals {
+
+    @Getter
+    private final String plateNumber;
+    @Getter
+    private final YearMonth month;
+    private final AtomicIntegerArray dailyTotals;
+    private final AtomicLong total = new AtomicLong();
+
+    PlateMonthTotals(String plateNumber, YearMonth month) {
+        this.plateNumber = plateNumber;
+        this.month = month;
+        this.dailyTotals = new AtomicIntegerArray(month.lengthOfMonth());
+    }
+
+    /**
+     * Adds an amount to the totals of the given day, which must lie within the month.
+     *
+     * @param date   the day
+     * @param amount the amount in öre, negative to take back a deleted toll pass
+     */
+    void add(LocalDate date, long amount) {
+        dailyTotals.addAndGet(date.getDayOfMonth() - 1, Math.toIntExact(amount));
+        total.addAndGet(amount);
+    }
+
+    /**
+     * Returns the total of the month.
+     *
+     * @return the total in öre
+     */
+    public long getTotal() {
+        return total.get();
+    }
+
+    /**
+     * Returns the total of one day of the month.
+     *
+     * @param dayOfMonth the day of the month, starting at 1
+     * @return the total in öre
+     * @throws IndexOutOfBoundsException if the month has no such day
+     */
+    public long getDailyTotal(int dayOfMonth) {
+        return dailyTotals.get(dayOfMonth - 1);
+    }
+}
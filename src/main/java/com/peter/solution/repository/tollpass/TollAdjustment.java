@@ -0,0 +1,14 @@
+package com.peter.solution.repository.tollpass;
+
+import java.time.LocalDateTime;
+
+/**
+ * A changed charge of a stored toll pass, caused by a pass of the same vehicle and day that arrived late.
+ *
+ * @param tollPassId     the identifier of the toll pass
+ * @param passTime       the time of the toll pass
+ * @param previousAmount the amount charged before, in öre
+ * @param amount         the amount charged now, in öre
+ */
+public record TollAdjustment(long tollPassId, LocalDateTime passTime, long previousAmount, long amount) {
+}
@@ -0,0 +1,20 @@
+package com.peter.solution.repository.tollpass;
+
+import java.time.LocalDateTime;
+
+/**
+ * Recalculates the toll amount of a stored toll pass, see {@link TollPassRepository#correctAmounts}.
+ */
+@FunctionalInterface
+public interface TollCorrection {
+
+    /**
+     * Returns the corrected toll amount of a toll pass.
+     *
+     * @param id       the identifier of the toll pass
+     * @param passTime the time of the toll pass
+     * @param amount   the amount stored so far, in öre
+     * @return the corrected amount, in öre
+     */
+    long correct(long id, LocalDateTime passTime, long amount);
+}
@@ -10,15 +10,23 @@ import java.util.Objects;
 /**
  * Represents a toll pass record for a vehicle.
  * This record holds the vehicle's plate number, the date and time the toll pass was recorded,
- * and the toll amount for that pass.
+ * and the toll amount for that pass in öre. It also names the city whose rules charged the pass; a pass without
+ * a city was charged by the rules of the default city.
  */
 @Data
 @RequiredArgsConstructor
 public final class TollPass implements BaseEntity<Long> {
+
+    /**
+     * The longest plate number that can be stored, in bytes of UTF-8.
+     */
+    public static final int MAX_PLATE_NUMBER_BYTES = 31;
+
     private Long id;
     private final String plateNumber;
     private final LocalDateTime passDateTime;
-    private final double tollAmount;
+    private final long tollAmount;
+    private String city;
 
     public void setId(Long id) {
         this.id = id;
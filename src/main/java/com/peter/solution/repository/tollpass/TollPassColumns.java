@@ -0,0 +1,239 @@
+package com.peter.solution.repository.tollpass;
+
+import com.peter.solution.repository.IntIntMap;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Toll passes stored in primitive columns instead of as objects.
+ * <p>
+ * Every toll pass is a row of six primitive values: its identifier, its pass time in epoch seconds (UTC), the
+ * dictionary identifiers of its plate number and of its city, its toll amount in öre and the row of the previous
+ * pass of the same plate, which chains the passes of a plate so they can be found without scanning the other rows.
+ * That is 32 bytes per toll pass, where a {@link TollPass} object with its boxed identifier, plate number and date-time takes
+ * well over 150 bytes. Pass times are kept at second resolution. The last row of every plate is found in a
+ * primitive {@link IntIntMap} keyed by the plate identifier.
+ * </p>
+ * <p>
+ * Rows are appended to fixed-size chunks, so existing rows never move. Appends, deletions and corrected amounts
+ * are serialized by a lock; readers do not lock and only see rows below the published size.
+ * </p>
+ */
+final class TollPassColumns {
+
+    private static final int CHUNK_SIZE = 1024;
+    private static final int NO_ROW = -1;
+    private static final int DELETED = -1;
+    private static final int SECONDS_PER_DAY = 86_400;
+
+    private final Lock lock = new ReentrantLock();
+    private final IntIntMap lastRowByPlate = new IntIntMap();
+    private final PlateDictionary cities;
+    private volatile Chunk[] chunks = new Chunk[0];
+    private volatile int size;
+    private volatile int live;
+
+    /**
+     * Creates empty columns.
+     *
+     * @param cities the dictionary encoding the city names of the toll passes
+     */
+    TollPassColumns(PlateDictionary cities) {
+        this.cities = cities;
+    }
+
+    /**
+     * Appends a toll pass.
+     *
+     * @param tollPass the toll pass, with its identifier set
+     * @param plateId  the dictionary identifier of its plate number
+     * @param cityId   the dictionary identifier of its city
+     */
+    void add(TollPass tollPass, int plateId, int cityId) {
+        lock.lock();
+        try {
+            int row = size;
+            Chunk[] current = chunks;
+            if (row / CHUNK_SIZE == current.length) {
+                current = Arrays.copyOf(current, current.length + 1);
+                current[current.length - 1] = new Chunk();
+                chunks = current;
+            }
+            Chunk chunk = current[row / CHUNK_SIZE];
+            int index = row % CHUNK_SIZE;
+            chunk.ids[index] = tollPass.getId();
+            chunk.epochSeconds[index] = tollPass.getPassDateTime().toEpochSecond(ZoneOffset.UTC);
+            chunk.plateIds[index] = plateId;
+            chunk.cityIds[index] = cityId;
+            chunk.amounts[index] = Math.toIntExact(tollPass.getTollAmount());
+            chunk.previousRows[index] = lastRowByPlate.get(plateId, NO_ROW);
+            size = row + 1;
+            live++;
+            lastRowByPlate.put(plateId, row);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Deletes the toll pass with the given identifier.
+     *
+     * @param id         the identifier of the toll pass
+     * @param dictionary the dictionary to decode the plate number with
+     * @return the deleted toll pass, or null if it was not stored here
+     */
+    TollPass remove(long id, PlateDictionary dictionary) {
+        lock.lock();
+        try {
+            Chunk[] current = chunks;
+            for (int row = 0; row < size; row++) {
+                Chunk chunk = current[row / CHUNK_SIZE];
+                int index = row % CHUNK_SIZE;
+                int plateId = chunk.plateIds[index];
+                if (chunk.ids[index] == id && plateId != DELETED) {
+                    TollPass removed = toTollPass(chunk, index, dictionary.plateOf(plateId));
+                    chunk.plateIds[index] = DELETED;
+                    live--;
+                    return removed;
+                }
+            }
+            return null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Adds the toll passes of a plate within the given time range to the result, in the order they were appended.
+     *
+     * @param plateId     the dictionary identifier of the plate number
+     * @param plateNumber the plate number
+     * @param start       the start of the range (inclusive)
+     * @param end         the end of the range (inclusive)
+     * @param result      receives the matching toll passes
+     */
+    void collect(int plateId, String plateNumber, LocalDateTime start, LocalDateTime end, List<TollPass> result) {
+        int last = lastRowByPlate.get(plateId, NO_ROW);
+        if (last == NO_ROW) return;
+
+        long startSecond = start.toEpochSecond(ZoneOffset.UTC);
+        long endSecond = end.toEpochSecond(ZoneOffset.UTC);
+        Chunk[] current = chunks;
+        int from = result.size();
+        for (int row = last; row != NO_ROW; ) {
+            Chunk chunk = current[row / CHUNK_SIZE];
+            int index = row % CHUNK_SIZE;
+            long epochSecond = chunk.epochSeconds[index];
+            if (chunk.plateIds[index] == plateId && epochSecond >= startSecond && epochSecond <= endSecond) {
+                result.add(toTollPass(chunk, index, plateNumber));
+            }
+            row = chunk.previousRows[index];
+        }
+        Collections.reverse(result.subList(from, result.size()));
+    }
+
+    /**
+     * Passes every stored toll pass to the given action, in the order they were appended.
+     *
+     * @param dictionary the dictionary to decode the plate numbers with
+     * @param action     the action to perform on each toll pass
+     */
+    void forEach(PlateDictionary dictionary, Consumer<TollPass> action) {
+        int end = size;
+        Chunk[] current = chunks;
+        for (int row = 0; row < end; row++) {
+            Chunk chunk = current[row / CHUNK_SIZE];
+            int index = row % CHUNK_SIZE;
+            int plateId = chunk.plateIds[index];
+            if (plateId != DELETED) {
+                action.accept(toTollPass(chunk, index, dictionary.plateOf(plateId)));
+            }
+        }
+    }
+
+    /**
+     * Returns the plates with a toll pass of the given city whose time of day lies within the given range.
+     *
+     * @param cityId the dictionary identifier of the city
+     * @param from   the first second of the day (inclusive)
+     * @param to     the last second of the day (inclusive)
+     * @return the dictionary identifiers of the matching plates
+     */
+    BitSet platesWithin(int cityId, int from, int to) {
+        BitSet result = new BitSet();
+        int end = size;
+        Chunk[] current = chunks;
+        for (int row = 0; row < end; row++) {
+            Chunk chunk = current[row / CHUNK_SIZE];
+            int index = row % CHUNK_SIZE;
+            int plateId = chunk.plateIds[index];
+            if (plateId == DELETED || chunk.cityIds[index] != cityId) continue;
+            int secondOfDay = (int) Math.floorMod(chunk.epochSeconds[index], SECONDS_PER_DAY);
+            if (secondOfDay >= from && secondOfDay <= to) result.set(plateId);
+        }
+        return result;
+    }
+
+    /**
+     * Replaces the toll amount of one toll pass of a plate.
+     *
+     * @param plateId the dictionary identifier of the plate number
+     * @param id      the identifier of the toll pass
+     * @param amount  the corrected amount, in öre
+     * @return the corrected amount minus the previous amount, or 0 if the toll pass is not stored here
+     */
+    long correct(int plateId, long id, long amount) {
+        lock.lock();
+        try {
+            Chunk[] current = chunks;
+            for (int row = lastRowByPlate.get(plateId, NO_ROW); row != NO_ROW; ) {
+                Chunk chunk = current[row / CHUNK_SIZE];
+                int index = row % CHUNK_SIZE;
+                if (chunk.ids[index] == id && chunk.plateIds[index] == plateId) {
+                    long delta = amount - chunk.amounts[index];
+                    chunk.amounts[index] = Math.toIntExact(amount);
+                    return delta;
+                }
+                row = chunk.previousRows[index];
+            }
+            return 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of stored toll passes.
+     *
+     * @return the number of toll passes that have not been deleted
+     */
+    int count() {
+        return live;
+    }
+
+    private TollPass toTollPass(Chunk chunk, int index, String plateNumber) {
+        TollPass tollPass = new TollPass(plateNumber,
+                LocalDateTime.ofEpochSecond(chunk.epochSeconds[index], 0, ZoneOffset.UTC), chunk.amounts[index]);
+        tollPass.setId(chunk.ids[index]);
+        tollPass.setCity(cities.plateOf(chunk.cityIds[index]));
+        return tollPass;
+    }
+
+    private static final class Chunk {
+
+        private final long[] ids = new long[CHUNK_SIZE];
+        private final long[] epochSeconds = new long[CHUNK_SIZE];
+        private final int[] plateIds = new int[CHUNK_SIZE];
+        private final int[] cityIds = new int[CHUNK_SIZE];
+        private final int[] amounts = new int[CHUNK_SIZE];
+        private final int[] previousRows = new int[CHUNK_SIZE];
+    }
+}
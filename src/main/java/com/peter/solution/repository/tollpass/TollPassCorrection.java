@@ -0,0 +1,14 @@
+package com.peter.solution.repository.tollpass;
+
+import java.time.LocalDateTime;
+
+/**
+ * A corrected toll amount of a stored toll pass, as appended to and replayed from the {@link TollPassJournal}.
+ *
+ * @param tollPassId  the identifier of the toll pass
+ * @param plateNumber the plate number of the toll pass
+ * @param passTime    the time of the toll pass
+ * @param amount      the corrected amount, in öre
+ */
+public record TollPassCorrection(long tollPassId, String plateNumber, LocalDateTime passTime, long amount) {
+}
@@ -0,0 +1,436 @@
+package com.peter.solution.repository.tollpass;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Append-only journal of toll passes in a memory-mapped file.
+ * <p>
+ * Every toll pass, deletion and corrected amount is written as a fixed-width binary record of {@value #RECORD_SIZE}
+ * bytes into the mapped file, which is a memory copy and does not wait for the disk. A background thread forces the written records to disk
+ * once per flush interval, so a single disk flush commits all records appended in that interval (group commit).
+ * With synchronous commit enabled, an append additionally waits for the flush covering its records. Only the range
+ * written since the previous flush is forced. If a flush fails, the waiting appends fail with it instead of waiting
+ * for a disk that may not recover, and their records are voided, so that the next flush that succeeds does not commit
+ * changes their callers were told had failed. All records of one append are encoded before any is written, so an
+ * invalid record leaves the journal unchanged.
+ * <p>
+ * The file is mapped in regions of {@value #RECORD_SIZE} * 2^20 bytes, which are added as the journal grows.
+ * On startup, {@link #replay(Consumer, Consumer, Consumer, Consumer)} reads the records back in the order they were
+ * appended, after which {@link #compact(Path, Duration, Consumer)} rewrites the journal with only what is still
+ * retained, so neither the file nor the replay grows beyond the retention window from one start to the next.
+ * A record is only valid once its marker is written, which is done last, so replay stops at the first incomplete
+ * record.
+ * <p>
+ * Record layout, little endian:
+ * <pre>
+ *  0  int    marker: PASS, DELETION, CORRECTION, TOTAL or VOID
+ *  4  int    nanosecond of the pass time
+ *  8  long   toll pass identifier
+ * 16  long   pass time in epoch seconds (UTC), the start of the day for a TOTAL
+ * 24  long   toll amount in öre, the corrected amount for a CORRECTION, the total of the day for a TOTAL
+ * 32  byte   length of the plate number in bytes
+ * 33  byte[] plate number, UTF-8, at most {@value TollPass#MAX_PLATE_NUMBER_BYTES} bytes
+ * 64  byte   length of the city name in bytes, 0 for the default city
+ * 65  byte[] normalized city name, UTF-8, at most 31 bytes
+ * </pre>
+ */
+@Slf4j
+public final class TollPassJournal implements Closeable {
+
+    static final int RECORD_SIZE = 96;
+    private static final int MAX_NAME_BYTES = TollPass.MAX_PLATE_NUMBER_BYTES;
+    private static final int PLATE_OFFSET = 32;
+    private static final int CITY_OFFSET = 64;
+    private static final long REGION_SIZE = (long) RECORD_SIZE << 20;
+    private static final int PASS = 0x54504A32;
+    private static final int DELETION = 0x54504A44;
+    private static final int CORRECTION = 0x54504A43;
+    private static final int TOTAL = 0x54504A54;
+    private static final int VOID = 0x54504A56;
+
+    private final FileChannel channel;
+    private final List<MappedByteBuffer> regions = new CopyOnWriteArrayList<>();
+    private final boolean syncCommit;
+    private final Lock lock = new ReentrantLock();
+    private final Condition flushed = lock.newCondition();
+    private final ScheduledExecutorService flusher;
+
+    private long writePosition;
+    private volatile long writtenPosition;
+    private long flushedPosition;
+    // the failure of the last flush, until a flush succeeds again
+    private RuntimeException flushFailure;
+
+    /**
+     * Opens the journal at the given path, creating the file if it does not exist, and starts flushing it.
+     *
+     * @param path          the journal file
+     * @param flushInterval the time between two flushes to disk
+     * @param syncCommit    whether appends wait until their record is flushed to disk
+     * @throws UncheckedIOException if the journal file cannot be opened
+     */
+    public TollPassJournal(Path path, Duration flushInterval, boolean syncCommit) {
+        this.syncCommit = syncCommit;
+        try {
+            if (path.getParent() != null) Files.createDirectories(path.getParent());
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            writePosition = findEnd();
+            writtenPosition = writePosition;
+            flushedPosition = writePosition;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open toll pass journal " + path, e);
+        }
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "toll-pass-journal-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalNanos = flushInterval.toNanos();
+        flusher.scheduleWithFixedDelay(this::flush, intervalNanos, intervalNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Appends a saved toll pass to the journal.
+     *
+     * @param tollPass the toll pass to append, with its identifier set
+     * @throws IllegalArgumentException if the plate number or the city is longer than 31 bytes in UTF-8
+     * @throws IllegalStateException    if synchronous commit is enabled and flushing the record failed
+     */
+    public void append(TollPass tollPass) {
+        append(tollPass, List.of());
+    }
+
+    /**
+     * Appends a saved toll pass together with the corrected amounts of the earlier passes it changed, as
+     * consecutive records. Either all of them are appended or, if encoding or a synchronous commit fails, none.
+     *
+     * @param tollPass    the toll pass to append, with its identifier set
+     * @param corrections the corrected amounts
+     * @throws IllegalArgumentException if a plate number or the city is longer than 31 bytes in UTF-8
+     * @throws IllegalStateException    if synchronous commit is enabled and flushing the records failed
+     */
+    public void append(TollPass tollPass, List<TollPassCorrection> corrections) {
+        List<Record> records = new ArrayList<>(1 + corrections.size());
+        LocalDateTime passTime = tollPass.getPassDateTime();
+        records.add(new Record(PASS, tollPass.getId(), passTime.toEpochSecond(ZoneOffset.UTC), passTime.getNano(),
+                tollPass.getTollAmount(), encode("Plate number", tollPass.getPlateNumber()),
+                tollPass.getCity() == null ? new byte[0] : encode("City", tollPass.getCity())));
+        corrections.forEach(correction -> records.add(Record.of(correction)));
+        commit(records);
+    }
+
+    /**
+     * Appends the deletion of a toll pass to the journal.
+     *
+     * @param id the identifier of the deleted toll pass
+     * @throws IllegalStateException if synchronous commit is enabled and flushing the record failed
+     */
+    public void appendDeletion(Long id) {
+        commit(List.of(new Record(DELETION, id, 0, 0, 0, new byte[0], new byte[0])));
+    }
+
+    /**
+     * Appends corrected amounts of stored toll passes to the journal, either all of them or, if encoding or a
+     * synchronous commit fails, none.
+     *
+     * @param corrections the corrected amounts
+     * @throws IllegalArgumentException if a plate number is longer than 31 bytes in UTF-8
+     * @throws IllegalStateException    if synchronous commit is enabled and flushing the records failed
+     */
+    public void appendCorrections(List<TollPassCorrection> corrections) {
+        if (!corrections.isEmpty()) commit(corrections.stream().map(Record::of).toList());
+    }
+
+    /**
+     * Appends the toll total of a vehicle on a day whose toll passes are no longer retained, see
+     * {@link #compact(Path, Duration, Consumer)}.
+     *
+     * @param total the total of the day
+     * @throws IllegalArgumentException if the plate number is longer than 31 bytes in UTF-8
+     * @throws IllegalStateException    if synchronous commit is enabled and flushing the record failed
+     */
+    public void appendDayTotal(PlateDayTotal total) {
+        commit(List.of(new Record(TOTAL, 0, total.date().atStartOfDay().toEpochSecond(ZoneOffset.UTC), 0,
+                total.amount(), encode("Plate number", total.plateNumber()), new byte[0])));
+    }
+
+    /**
+     * Reads all complete records of the journal in the order they were appended.
+     *
+     * @param passes      receives every appended toll pass, with its identifier and city set
+     * @param deletions   receives the identifier of every deleted toll pass
+     * @param corrections receives every corrected amount
+     * @param totals      receives the totals of the days whose passes were compacted away
+     */
+    public void replay(Consumer<TollPass> passes, Consumer<Long> deletions,
+                       Consumer<TollPassCorrection> corrections, Consumer<PlateDayTotal> totals) {
+        long end = writtenPosition;
+        for (long position = 0; position < end; position += RECORD_SIZE) {
+            MappedByteBuffer region = region(position);
+            int offset = (int) (position % REGION_SIZE);
+            long id = region.getLong(offset + 8);
+            int marker = region.getInt(offset);
+            if (marker == VOID) continue;
+            if (marker == DELETION) {
+                deletions.accept(id);
+                continue;
+            }
+            long amount = region.getLong(offset + 24);
+            LocalDateTime passTime = LocalDateTime.ofEpochSecond(region.getLong(offset + 16),
+                    region.getInt(offset + 4), ZoneOffset.UTC);
+            if (marker == TOTAL) {
+                totals.accept(new PlateDayTotal(decode(region, offset + PLATE_OFFSET), passTime.toLocalDate(),
+                        amount));
+                continue;
+            }
+            if (marker == CORRECTION) {
+                corrections.accept(new TollPassCorrection(id, decode(region, offset + PLATE_OFFSET), passTime,
+                        amount));
+                continue;
+            }
+            TollPass tollPass = new TollPass(decode(region, offset + PLATE_OFFSET), passTime, amount);
+            tollPass.setId(id);
+            if (region.get(offset + CITY_OFFSET) > 0) tollPass.setCity(decode(region, offset + CITY_OFFSET));
+            passes.accept(tollPass);
+        }
+    }
+
+    /**
+     * Replaces the journal at the given path with a new one holding only the records written by the writer. The new
+     * journal is written next to the old one, flushed, and then moved over it, so a failure leaves the old journal
+     * in place. The journal must not be open meanwhile.
+     *
+     * @param path          the journal file
+     * @param flushInterval the time between two flushes of the new journal while it is written
+     * @param writer        appends the records to keep to the new journal
+     * @throws UncheckedIOException if the new journal cannot be written or moved
+     */
+    public static void compact(Path path, Duration flushInterval, Consumer<TollPassJournal> writer) {
+        Path compacted = path.resolveSibling(path.getFileName() + ".compacted");
+        try {
+            Files.deleteIfExists(compacted);
+            try (TollPassJournal journal = new TollPassJournal(compacted, flushInterval, false)) {
+                writer.accept(journal);
+            }
+            Files.move(compacted, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot compact toll pass journal " + path, e);
+        }
+    }
+
+    /**
+     * Stops the flusher and flushes all appended records to disk.
+     */
+    @Override
+    public void close() throws IOException {
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+        channel.close();
+    }
+
+    /**
+     * Writes the records one after another and, with synchronous commit, waits for their flush. If the flush
+     * fails, the records are voided before the failure is thrown.
+     */
+    private void commit(List<Record> records) {
+        long start;
+        long end;
+        lock.lock();
+        try {
+            start = writePosition;
+            for (Record record : records) {
+                write(record);
+            }
+            end = writePosition;
+            writtenPosition = end;
+        } finally {
+            lock.unlock();
+        }
+        if (!syncCommit) return;
+        try {
+            awaitFlush(end);
+        } catch (IllegalStateException e) {
+            voidRecords(start, end);
+            throw e;
+        }
+    }
+
+    /**
+     * Writes a record at the write position. Must be called while holding the lock.
+     */
+    private void write(Record record) {
+        long position = writePosition;
+        MappedByteBuffer region = region(position);
+        int offset = (int) (position % REGION_SIZE);
+        region.putInt(offset + 4, record.nano());
+        region.putLong(offset + 8, record.id());
+        region.putLong(offset + 16, record.epochSecond());
+        region.putLong(offset + 24, record.amount());
+        region.put(offset + PLATE_OFFSET, (byte) record.plate().length);
+        region.put(offset + PLATE_OFFSET + 1, record.plate());
+        region.put(offset + CITY_OFFSET, (byte) record.city().length);
+        region.put(offset + CITY_OFFSET + 1, record.city());
+        region.putInt(offset, record.marker());
+        writePosition = position + RECORD_SIZE;
+    }
+
+    /**
+     * Marks the records between the given positions as void, so that replay skips them.
+     */
+    private void voidRecords(long start, long end) {
+        lock.lock();
+        try {
+            for (long position = start; position < end; position += RECORD_SIZE) {
+                region(position).putInt((int) (position % REGION_SIZE), VOID);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static byte[] encode(String field, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_NAME_BYTES) {
+            throw new IllegalArgumentException(field + " too long for the journal: " + value);
+        }
+        return bytes;
+    }
+
+    private static String decode(MappedByteBuffer region, int offset) {
+        byte[] bytes = new byte[region.get(offset)];
+        region.get(offset + 1, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Forces all records written so far to disk and wakes up the appends waiting for them.
+     */
+    private void flush() {
+        long target = writtenPosition;
+        long from;
+        lock.lock();
+        try {
+            if (target <= flushedPosition) return;
+            from = flushedPosition;
+        } finally {
+            lock.unlock();
+        }
+        RuntimeException failure = null;
+        try {
+            for (int i = (int) (from / REGION_SIZE); i <= (target - 1) / REGION_SIZE; i++) {
+                long regionStart = i * REGION_SIZE;
+                int start = (int) (Math.max(from, regionStart) - regionStart);
+                int end = (int) (Math.min(target, regionStart + REGION_SIZE) - regionStart);
+                regions.get(i).force(start, end - start);
+            }
+        } catch (RuntimeException e) {
+            log.error("Flushing the toll pass journal failed", e);
+            failure = e;
+        }
+        lock.lock();
+        try {
+            if (failure == null) flushedPosition = target;
+            flushFailure = failure;
+            flushed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Waits until the given position is flushed to disk.
+     *
+     * @throws IllegalStateException if a flush failed meanwhile
+     */
+    private void awaitFlush(long position) {
+        lock.lock();
+        try {
+            while (flushedPosition < position) {
+                flushed.awaitUninterruptibly();
+                if (flushedPosition < position && flushFailure != null) {
+                    throw new IllegalStateException("Flushing the toll pass journal failed", flushFailure);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the mapped region containing the given position, mapping new regions as needed. Must be called while
+     * holding the lock, or for positions below the written position.
+     */
+    private MappedByteBuffer region(long position) {
+        int index = (int) (position / REGION_SIZE);
+        while (regions.size() <= index) {
+            try {
+                MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_WRITE,
+                        regions.size() * REGION_SIZE, REGION_SIZE);
+                region.order(ByteOrder.LITTLE_ENDIAN);
+                regions.add(region);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot map toll pass journal region " + regions.size(), e);
+            }
+        }
+        return regions.get(index);
+    }
+
+    /**
+     * Finds the end of the complete records in an existing journal file.
+     */
+    private long findEnd() throws IOException {
+        long size = channel.size();
+        long position = 0;
+        while (position + RECORD_SIZE <= size) {
+            int marker = region(position).getInt((int) (position % REGION_SIZE));
+            if (marker != PASS && marker != DELETION && marker != CORRECTION && marker != TOTAL
+                    && marker != VOID) break;
+            position += RECORD_SIZE;
+        }
+        return position;
+    }
+
+    /**
+     * An encoded record, written by {@link #write(Record)}.
+     */
+    private record Record(int marker, long id, long epochSecond, int nano, long amount, byte[] plate, byte[] city) {
+
+        private static Record of(TollPassCorrection correction) {
+            LocalDateTime passTime = correction.passTime();
+            return new Record(CORRECTION, correction.tollPassId(), passTime.toEpochSecond(ZoneOffset.UTC),
+                    passTime.getNano(), correction.amount(), encode("Plate number", correction.plateNumber()),
+                    new byte[0]);
+        }
+    }
+}
@@ -1,26 +1,226 @@
 package com.peter.solution.repository.tollpass;
 
-import com.peter.solution.repository.InMemoryRepository;
+import com.peter.solution.repository.DayPartitions;
+import com.peter.solution.repository.Repository;
+import com.peter.solution.repository.city.CityRuleSets;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.time.Clock;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Repository class responsible for managing and accessing TollPass data in an in-memory storage.
  * <p>
- * This class extends {@link InMemoryRepository} and provides specific methods to retrieve toll pass records
- * based on plate number and date-time ranges. It helps in filtering toll passes efficiently using a stream-based
- * approach, ensuring that only the relevant toll passes are returned.
+ * Toll passes are stored in one partition per day, which keeps the passes of that day in primitive
+ * {@link TollPassColumns} with their plate numbers encoded as dense identifiers by a {@link PlateDictionary}. The passes of a plate are
+ * chained within a partition, so a lookup only touches the passes of one vehicle on the requested days instead of
+ * scanning every stored toll pass. Only the days within the retention window ({@code congestion.retention.days})
+ * are kept; older days are dropped as whole partitions when the first pass of a new day is stored. A pass more than
+ * {@code congestion.retention.max-days-ahead} days after today is rejected before anything is stored.
  * </p>
  * <p>
- * All toll passes are stored in memory and indexed by their respective identifiers. Methods provided allow for
- * searching, saving, and deleting toll pass entries.
+ * Every stored, restored and deleted toll pass also updates the {@link PlateMonthTotals} of its vehicle and month,
+ * so the amount a vehicle owes for a month or a day is read without touching its passes. Those totals are kept for
+ * a longer retention window of months ({@code congestion.retention.months}).
+ * </p>
+ * <p>
+ * Methods provided allow for searching, saving, and deleting toll pass entries. Saved and deleted toll passes and
+ * corrected amounts are appended to the {@link TollPassJournal}, if one is attached. A saved toll pass and its
+ * corrections are appended before they are stored, so if the journal rejects them, nothing is stored either.
  * </p>
  */
 @Component
-public class TollPassRepository extends InMemoryRepository<TollPass> {
+public class TollPassRepository implements Repository<TollPass, Long> {
+
+    static final int DEFAULT_RETENTION_DAYS = 7;
+    static final int DEFAULT_RETENTION_MONTHS = 13;
+
+    private final DayPartitions<TollPassColumns> partitions;
+    private final MonthlyTotals monthlyTotals;
+    private final PlateDictionary plates = new PlateDictionary();
+    // the same encoding for the few distinct city names
+    private final PlateDictionary cities = new PlateDictionary();
+    private final AtomicLong idGenerator = new AtomicLong(1);
+    private volatile TollPassJournal journal;
+
+    public TollPassRepository() {
+        this(DEFAULT_RETENTION_DAYS);
+    }
+
+    public TollPassRepository(int retentionDays) {
+        this(retentionDays, DEFAULT_RETENTION_MONTHS);
+    }
+
+    public TollPassRepository(int retentionDays, int retentionMonths) {
+        this(retentionDays, retentionMonths, DayPartitions.DEFAULT_MAX_DAYS_AHEAD, Clock.systemDefaultZone());
+    }
+
+    @Autowired
+    public TollPassRepository(@Value("${congestion.retention.days:7}") int retentionDays,
+                              @Value("${congestion.retention.months:13}") int retentionMonths,
+                              @Value("${congestion.retention.max-days-ahead:1}") int maxDaysAhead,
+                              Clock clock) {
+        partitions = new DayPartitions<>(retentionDays, maxDaysAhead, clock, () -> new TollPassColumns(cities));
+        monthlyTotals = new MonthlyTotals(retentionMonths);
+    }
+
+    /**
+     * Retrieves all toll passes within the retention window.
+     *
+     * @return a list of all retained toll passes
+     */
+    @Override
+    public List<TollPass> findAll() {
+        List<TollPass> result = new ArrayList<>();
+        partitions.values().forEach(partition -> partition.forEach(plates, result::add));
+        return result;
+    }
+
+    /**
+     * Saves the given toll pass in the partition of its day and appends it to the journal, if any.
+     *
+     * @param tollPass the toll pass to save
+     * @return the saved toll pass
+     */
+    @Override
+    public TollPass save(TollPass tollPass) {
+        return save(tollPass, plates.idOf(tollPass.getPlateNumber()));
+    }
+
+    /**
+     * Saves the given toll pass whose plate number has already been encoded, see {@link #plateIdOf(String)}. A
+     * toll pass without an identifier is assigned the next one.
+     *
+     * @param tollPass the toll pass to save, with an identifier from {@link #nextId()} or none
+     * @param plateId  the identifier of its plate number
+     * @return the saved toll pass
+     * @throws IllegalArgumentException if the journal cannot encode the toll pass
+     * @throws IllegalStateException    if the journal commits synchronously and flushing it failed
+     */
+    public TollPass save(TollPass tollPass, int plateId) {
+        return save(tollPass, plateId, List.of());
+    }
+
+    /**
+     * Saves the given toll pass together with the corrected amounts of earlier passes of the same vehicle and day
+     * it changed, see {@link #save(TollPass, int)}. The toll pass and the corrections are appended to the journal
+     * as one, and only then stored. Callers must make sure that no pass of the vehicle is saved meanwhile.
+     *
+     * @param tollPass    the toll pass to save, with an identifier from {@link #nextId()} or none
+     * @param plateId     the identifier of its plate number
+     * @param corrections the corrected amounts of earlier passes
+     * @return the saved toll pass
+     * @throws IllegalArgumentException if the journal cannot encode the toll pass
+     * @throws IllegalStateException    if the journal commits synchronously and flushing it failed
+     */
+    public TollPass save(TollPass tollPass, int plateId, List<TollPassCorrection> corrections) {
+        if (tollPass.getId() == null) tollPass.setId(idGenerator.getAndIncrement());
+        TollPassJournal currentJournal = journal;
+        if (currentJournal != null) currentJournal.append(tollPass, corrections);
+        partitionOf(tollPass).add(tollPass, plateId, cityIdOf(tollPass.getCity()));
+        addToTotals(plateId, tollPass, tollPass.getTollAmount());
+        corrections.forEach(correction -> applyCorrection(plateId, correction));
+        return tollPass;
+    }
+
+    /**
+     * Reserves the identifier of a toll pass that is about to be saved, so it can be referred to before.
+     *
+     * @return a new identifier
+     */
+    public long nextId() {
+        return idGenerator.getAndIncrement();
+    }
+
+    /**
+     * Stores a toll pass read back from the journal under its original identifier, without appending it to the
+     * journal again.
+     *
+     * @param tollPass the toll pass to restore, with its identifier set
+     */
+    public void restore(TollPass tollPass) {
+        idGenerator.accumulateAndGet(tollPass.getId() + 1, Math::max);
+        int plateId = plates.idOf(tollPass.getPlateNumber());
+        partitionOf(tollPass).add(tollPass, plateId, cityIdOf(tollPass.getCity()));
+        addToTotals(plateId, tollPass, tollPass.getTollAmount());
+    }
+
+    /**
+     * Applies a corrected amount read back from the journal to its stored toll pass and the totals of its vehicle,
+     * without appending it to the journal again. A correction of a toll pass that is no longer stored is ignored.
+     *
+     * @param correction the corrected amount
+     */
+    public void restoreCorrection(TollPassCorrection correction) {
+        int plateId = plates.find(correction.plateNumber());
+        if (plateId != PlateDictionary.UNKNOWN) applyCorrection(plateId, correction);
+    }
+
+    /**
+     * Adds the toll total of a vehicle on a day whose toll passes were compacted away to the month totals, as read
+     * back from the journal.
+     *
+     * @param total the total of the day
+     */
+    public void restoreDayTotal(PlateDayTotal total) {
+        monthlyTotals.add(plates.idOf(total.plateNumber()), total.plateNumber(), total.date(), total.amount());
+    }
+
+    /**
+     * Writes what is retained to a compacted journal: the totals of the days in the retained months whose toll
+     * passes are no longer stored, and every stored toll pass with its current amount. Replaying the compacted
+     * journal restores the same toll passes and totals. Must not run concurrently with saves or deletions.
+     *
+     * @param compacted the journal to append to
+     */
+    public void compactInto(TollPassJournal compacted) {
+        monthlyTotals.forEach(totals -> {
+            YearMonth month = totals.getMonth();
+            for (int dayOfMonth = 1; dayOfMonth <= month.lengthOfMonth(); dayOfMonth++) {
+                LocalDate day = month.atDay(dayOfMonth);
+                long amount = totals.getDailyTotal(dayOfMonth);
+                if (amount != 0 && partitions.get(day) == null) {
+                    compacted.appendDayTotal(new PlateDayTotal(totals.getPlateNumber(), day, amount));
+                }
+            }
+        });
+        partitions.values().forEach(partition -> partition.forEach(plates, compacted::append));
+    }
+
+    /**
+     * Starts appending every saved and deleted toll pass and every corrected amount to the given journal.
+     *
+     * @param journal the journal to append to
+     */
+    public void attachJournal(TollPassJournal journal) {
+        this.journal = journal;
+    }
+
+    /**
+     * Deletes the toll pass with the given identifier and records the deletion in the journal, if any.
+     *
+     * @param id the identifier of the toll pass to delete
+     */
+    @Override
+    public void deleteById(Long id) {
+        for (TollPassColumns partition : partitions.values()) {
+            TollPass removed = partition.remove(id, plates);
+            if (removed != null) {
+                addToTotals(plates.find(removed.getPlateNumber()), removed, -removed.getTollAmount());
+                TollPassJournal currentJournal = journal;
+                if (currentJournal != null) currentJournal.appendDeletion(id);
+                return;
+            }
+        }
+    }
 
     /**
      * Finds all toll passes for a given plate number within a specified date-time range.
@@ -33,37 +233,167 @@ public class TollPassRepository extends InMemoryRepository<TollPass> {
     public List<TollPass> findAllByPlateNumberAndDateTime(String plateNumber,
                                                           LocalDateTime startDateTime,
                                                           LocalDateTime endDateTime) {
-        return findAll().stream()
-                .filter(tollPass -> isMatchingTollPass(tollPass, plateNumber, startDateTime, endDateTime))
-                .collect(Collectors.toList());
+        int plateId = plates.find(plateNumber);
+        if (plateId == PlateDictionary.UNKNOWN) return List.of();
+
+        List<TollPass> result = new ArrayList<>();
+        LocalDate lastDate = endDateTime.toLocalDate();
+        for (LocalDate date = startDateTime.toLocalDate(); !date.isAfter(lastDate); date = date.plusDays(1)) {
+            TollPassColumns partition = partitions.get(date);
+            if (partition != null) {
+                partition.collect(plateId, plateNumber, startDateTime, endDateTime, result);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Finds all toll passes of a vehicle on the given day.
+     *
+     * @param plateId the identifier of the plate number, see {@link #plateIdOf(String)}
+     * @param date    the day
+     * @return the toll passes of the vehicle in the order they were stored, or an empty list if there are none
+     */
+    public List<TollPass> findAllByPlateIdAndDate(int plateId, LocalDate date) {
+        TollPassColumns partition = partitions.get(date);
+        if (partition == null) return List.of();
+        List<TollPass> result = new ArrayList<>();
+        partition.collect(plateId, plates.plateOf(plateId), date.atStartOfDay(), date.atTime(LocalTime.MAX), result);
+        return result;
+    }
+
+    /**
+     * Returns the days within the retention window that have toll passes.
+     *
+     * @return the days, from the oldest to the newest
+     */
+    public List<LocalDate> findDays() {
+        return List.copyOf(partitions.byDay().keySet());
+    }
+
+    /**
+     * Finds the vehicles with a toll pass of the given city on the given day whose time lies within the given
+     * range. Scans the passes of the day once.
+     *
+     * @param date the day
+     * @param city the normalized name of the city, or null for the default city
+     * @param from the start of the time range (inclusive)
+     * @param to   the end of the time range (inclusive)
+     * @return the plate identifiers of the matching vehicles, in ascending order
+     */
+    public int[] findPlateIds(LocalDate date, String city, LocalTime from, LocalTime to) {
+        TollPassColumns partition = partitions.get(date);
+        int cityId = cities.find(cityOrDefault(city));
+        if (partition == null || cityId == PlateDictionary.UNKNOWN) return new int[0];
+        return partition.platesWithin(cityId, from.toSecondOfDay(), to.toSecondOfDay()).stream().toArray();
+    }
+
+    /**
+     * Replaces the toll amounts of the passes of a vehicle in the given city and day with the amounts returned by
+     * the correction, and adjusts the totals of the vehicle by the difference. The correction is called for every
+     * such pass in the order the passes were stored. Callers must make sure that no pass of the vehicle is saved
+     * meanwhile, e.g. by holding the lock its calculations are serialized by. Changed amounts are appended to the
+     * journal, if any, before they are stored, so that a restart restores the corrected amounts and totals.
+     *
+     * @param plateId    the identifier of the plate number, see {@link #plateIdOf(String)}
+     * @param city       the normalized name of the city, or null for the default city
+     * @param date       the day
+     * @param correction returns the corrected amount of a toll pass
+     * @return the sum of the corrected amounts minus the sum of the previous amounts, in öre
+     * @throws IllegalStateException if the journal commits synchronously and flushing it failed
+     */
+    public long correctAmounts(int plateId, String city, LocalDate date, TollCorrection correction) {
+        String cityName = cityOrDefault(city);
+        List<TollPassCorrection> changed = new ArrayList<>(0);
+        for (TollPass tollPass : findAllByPlateIdAndDate(plateId, date)) {
+            if (!cityName.equals(tollPass.getCity())) continue;
+            long corrected = correction.correct(tollPass.getId(), tollPass.getPassDateTime(),
+                    tollPass.getTollAmount());
+            if (corrected == tollPass.getTollAmount()) continue;
+            changed.add(new TollPassCorrection(tollPass.getId(), tollPass.getPlateNumber(),
+                    tollPass.getPassDateTime(), corrected));
+        }
+        TollPassJournal currentJournal = journal;
+        if (currentJournal != null) currentJournal.appendCorrections(changed);
+        long delta = 0;
+        for (TollPassCorrection changedAmount : changed) {
+            delta += applyCorrection(plateId, changedAmount);
+        }
+        return delta;
     }
 
     /**
-     * Helper method to check if a toll pass matches the given plate number and date-time range.
+     * Returns the running toll totals of a vehicle in the given month. They cover every toll pass saved or
+     * restored for the month, even after its day has fallen out of the retention window of the toll passes.
      *
-     * @param tollPass      the toll pass to check
-     * @param plateNumber   the plate number to match
-     * @param startDateTime the start date-time range
-     * @param endDateTime   the end date-time range
-     * @return true if the toll pass matches the criteria, false otherwise
+     * @param plateNumber the plate number
+     * @param month       the month
+     * @return the totals, or null if the vehicle was not charged in the month
      */
-    private boolean isMatchingTollPass(TollPass tollPass, String plateNumber,
-                                       LocalDateTime startDateTime, LocalDateTime endDateTime) {
-        return plateNumber.equals(tollPass.getPlateNumber()) &&
-                isWithinDateTimeRange(tollPass.getPassDateTime(), startDateTime, endDateTime);
+    public PlateMonthTotals findMonthTotals(String plateNumber, YearMonth month) {
+        int plateId = plates.find(plateNumber);
+        return plateId == PlateDictionary.UNKNOWN ? null : monthlyTotals.get(plateId, month);
     }
 
     /**
-     * Helper method to check if a given date-time is within the specified range.
+     * Returns the running toll totals of every vehicle charged in the given month.
      *
-     * @param dateTime      the date-time to check
-     * @param startDateTime the start date-time range
-     * @param endDateTime   the end date-time range
-     * @return true if the date-time is within the range (inclusive)
+     * @param month the month
+     * @return the totals of each charged vehicle, in no particular order
      */
-    private boolean isWithinDateTimeRange(LocalDateTime dateTime,
-                                          LocalDateTime startDateTime,
-                                          LocalDateTime endDateTime) {
-        return !dateTime.isBefore(startDateTime) && !dateTime.isAfter(endDateTime);
+    public List<PlateMonthTotals> findAllMonthTotals(YearMonth month) {
+        List<PlateMonthTotals> result = new ArrayList<>();
+        monthlyTotals.forEach(month, result::add);
+        return result;
+    }
+
+    /**
+     * Returns the dense identifier of the given plate number, assigning one on its first use. Identifiers are
+     * never reused, so they can key the state of a vehicle in place of its plate number.
+     *
+     * @param plateNumber the plate number
+     * @return the identifier of the plate number
+     */
+    public int plateIdOf(String plateNumber) {
+        return plates.idOf(plateNumber);
+    }
+
+    /**
+     * Counts the toll passes within the retention window.
+     *
+     * @return the number of retained toll passes
+     */
+    public long count() {
+        long count = 0;
+        for (TollPassColumns partition : partitions.values()) {
+            count += partition.count();
+        }
+        return count;
+    }
+
+    private long applyCorrection(int plateId, TollPassCorrection correction) {
+        LocalDate date = correction.passTime().toLocalDate();
+        TollPassColumns partition = partitions.get(date);
+        if (partition == null) return 0;
+        // a pass deleted meanwhile keeps its amount, which has already been taken back from the totals
+        long delta = partition.correct(plateId, correction.tollPassId(), correction.amount());
+        monthlyTotals.add(plateId, correction.plateNumber(), date, delta);
+        return delta;
+    }
+
+    private void addToTotals(int plateId, TollPass tollPass, long amount) {
+        monthlyTotals.add(plateId, tollPass.getPlateNumber(), tollPass.getPassDateTime().toLocalDate(), amount);
+    }
+
+    private int cityIdOf(String city) {
+        return cities.idOf(cityOrDefault(city));
+    }
+
+    private static String cityOrDefault(String city) {
+        return city == null ? CityRuleSets.DEFAULT_CITY : city;
+    }
+
+    private TollPassColumns partitionOf(TollPass tollPass) {
+        return partitions.getOrCreate(tollPass.getPassDateTime().toLocalDate());
     }
-}
\ No newline at end of file
+}
@@ -3,14 +3,24 @@ package com.peter.solution.repository.vehicle;
 import com.peter.solution.repository.InMemoryRepository;
 import org.springframework.stereotype.Component;
 
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
 /**
  * Repository class for managing tax-exempted vehicles.
  * Inherits from the InMemoryRepository to provide basic CRUD operations for vehicle types.
  * This repository is pre-populated with a set of tax-exempted vehicle types.
+ * <p>
+ * Vehicle types are compared case-insensitively. Next to the stored entities, the repository keeps the normalized
+ * vehicle types in a concurrent hash set, so both the exemption check and the duplicate check on save take
+ * constant time.
  */
 @Component
 public class TaxExemptedVehicleRepository extends InMemoryRepository<TaxExemptedVehicle> {
 
+    private final Set<String> exemptedTypes = ConcurrentHashMap.newKeySet();
+
     public TaxExemptedVehicleRepository() {
         this.save(TaxExemptedVehicle.ofVehicle("Motorcycle"));
         this.save(TaxExemptedVehicle.ofVehicle("Tractor"));
@@ -28,11 +38,41 @@ public class TaxExemptedVehicleRepository extends InMemoryRepository<TaxExempted
      */
     @Override
     public TaxExemptedVehicle save(TaxExemptedVehicle vehicle) {
-        boolean isPresent = findAll().stream()
-                .map(TaxExemptedVehicle::getVehicle)
-                .anyMatch(vehicle.getVehicle()::equals);
-        if (!isPresent) super.save(vehicle);
+        if (exemptedTypes.add(normalize(vehicle.getVehicle()))) super.save(vehicle);
         return vehicle;
     }
 
-}
\ No newline at end of file
+    /**
+     * Deletes the vehicle type with the given identifier from the repository.
+     *
+     * @param id the identifier of the vehicle type to delete
+     */
+    @Override
+    public void deleteById(Long id) {
+        findById(id).ifPresent(vehicle -> {
+            super.deleteById(id);
+            exemptedTypes.remove(normalize(vehicle.getVehicle()));
+        });
+    }
+
+    /**
+     * Checks if the given vehicle type is exempted from toll charges.
+     *
+     * @param type the vehicle type to check
+     * @return true if the vehicle type is exempted, false otherwise
+     */
+    public boolean isExempted(String type) {
+        return type != null && exemptedTypes.contains(normalize(type));
+    }
+
+    /**
+     * Normalizes a vehicle type into the form it is compared in.
+     *
+     * @param type the vehicle type
+     * @return the vehicle type without surrounding whitespace, in lower case
+     */
+    private static String normalize(String type) {
+        return type.strip().toLowerCase(Locale.ROOT);
+    }
+
+}
@@ -0,0 +1,20 @@
+package com.peter.solution.service;
+
+import com.peter.solution.dto.BatchResultDTO;
+import com.peter.solution.dto.VehicleDTO;
+
+import java.util.List;
+
+/**
+ * Interface that defines the contract for calculating the toll fees of a batch of toll passes at once.
+ */
+public interface BatchTollCalculator {
+
+    /**
+     * Calculates the toll fee of every toll pass in the batch and the resulting daily totals per vehicle.
+     *
+     * @param vehicles the toll passes to calculate
+     * @return the toll passes with their calculated tax amount and the daily totals per vehicle
+     */
+    BatchResultDTO calculate(List<VehicleDTO> vehicles);
+}
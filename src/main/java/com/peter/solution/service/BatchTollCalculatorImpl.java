@@ -0,0 +1,95 @@
+package com.peter.solution.service;
+
+import com.peter.solution.dto.BatchResultDTO;
+import com.peter.solution.dto.DailyTotalDTO;
+import com.peter.solution.dto.VehicleDTO;
+import com.peter.solution.repository.city.CityRuleSet;
+import com.peter.solution.repository.city.CityRuleSets;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Service implementation that calculates a batch of toll passes.
+ * <p>
+ * The toll passes are grouped by day and then by plate number and city, and every group is sorted by pass time.
+ * Days are evaluated from the oldest to the newest, so the retention window of the daily toll state only ever drops
+ * days that are complete. Within a day the groups are independent of each other, so they are evaluated in parallel
+ * on the common fork-join pool, while the passes within a group are fed one at a time through the
+ * {@link TaxRateCalculator}. The result is therefore the same as submitting the passes of each vehicle one by one
+ * in chronological order.
+ * </p>
+ * <p>
+ * Every pass is validated before any is charged, so a batch with a pass of an unknown city or a day too far ahead
+ * is rejected as a whole instead of being charged in part.
+ * </p>
+ * <p>
+ * The daily totals are those of the daily toll state of each vehicle and city after the batch, so they include
+ * the passes of the day submitted before the batch and the adjustments late passes made to them.
+ * </p>
+ */
+@Service
+@RequiredArgsConstructor
+public class BatchTollCalculatorImpl implements BatchTollCalculator {
+
+    private final TaxRateCalculator taxRateCalculator;
+
+    /**
+     * Calculates the toll fee of every toll pass in the batch and the resulting daily totals per vehicle and city.
+     *
+     * @param vehicles the toll passes to calculate
+     * @return the toll passes with their calculated tax amount and the daily totals per vehicle and city
+     */
+    @Override
+    public BatchResultDTO calculate(List<VehicleDTO> vehicles) {
+        vehicles.forEach(taxRateCalculator::validate);
+        Map<LocalDate, Map<PlateCity, List<VehicleDTO>>> passesByDayAndPlate = vehicles.stream()
+                .collect(Collectors.groupingBy(vehicle -> vehicle.getTollPassDateTime().toLocalDate(), TreeMap::new,
+                        Collectors.groupingBy(vehicle -> new PlateCity(vehicle.getPlateNumber(), cityOf(vehicle)))));
+
+        List<DailyTotalDTO> dailyTotals = new ArrayList<>();
+        passesByDayAndPlate.forEach((date, passesByPlate) -> dailyTotals.addAll(
+                passesByPlate.values().parallelStream()
+                        .map(this::calculatePlateDay)
+                        .toList()));
+
+        return new BatchResultDTO(vehicles, dailyTotals);
+    }
+
+    /**
+     * Calculates the toll passes of a single vehicle in a single city on a single day in chronological order.
+     *
+     * @param passes the toll passes of one vehicle in one city on one day
+     * @return the daily total of the vehicle in the city
+     */
+    private DailyTotalDTO calculatePlateDay(List<VehicleDTO> passes) {
+        List<VehicleDTO> chronological = passes.stream()
+                .sorted(Comparator.comparing(VehicleDTO::getTollPassDateTime))
+                .toList();
+        for (VehicleDTO vehicle : chronological) {
+            vehicle.setTaxAmount(taxRateCalculator.calculate(vehicle));
+        }
+
+        VehicleDTO first = passes.get(0);
+        LocalDate date = first.getTollPassDateTime().toLocalDate();
+        long total = taxRateCalculator.findDailyTotal(first.getPlateNumber(), first.getCity(), date);
+        return new DailyTotalDTO(first.getPlateNumber(), cityOf(first), date, total);
+    }
+
+    private static String cityOf(VehicleDTO vehicle) {
+        return vehicle.getCity() == null ? CityRuleSets.DEFAULT_CITY : CityRuleSet.normalize(vehicle.getCity());
+    }
+
+    /**
+     * The key the passes of a day are grouped by, with the city in its normalized form.
+     */
+    private record PlateCity(String plateNumber, String city) {
+    }
+}
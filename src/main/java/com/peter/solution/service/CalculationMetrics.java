@@ -0,0 +1,105 @@
+package com.peter.solution.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micrometer instrumentation of the toll calculation.
+ * <p>
+ * Every {@link Stage} of a calculation is timed by the {@code congestion.calculation.stage} timer, tagged with the
+ * stage, and every calculated toll pass is counted by the {@code congestion.calculation.passes} counter, tagged
+ * with its {@link Outcome}. Meters are registered once, so recording a stage costs two {@link System#nanoTime()}
+ * calls and a timer update. Stages listed in {@code congestion.metrics.disabled-stages} are not timed at all.
+ * </p>
+ */
+@Component
+public class CalculationMetrics {
+
+    /**
+     * The timed stages of a calculation.
+     */
+    public enum Stage {
+        VEHICLE_EXEMPTION, DATE_EXEMPTION, TARIFF_LOOKUP, PASS_HISTORY, SAVE
+    }
+
+    /**
+     * The outcome of a calculated toll pass: exempted from the toll, charged, or capped because the daily total
+     * of the vehicle has reached the daily cap.
+     */
+    public enum Outcome {
+        EXEMPT, CHARGED, CAPPED
+    }
+
+    private final Map<Stage, Timer> stageTimers = new EnumMap<>(Stage.class);
+    private final Map<Outcome, Counter> outcomeCounters = new EnumMap<>(Outcome.class);
+
+    /**
+     * Creates metrics recording every stage into a registry of their own, for use outside a Spring context.
+     */
+    public CalculationMetrics() {
+        this(new SimpleMeterRegistry(), Set.of());
+    }
+
+    @Autowired
+    public CalculationMetrics(MeterRegistry registry,
+                              @Value("${congestion.metrics.disabled-stages:}") Set<Stage> disabledStages) {
+        for (Stage stage : Stage.values()) {
+            if (disabledStages.contains(stage)) continue;
+            stageTimers.put(stage, Timer.builder("congestion.calculation.stage")
+                    .description("Time spent in one stage of a toll calculation")
+                    .tag("stage", tagValue(stage))
+                    .register(registry));
+        }
+        for (Outcome outcome : Outcome.values()) {
+            outcomeCounters.put(outcome, Counter.builder("congestion.calculation.passes")
+                    .description("Calculated toll passes by outcome")
+                    .tag("outcome", tagValue(outcome))
+                    .register(registry));
+        }
+    }
+
+    /**
+     * Starts timing a stage.
+     *
+     * @param stage the stage
+     * @return the start time to pass to {@link #stop(Stage, long)}, or 0 if the stage is not timed
+     */
+    public long start(Stage stage) {
+        return stageTimers.containsKey(stage) ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Stops timing a stage and records its duration.
+     *
+     * @param stage the stage
+     * @param start the start time returned by {@link #start(Stage)}
+     */
+    public void stop(Stage stage, long start) {
+        Timer timer = stageTimers.get(stage);
+        if (timer != null) timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Counts a calculated toll pass.
+     *
+     * @param outcome the outcome of the toll pass
+     */
+    public void count(Outcome outcome) {
+        outcomeCounters.get(outcome).increment();
+    }
+
+    private static String tagValue(Enum<?> value) {
+        return value.name().toLowerCase(Locale.ROOT).replace('_', '-');
+    }
+}
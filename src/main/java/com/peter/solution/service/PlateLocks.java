@@ -0,0 +1,48 @@
+package com.peter.solution.service;
+
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fixed set of locks striped by plate identifier.
+ * <p>
+ * All calculations for one plate use the same lock and are therefore applied one after another, while
+ * calculations for different plates almost always use different locks and do not contend. Plate identifiers are
+ * dense and the number of stripes is a power of two, so finding the lock of a plate is a mask and consecutive
+ * plates never share a lock.
+ * </p>
+ */
+final class PlateLocks {
+
+    private final Lock[] stripes;
+
+    /**
+     * Creates striped locks with at least the given number of stripes.
+     *
+     * @param minStripes the minimum number of stripes
+     */
+    PlateLocks(int minStripes) {
+        int size = Integer.highestOneBit(Math.max(1, minStripes - 1)) << 1;
+        stripes = new Lock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Creates striped locks sized for the number of available processors.
+     */
+    PlateLocks() {
+        this(Runtime.getRuntime().availableProcessors() * 64);
+    }
+
+    /**
+     * Returns the lock guarding the given plate.
+     *
+     * @param plateId the plate identifier
+     * @return the lock of the plate
+     */
+    Lock lockFor(int plateId) {
+        return stripes[plateId & (stripes.length - 1)];
+    }
+}
@@ -0,0 +1,37 @@
+package com.peter.solution.service;
+
+import com.peter.solution.dto.BatchResultDTO;
+import com.peter.solution.dto.VehicleDTO;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Interface that defines the contract for calculating toll fees without blocking the calling thread.
+ */
+public interface ReactiveTollCalculator {
+
+    /**
+     * Calculates the toll fee for a single vehicle pass.
+     *
+     * @param vehicle the vehicle pass
+     * @return the vehicle pass with its calculated tax amount
+     */
+    Mono<VehicleDTO> calculate(Mono<VehicleDTO> vehicle);
+
+    /**
+     * Calculates the toll fee of every vehicle pass of a stream as it arrives. Passes of the same plate number are
+     * calculated and emitted in the order they arrive; passes of different plate numbers may be reordered.
+     *
+     * @param vehicles the vehicle passes
+     * @return the vehicle passes with their calculated tax amount
+     */
+    Flux<VehicleDTO> calculateStream(Flux<VehicleDTO> vehicles);
+
+    /**
+     * Calculates the toll fee of every vehicle pass of a batch and the resulting daily totals per vehicle.
+     *
+     * @param vehicles the vehicle passes of the batch
+     * @return the vehicle passes with their calculated tax amount and the daily totals per vehicle
+     */
+    Mono<BatchResultDTO> calculateBatch(Flux<VehicleDTO> vehicles);
+}
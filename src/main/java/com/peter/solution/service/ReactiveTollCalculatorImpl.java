@@ -0,0 +1,90 @@
+package com.peter.solution.service;
+
+import com.peter.solution.dto.BatchResultDTO;
+import com.peter.solution.dto.VehicleDTO;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Non-blocking facade of the {@link TaxRateCalculator} and the {@link BatchTollCalculator} for the reactive stack.
+ * <p>
+ * The calculation itself briefly takes the lock of a plate number and, with synchronous journal commits, waits for
+ * the disk, so it never runs on the event loop. It runs on a fixed pool of {@code congestion.reactive.threads}
+ * calculation threads instead (default: one per processor), while connections are served by the event loop.
+ * </p>
+ * <p>
+ * A stream of passes is split into one lane per calculation thread by the hash of the plate number. Every lane is
+ * calculated in order, so the passes of one plate number keep their order, while different plate numbers are
+ * calculated in parallel. Passes are only read from the client as fast as the lanes calculate them, so a slow
+ * calculation or a slow reader of the response holds back the upload instead of buffering it.
+ * </p>
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveTollCalculatorImpl implements ReactiveTollCalculator, DisposableBean {
+
+    private final TaxRateCalculator taxRateCalculator;
+    private final BatchTollCalculator batchTollCalculator;
+    private final Scheduler scheduler;
+    private final int lanes;
+
+    public ReactiveTollCalculatorImpl(TaxRateCalculator taxRateCalculator,
+                                      BatchTollCalculator batchTollCalculator,
+                                      @Value("${congestion.reactive.threads:0}") int threads) {
+        this.taxRateCalculator = taxRateCalculator;
+        this.batchTollCalculator = batchTollCalculator;
+        this.lanes = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.scheduler = Schedulers.newParallel("toll-calculation", lanes);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Mono<VehicleDTO> calculate(Mono<VehicleDTO> vehicle) {
+        return vehicle.publishOn(scheduler).map(this::calculate);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Flux<VehicleDTO> calculateStream(Flux<VehicleDTO> vehicles) {
+        return vehicles
+                .groupBy(this::laneOf, lanes)
+                .flatMap(lane -> lane.publishOn(scheduler).map(this::calculate), lanes);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Mono<BatchResultDTO> calculateBatch(Flux<VehicleDTO> vehicles) {
+        return vehicles.collectList()
+                .publishOn(scheduler)
+                .map(batchTollCalculator::calculate);
+    }
+
+    /**
+     * Stops the calculation threads.
+     */
+    @Override
+    public void destroy() {
+        scheduler.dispose();
+    }
+
+    private VehicleDTO calculate(VehicleDTO vehicle) {
+        vehicle.setTaxAmount(taxRateCalculator.calculate(vehicle));
+        return vehicle;
+    }
+
+    private int laneOf(VehicleDTO vehicle) {
+        return Math.floorMod(vehicle.getPlateNumber().hashCode(), lanes);
+    }
+}
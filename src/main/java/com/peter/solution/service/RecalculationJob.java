@@ -0,0 +1,86 @@
+package com.peter.solution.service;
+
+import lombok.Getter;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Progress of one recalculation of stored toll passes, see {@link TollRecalculator}.
+ * <p>
+ * The number of vehicle days to recalculate grows while the affected days are scanned, so the progress is only
+ * final once the job is no longer running.
+ * </p>
+ */
+public final class RecalculationJob {
+
+    public enum Status {RUNNING, COMPLETED, FAILED}
+
+    @Getter
+    private final long id;
+    @Getter
+    private final String description;
+    @Getter
+    private final Instant startedAt = Instant.now();
+    private final LongAdder plateDays = new LongAdder();
+    private final LongAdder recalculatedPlateDays = new LongAdder();
+    private final LongAdder adjustment = new LongAdder();
+    @Getter
+    private volatile Status status = Status.RUNNING;
+    @Getter
+    private volatile Instant completedAt;
+    @Getter
+    private volatile String error;
+
+    RecalculationJob(long id, String description) {
+        this.id = id;
+        this.description = description;
+    }
+
+    /**
+     * Returns the number of vehicle days found to recalculate so far.
+     *
+     * @return the number of vehicle days
+     */
+    public long getPlateDays() {
+        return plateDays.sum();
+    }
+
+    /**
+     * Returns the number of vehicle days recalculated so far.
+     *
+     * @return the number of recalculated vehicle days
+     */
+    public long getRecalculatedPlateDays() {
+        return recalculatedPlateDays.sum();
+    }
+
+    /**
+     * Returns the sum of the new charges minus the sum of the previous charges recalculated so far.
+     *
+     * @return the adjustment in öre, negative if vehicles were charged too much
+     */
+    public long getAdjustment() {
+        return adjustment.sum();
+    }
+
+    void found(int count) {
+        plateDays.add(count);
+    }
+
+    void recalculated(int count, long delta) {
+        recalculatedPlateDays.add(count);
+        adjustment.add(delta);
+    }
+
+    void complete() {
+        completedAt = Instant.now();
+        status = Status.COMPLETED;
+    }
+
+    void fail(Throwable cause) {
+        error = cause.toString();
+        completedAt = Instant.now();
+        status = Status.FAILED;
+    }
+}
@@ -0,0 +1,71 @@
+package com.peter.solution.service;
+
+import com.peter.solution.repository.dates.ExemptedDate;
+import com.peter.solution.repository.taxrate.TaxRate;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.function.Predicate;
+
+/**
+ * The stored toll passes a rule change can have charged wrongly: the passes on the matching days whose time of day
+ * lies within a time range. Every vehicle with such a pass has its whole day recalculated, since the single charge
+ * rule and the daily cap tie the charges of a day together.
+ *
+ * @param description describes the change, for the progress report
+ * @param days        matches the affected days
+ * @param from        the start of the affected time of day (inclusive)
+ * @param to          the end of the affected time of day (inclusive)
+ */
+public record RecalculationScope(String description, Predicate<LocalDate> days, LocalTime from, LocalTime to) {
+
+    /**
+     * Returns the scope of a tax rate that was added or removed: the passes of every day within the minutes of the
+     * tax rate.
+     *
+     * @param taxRate the added or removed tax rate
+     * @return the scope of the change
+     */
+    public static RecalculationScope ofTaxRate(TaxRate taxRate) {
+        LocalTime start = taxRate.getStartTime();
+        LocalTime end = taxRate.getEndTime().withSecond(59);
+        String description = "tax rate " + taxRate.getStartTime() + "-" + taxRate.getEndTime();
+        // a tax rate wrapping around midnight affects both ends of the day
+        if (end.isBefore(start)) return new RecalculationScope(description, date -> true, LocalTime.MIN, LocalTime.MAX);
+        return new RecalculationScope(description, date -> true, start, end);
+    }
+
+    /**
+     * Returns the scope of an exempted date that was added or removed: the whole of every day it exempts, which
+     * for a holiday includes the day before.
+     *
+     * @param exemptedDate the added or removed exempted date
+     * @return the scope of the change
+     */
+    public static RecalculationScope ofExemptedDate(ExemptedDate exemptedDate) {
+        return switch (exemptedDate.getType()) {
+            case DAY_OF_WEEK -> wholeDays("exempted " + exemptedDate.getDayOfWeek(),
+                    date -> date.getDayOfWeek() == exemptedDate.getDayOfWeek());
+            case MONTH -> wholeDays("exempted " + exemptedDate.getMonth(),
+                    date -> date.getMonth() == exemptedDate.getMonth());
+            case HOLIDAY_DATE -> wholeDays("holiday " + exemptedDate.getHolidayDate(),
+                    date -> date.equals(exemptedDate.getHolidayDate())
+                            || date.equals(exemptedDate.getHolidayDate().minusDays(1)));
+        };
+    }
+
+    /**
+     * Returns the scope of all passes within a range of days.
+     *
+     * @param first the first day (inclusive)
+     * @param last  the last day (inclusive)
+     * @return the scope of the days
+     */
+    public static RecalculationScope ofDays(LocalDate first, LocalDate last) {
+        return wholeDays("days " + first + " to " + last, date -> !date.isBefore(first) && !date.isAfter(last));
+    }
+
+    private static RecalculationScope wholeDays(String description, Predicate<LocalDate> days) {
+        return new RecalculationScope(description, days, LocalTime.MIN, LocalTime.MAX);
+    }
+}
@@ -2,6 +2,8 @@ package com.peter.solution.service;
 
 import com.peter.solution.dto.VehicleDTO;
 
+import java.time.LocalDate;
+
 /**
  * Interface that defines the contract for calculating the toll fee for a vehicle
  * based on its type, date, time, and exemption rules.
@@ -9,10 +11,30 @@ import com.peter.solution.dto.VehicleDTO;
 public interface TaxRateCalculator {
 
     /**
-     * Calculates the toll fee for a given vehicle.
+     * Calculates the toll fee for a given vehicle. If the pass arrived after later passes of the same vehicle and
+     * day, the changed charges of those are recorded on the vehicle as its adjustments.
      *
      * @param vehicle the vehicle for which the toll fee is calculated
-     * @return the calculated toll fee
+     * @return the calculated toll fee in öre
+     */
+    long calculate(VehicleDTO vehicle);
+
+    /**
+     * Checks that a toll pass would be accepted by {@link #calculate(VehicleDTO)}, without charging it: that there
+     * are rules for its city and that its day is not too far ahead of today.
+     *
+     * @param vehicle the vehicle pass to check
+     */
+    void validate(VehicleDTO vehicle);
+
+    /**
+     * Returns the total toll charged to a vehicle in a city on a day so far, including the passes of earlier
+     * calculations.
+     *
+     * @param plateNumber the plate number of the vehicle
+     * @param city        the name of the city, or null for the default city
+     * @param date        the day
+     * @return the daily total in öre, after the daily cap
      */
-    double calculate(VehicleDTO vehicle);
+    long findDailyTotal(String plateNumber, String city, LocalDate date);
 }
\ No newline at end of file
@@ -1,142 +1,285 @@
 package com.peter.solution.service;
 
+import com.peter.solution.dto.TollAdjustmentDTO;
 import com.peter.solution.dto.VehicleDTO;
-import com.peter.solution.repository.dates.ExemptedDate;
-import com.peter.solution.repository.dates.ExemptedDateRepository;
-import com.peter.solution.repository.taxrate.TaxRate;
-import com.peter.solution.repository.taxrate.TaxRateRepository;
+import com.peter.solution.repository.FutureDayException;
+import com.peter.solution.repository.city.CityRuleSet;
+import com.peter.solution.repository.city.CityRuleSets;
+import com.peter.solution.repository.city.UnknownCityException;
+import com.peter.solution.repository.tollpass.DailyTollState;
+import com.peter.solution.repository.tollpass.DailyTollStateRepository;
+import com.peter.solution.repository.tollpass.TollAdjustment;
 import com.peter.solution.repository.tollpass.TollPass;
+import com.peter.solution.repository.tollpass.TollPassCorrection;
 import com.peter.solution.repository.tollpass.TollPassRepository;
-import com.peter.solution.repository.vehicle.TaxExemptedVehicle;
-import com.peter.solution.repository.vehicle.TaxExemptedVehicleRepository;
+import com.peter.solution.service.CalculationMetrics.Outcome;
+import com.peter.solution.service.CalculationMetrics.Stage;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
-import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.LocalTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.locks.Lock;
 
 /**
  * Service implementation that calculates the toll fee for a vehicle based on its type, the date,
  * and its toll pass history.
+ * <p>
+ * The rules applied are those of the city of the toll pass, looked up in {@link CityRuleSets}. The toll pass
+ * history of a vehicle is kept as a {@link DailyTollState} per city and day, which keeps the passes in time order
+ * and applies the single charge rule and the daily cap of the city as if they had arrived in that order. The
+ * returned fee is the charge of the pass itself. A pass that arrives late can change the charges of later passes
+ * of the day; those are corrected in the repository and recorded on the vehicle as adjustments, so the fee plus
+ * the changes of the adjustments is what the pass adds to the daily total of the vehicle.
+ * <p>
+ * The stages of a calculation are timed and its outcome is counted by {@link CalculationMetrics}.
+ * <p>
+ * The plate number is encoded as a dense identifier once per pass, which then keys the plate lock, the daily
+ * state and the stored toll pass. Updating the daily state and saving the new toll pass is done while holding the
+ * lock of the plate, so concurrent passes of the same vehicle are applied one after another, while passes of
+ * different vehicles do not wait for each other. If the toll pass cannot be saved, e.g. because the journal failed,
+ * the daily state is rebuilt from the stored passes, so the failed pass is not charged at all.
  */
 @Service
 @RequiredArgsConstructor
-public class TaxRateCalculatorImpl implements TaxRateCalculator {
+public class TaxRateCalculatorImpl implements TaxRateCalculator, TollChargeHistory {
 
-    private final ExemptedDateRepository exemptedDateRepository;
-    private final TaxRateRepository taxRateRepository;
-    private final TaxExemptedVehicleRepository exemptedVehicleRepository;
+    private final CityRuleSets cityRuleSets;
     private final TollPassRepository tollPassRepository;
+    private final DailyTollStateRepository dailyTollStateRepository;
+    private final CalculationMetrics metrics;
+    private final PlateLocks plateLocks = new PlateLocks();
 
     /**
      * Calculates the toll fee for a given vehicle.
      *
      * @param vehicle the vehicle for which the toll fee is calculated
-     * @return the calculated toll fee
+     * @return the calculated toll fee in öre
+     * @throws UnknownCityException if there are no rules for the city of the vehicle
      */
     @Override
-    public double calculate(VehicleDTO vehicle) {
+    public long calculate(VehicleDTO vehicle) {
+        CityRuleSet rules = cityRuleSets.ruleSetFor(vehicle.getCity());
         LocalDateTime dateTime = vehicle.getTollPassDateTime();
 
-        if (isVehicleExempted(vehicle) || isDateExempted(dateTime)) return 0;
+        if (isVehicleExempted(rules, vehicle) || isDateExempted(rules, dateTime)) {
+            metrics.count(Outcome.EXEMPT);
+            return 0;
+        }
 
-        double toll = calculateToll(dateTime);
+        long start = metrics.start(Stage.TARIFF_LOOKUP);
+        long toll = rules.tollAt(dateTime.toLocalTime());
+        metrics.stop(Stage.TARIFF_LOOKUP, start);
 
-        String plateNumber = vehicle.getPlateNumber();
-        LocalDate date = dateTime.toLocalDate();
-        List<TollPass> tollPassesForToday = tollPassRepository.findAllByPlateNumberAndDateTime(
-                plateNumber, date.atStartOfDay(), date.atTime(23, 59, 59));
+        int plateId = tollPassRepository.plateIdOf(vehicle.getPlateNumber());
+        Lock lock = plateLocks.lockFor(plateId);
+        lock.lock();
+        try {
+            start = metrics.start(Stage.PASS_HISTORY);
+            DailyTollState state = dailyTollStateRepository.findOrCreate(rules.getCity(), plateId,
+                    dateTime.toLocalDate());
+            long id = tollPassRepository.nextId();
+            List<TollAdjustment> adjustments = new ArrayList<>(0);
+            toll = state.charge(id, dateTime, toll, rules.getSingleChargeWindow(), rules.getDailyCap(), adjustments);
+            metrics.stop(Stage.PASS_HISTORY, start);
+            metrics.count(state.getDailyTotal() >= rules.getDailyCap() ? Outcome.CAPPED : Outcome.CHARGED);
 
-        double highestToll = tollPassesForToday.stream()
-                .filter(tollPass -> isWithinOneHour(tollPass.getPassDateTime(), dateTime))
-                .mapToDouble(TollPass::getTollAmount)
-                .max()
-                .orElse(toll);
+            start = metrics.start(Stage.SAVE);
+            try {
+                saveTollPass(vehicle, id, plateId, rules.getCity(), toll, adjustments);
+            } catch (RuntimeException e) {
+                rebuild(state, rules, plateId, dateTime.toLocalDate());
+                throw e;
+            }
+            if (!adjustments.isEmpty()) {
+                recordAdjustments(vehicle, adjustments);
+            }
+            metrics.stop(Stage.SAVE, start);
+        } finally {
+            lock.unlock();
+        }
 
-        toll = Math.min(highestToll, 60);
+        return toll;
+    }
 
-        saveTollPass(vehicle, toll);
+    /**
+     * {@inheritDoc}
+     *
+     * @throws UnknownCityException if there are no rules for the city
+     * @throws FutureDayException   if the day is too far ahead of today
+     */
+    @Override
+    public void validate(VehicleDTO vehicle) {
+        cityRuleSets.ruleSetFor(vehicle.getCity());
+        dailyTollStateRepository.checkDay(vehicle.getTollPassDateTime().toLocalDate());
+    }
 
-        return toll;
+    /**
+     * {@inheritDoc}
+     *
+     * @throws UnknownCityException if there are no rules for the city
+     */
+    @Override
+    public long findDailyTotal(String plateNumber, String city, LocalDate date) {
+        CityRuleSet rules = cityRuleSets.ruleSetFor(city);
+        int plateId = tollPassRepository.plateIdOf(plateNumber);
+        Lock lock = plateLocks.lockFor(plateId);
+        lock.lock();
+        try {
+            DailyTollState state = dailyTollStateRepository.find(rules.getCity(), plateId, date);
+            return state == null ? 0 : state.getDailyTotal();
+        } finally {
+            lock.unlock();
+        }
     }
 
     /**
-     * Checks if two toll passes are within 60 minutes of each other.
+     * Applies a toll pass restored from the journal to the daily toll state of its vehicle in its city, so that the
+     * single charge rule and the daily cap continue where they left off. The toll is taken from the current rules
+     * of the city; a pass of a city that has no rules anymore is left out of the daily toll states. Restored toll
+     * passes that are deleted later in the journal still count toward the restored state.
      *
-     * @param passTime  the time of an existing toll pass
-     * @param entryTime the time of the current toll pass
-     * @return true if the toll passes are within 60 minutes of each other, false otherwise
+     * @param tollPass the restored toll pass
      */
-    private boolean isWithinOneHour(LocalDateTime passTime, LocalDateTime entryTime) {
-        Duration duration = Duration.between(passTime, entryTime);
-        return duration.abs().toMinutes() <= 60;
+    @Override
+    public void restore(TollPass tollPass) {
+        CityRuleSet rules;
+        try {
+            rules = cityRuleSets.ruleSetFor(tollPass.getCity());
+        } catch (UnknownCityException e) {
+            // the pass stays stored, but no later pass can be charged in its city
+            return;
+        }
+        LocalDateTime dateTime = tollPass.getPassDateTime();
+        int plateId = tollPassRepository.plateIdOf(tollPass.getPlateNumber());
+        Lock lock = plateLocks.lockFor(plateId);
+        lock.lock();
+        try {
+            dailyTollStateRepository.findOrCreate(rules.getCity(), plateId, dateTime.toLocalDate())
+                    .charge(tollPass.getId(), dateTime, rules.tollAt(dateTime.toLocalTime()),
+                            rules.getSingleChargeWindow(), rules.getDailyCap(), null);
+        } finally {
+            lock.unlock();
+        }
     }
 
     /**
-     * Calculates the toll based on the vehicle's time of entry.
+     * Charges the stored toll passes of a vehicle in one city and day again by the current rules of that city, which
+     * can have changed since the passes were charged. The passes are applied to a cleared daily toll state, which
+     * charges them in time order exactly as {@link #calculate(VehicleDTO)} did, and their stored amounts and the
+     * totals of the vehicle are replaced by the new charges, which are also appended to the journal. On a day that
+     * is exempted now, the daily toll state is left cleared and every pass is charged 0. All of it happens while
+     * holding the lock of the plate, so a concurrent calculation for the vehicle sees either the previous or the
+     * recalculated day.
      *
-     * @param dateTime the date and time when the vehicle enters the toll area
-     * @return the calculated toll fee
+     * @param plateId the plate identifier of the vehicle
+     * @param city    the name of the city, or null for the default city
+     * @param date    the day
+     * @return the difference between the new and the previous charges of the day, in öre
+     * @throws UnknownCityException if there are no rules for the city
      */
-    private double calculateToll(LocalDateTime dateTime) {
-        LocalTime gateTime = dateTime.toLocalTime();
-        return taxRateRepository.findAll().stream()
-                .filter(taxRate -> gateTime.isAfter(taxRate.getStartTime()) && gateTime.isBefore(taxRate.getEndTime()))
-                .mapToDouble(TaxRate::getAmount)
-                .findFirst()
-                .orElse(0);
+    @Override
+    public long recalculate(int plateId, String city, LocalDate date) {
+        CityRuleSet rules = cityRuleSets.ruleSetFor(city);
+        boolean exempted = rules.isDateExempted(date);
+        Lock lock = plateLocks.lockFor(plateId);
+        lock.lock();
+        try {
+            DailyTollState state = dailyTollStateRepository.findOrCreate(rules.getCity(), plateId, date);
+            if (exempted) {
+                state.reset();
+                return tollPassRepository.correctAmounts(plateId, rules.getCity(), date, (id, passTime, amount) -> 0);
+            }
+            rebuild(state, rules, plateId, date);
+            return tollPassRepository.correctAmounts(plateId, rules.getCity(), date, (id, passTime, amount) ->
+                    state.chargeOf(id));
+        } finally {
+            lock.unlock();
+        }
     }
 
     /**
-     * Saves the toll pass record for the vehicle for a specific date and toll fee.
+     * Clears the daily toll state of a vehicle and charges the stored toll passes of the city and day again by the
+     * given rules, in time order.
      *
-     * @param vehicle the vehicle for which the toll pass is recorded
-     * @param toll    the toll fee charged for the pass
+     * @param state   the daily toll state
+     * @param rules   the rules of the city
+     * @param plateId the plate identifier of the vehicle
+     * @param date    the day
      */
-    private void saveTollPass(VehicleDTO vehicle, double toll) {
+    private void rebuild(DailyTollState state, CityRuleSet rules, int plateId, LocalDate date) {
+        state.reset();
+        for (TollPass tollPass : tollPassRepository.findAllByPlateIdAndDate(plateId, date)) {
+            if (!rules.getCity().equals(tollPass.getCity())) continue;
+            LocalDateTime passTime = tollPass.getPassDateTime();
+            state.charge(tollPass.getId(), passTime, rules.tollAt(passTime.toLocalTime()),
+                    rules.getSingleChargeWindow(), rules.getDailyCap(), null);
+        }
+    }
+
+    /**
+     * Saves the toll pass record for the vehicle for a specific date and toll fee, together with the changed
+     * charges of the earlier passes of the vehicle and day.
+     *
+     * @param vehicle     the vehicle for which the toll pass is recorded
+     * @param id          the identifier reserved for the toll pass
+     * @param plateId     the plate identifier of the vehicle
+     * @param city        the normalized name of the city whose rules charged the pass
+     * @param toll        the toll fee charged for the pass
+     * @param adjustments the changed charges of the earlier passes
+     */
+    private void saveTollPass(VehicleDTO vehicle, long id, int plateId, String city, long toll,
+                              List<TollAdjustment> adjustments) {
         TollPass tollPass = new TollPass(vehicle.getPlateNumber(), vehicle.getTollPassDateTime(), toll);
-        tollPassRepository.save(tollPass);
+        tollPass.setId(id);
+        tollPass.setCity(city);
+        tollPassRepository.save(tollPass, plateId, adjustments.stream()
+                .map(adjustment -> new TollPassCorrection(adjustment.tollPassId(), vehicle.getPlateNumber(),
+                        adjustment.passTime(), adjustment.amount()))
+                .toList());
+    }
+
+    /**
+     * Records the changed charges of the earlier passes of the vehicle and day on the vehicle, so that billing
+     * learns about them together with the late pass.
+     *
+     * @param vehicle     the late toll pass
+     * @param adjustments the changed charges
+     */
+    private void recordAdjustments(VehicleDTO vehicle, List<TollAdjustment> adjustments) {
+        vehicle.setAdjustments(adjustments.stream()
+                .map(adjustment -> new TollAdjustmentDTO(adjustment.tollPassId(), adjustment.passTime(),
+                        adjustment.previousAmount(), adjustment.amount()))
+                .toList());
     }
 
     /**
      * Checks if the vehicle is exempted from paying toll based on its type.
      *
+     * @param rules   the rules of the city of the toll pass
      * @param vehicle the vehicle to check
      * @return true if the vehicle is exempted, false otherwise
      */
-    private boolean isVehicleExempted(VehicleDTO vehicle) {
-        return exemptedVehicleRepository.findAll().stream()
-                .map(TaxExemptedVehicle::getVehicle)
-                .anyMatch(vehicle.getType()::equals);
+    private boolean isVehicleExempted(CityRuleSet rules, VehicleDTO vehicle) {
+        long start = metrics.start(Stage.VEHICLE_EXEMPTION);
+        boolean exempted = rules.isVehicleExempted(vehicle.getType());
+        metrics.stop(Stage.VEHICLE_EXEMPTION, start);
+        return exempted;
     }
 
     /**
      * Checks if the given date and time are exempted from toll charges (e.g., holidays, weekends).
      *
+     * @param rules    the rules of the city of the toll pass
      * @param dateTime the date and time to check
      * @return true if the date is exempted, false otherwise
      */
-    private boolean isDateExempted(LocalDateTime dateTime) {
-        List<ExemptedDate> exemptedDates = exemptedDateRepository.findAll();
-        return exemptedDates.stream().anyMatch(exemptedDate -> isDateExemptedForType(exemptedDate, dateTime));
-    }
-
-    /**
-     * Determines if a specific date is exempted based on the type of exemption (month, day of the week, or holiday).
-     *
-     * @param exemptedDate the exempted date record to check
-     * @param dateTime     the date and time to check against
-     * @return true if the date matches the exempted date for the given type, false otherwise
-     */
-    private boolean isDateExemptedForType(ExemptedDate exemptedDate, LocalDateTime dateTime) {
-        ExemptedDate.Type dateType = exemptedDate.getType();
-        return switch (dateType) {
-            case MONTH -> exemptedDate.getMonth().equals(dateTime.getMonth());
-            case DAY_OF_WEEK -> exemptedDate.getDayOfWeek().equals(dateTime.getDayOfWeek());
-            case HOLIDAY_DATE -> exemptedDate.getHolidayDate().equals(dateTime.toLocalDate());
-        };
+    private boolean isDateExempted(CityRuleSet rules, LocalDateTime dateTime) {
+        long start = metrics.start(Stage.DATE_EXEMPTION);
+        boolean exempted = rules.isDateExempted(dateTime.toLocalDate());
+        metrics.stop(Stage.DATE_EXEMPTION, start);
+        return exempted;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,32 @@
+package com.peter.solution.service;
+
+import com.peter.solution.repository.tollpass.TollPass;
+
+import java.time.LocalDate;
+
+/**
+ * Interface that defines the contract for maintaining the charges of stored toll passes outside of live
+ * calculations: restoring them from the journal and recalculating them after the rules changed.
+ */
+public interface TollChargeHistory {
+
+    /**
+     * Applies a toll pass restored from the journal to the daily toll state of its vehicle in its city, so that the
+     * single charge rule and the daily cap continue where they left off.
+     *
+     * @param tollPass the restored toll pass
+     */
+    void restore(TollPass tollPass);
+
+    /**
+     * Charges the stored toll passes of a vehicle in one city and day again by the current rules of that city, and
+     * replaces their stored amounts and the totals of the vehicle with the new charges. Passes of other cities are
+     * left as they are.
+     *
+     * @param plateId the plate identifier of the vehicle
+     * @param city    the name of the city, or null for the default city
+     * @param date    the day
+     * @return the difference between the new and the previous charges of the day, in öre
+     */
+    long recalculate(int plateId, String city, LocalDate date);
+}
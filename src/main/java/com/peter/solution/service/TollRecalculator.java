@@ -0,0 +1,33 @@
+package com.peter.solution.service;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Service interface for charging stored toll passes again after the rules they were charged by have changed.
+ */
+public interface TollRecalculator {
+
+    /**
+     * Starts recalculating the stored toll passes within the given scope in the background.
+     *
+     * @param scope the toll passes affected by a change
+     * @return the job, to follow its progress
+     */
+    RecalculationJob submit(RecalculationScope scope);
+
+    /**
+     * Returns a recent job by its identifier.
+     *
+     * @param id the identifier of the job
+     * @return the job, or an empty optional if there is no such recent job
+     */
+    Optional<RecalculationJob> findJob(long id);
+
+    /**
+     * Returns the recent jobs.
+     *
+     * @return the recent jobs, the newest first
+     */
+    List<RecalculationJob> findAllJobs();
+}
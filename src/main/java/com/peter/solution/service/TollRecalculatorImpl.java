@@ -0,0 +1,172 @@
+package com.peter.solution.service;
+
+import com.peter.solution.repository.city.CityRuleSets;
+import com.peter.solution.repository.tollpass.TollPassRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Service implementation that recalculates the stored toll passes affected by a change of the rules of the default
+ * city, in parallel on a fork-join pool.
+ * <p>
+ * A job scans every retained day within its scope for the vehicles with a pass in the affected time of day, one
+ * task per day, and splits the vehicles found into tasks of at most {@value #PLATES_PER_TASK} vehicles, which the
+ * pool spreads over {@code congestion.recalculation.parallelism} threads (default: one per processor). Every
+ * vehicle day is recalculated by {@link TollChargeHistory#recalculate}, which replaces its charges, its daily
+ * toll state and its totals together under the lock of the plate, so live calculations continue while a job runs.
+ * </p>
+ * <p>
+ * Only passes charged by the default city are recalculated, since the scopes describe changes of its rules; the
+ * passes of other cities on the same days keep their charges.
+ * Passes on a day that was exempted when they arrived were never stored, so removing an exemption does not charge
+ * them afterward. The last {@value #RETAINED_JOBS} jobs are kept for their progress reports.
+ * </p>
+ */
+@Slf4j
+@Service
+public class TollRecalculatorImpl implements TollRecalculator, DisposableBean {
+
+    private static final int PLATES_PER_TASK = 256;
+    private static final int RETAINED_JOBS = 100;
+
+    private final TollChargeHistory tollChargeHistory;
+    private final TollPassRepository tollPassRepository;
+    private final ForkJoinPool pool;
+    private final NavigableMap<Long, RecalculationJob> jobs = new ConcurrentSkipListMap<>();
+    private final AtomicLong idGenerator = new AtomicLong(1);
+
+    public TollRecalculatorImpl(TollChargeHistory tollChargeHistory,
+                                TollPassRepository tollPassRepository,
+                                @Value("${congestion.recalculation.parallelism:0}") int parallelism) {
+        this.tollChargeHistory = tollChargeHistory;
+        this.tollPassRepository = tollPassRepository;
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public RecalculationJob submit(RecalculationScope scope) {
+        RecalculationJob job = new RecalculationJob(idGenerator.getAndIncrement(), scope.description());
+        jobs.put(job.getId(), job);
+        while (jobs.size() > RETAINED_JOBS) {
+            jobs.pollFirstEntry();
+        }
+        pool.execute(() -> run(job, scope));
+        return job;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Optional<RecalculationJob> findJob(long id) {
+        return Optional.ofNullable(jobs.get(id));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<RecalculationJob> findAllJobs() {
+        return List.copyOf(jobs.descendingMap().values());
+    }
+
+    /**
+     * Stops the recalculation threads, abandoning running jobs.
+     */
+    @Override
+    public void destroy() {
+        pool.shutdownNow();
+    }
+
+    private void run(RecalculationJob job, RecalculationScope scope) {
+        long start = System.nanoTime();
+        try {
+            List<DayTask> days = new ArrayList<>();
+            for (LocalDate date : tollPassRepository.findDays()) {
+                if (scope.days().test(date)) days.add(new DayTask(job, scope, date));
+            }
+            ForkJoinTask.invokeAll(days);
+            job.complete();
+            log.info("Recalculated {} vehicle days for {} in {} ms, adjusted by {} öre", job.getRecalculatedPlateDays(),
+                    job.getDescription(), (System.nanoTime() - start) / 1_000_000, job.getAdjustment());
+        } catch (RuntimeException e) {
+            job.fail(e);
+            log.error("Recalculation for {} failed", job.getDescription(), e);
+        }
+    }
+
+    /**
+     * Finds the affected vehicles of one day and recalculates them.
+     */
+    private final class DayTask extends RecursiveAction {
+
+        private final RecalculationJob job;
+        private final RecalculationScope scope;
+        private final LocalDate date;
+
+        private DayTask(RecalculationJob job, RecalculationScope scope, LocalDate date) {
+            this.job = job;
+            this.scope = scope;
+            this.date = date;
+        }
+
+        @Override
+        protected void compute() {
+            int[] plateIds = tollPassRepository.findPlateIds(date, CityRuleSets.DEFAULT_CITY, scope.from(),
+                    scope.to());
+            job.found(plateIds.length);
+            new PlatesTask(job, date, plateIds, 0, plateIds.length).compute();
+        }
+    }
+
+    /**
+     * Recalculates a range of the affected vehicles of one day, splitting it while it is large.
+     */
+    private final class PlatesTask extends RecursiveAction {
+
+        private final RecalculationJob job;
+        private final LocalDate date;
+        private final int[] plateIds;
+        private final int from;
+        private final int to;
+
+        private PlatesTask(RecalculationJob job, LocalDate date, int[] plateIds, int from, int to) {
+            this.job = job;
+            this.date = date;
+            this.plateIds = plateIds;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > PLATES_PER_TASK) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new PlatesTask(job, date, plateIds, from, middle),
+                        new PlatesTask(job, date, plateIds, middle, to));
+                return;
+            }
+            long delta = 0;
+            for (int i = from; i < to; i++) {
+                delta += tollChargeHistory.recalculate(plateIds[i], CityRuleSets.DEFAULT_CITY, date);
+            }
+            job.recalculated(to - from, delta);
+        }
+    }
+}
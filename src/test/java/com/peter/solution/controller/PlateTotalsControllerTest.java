@@ -0,0 +1,76 @@
+package com.peter.solution.controller;
+
+import com.peter.solution.config.ClockConfiguration;
+import com.peter.solution.repository.tollpass.TollPass;
+import com.peter.solution.repository.tollpass.TollPassRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(PlateTotalsController.class)
+@Import({TollPassRepository.class, ClockConfiguration.class})
+class PlateTotalsControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TollPassRepository tollPassRepository;
+
+    @Test
+    void getPlateTotals_ShouldReturnMonthAndDailyTotals() throws Exception {
+        // Arrange
+        tollPassRepository.save(new TollPass("ABC123", LocalDateTime.of(2013, 2, 7, 6, 20), 800));
+        tollPassRepository.save(new TollPass("ABC123", LocalDateTime.of(2013, 2, 8, 6, 20), 800));
+        tollPassRepository.save(new TollPass("ABC123", LocalDateTime.of(2013, 2, 8, 15, 29), 1300));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/toll/plates/ABC123/totals").param("month", "2013-02"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.plateNumber").value("ABC123"))
+                .andExpect(jsonPath("$.month").value("2013-02"))
+                .andExpect(jsonPath("$.totalAmount").value(29.0))
+                .andExpect(jsonPath("$.dailyTotals.length()").value(2))
+                .andExpect(jsonPath("$.dailyTotals[0].date").value("2013-02-07"))
+                .andExpect(jsonPath("$.dailyTotals[0].totalAmount").value(8.0))
+                .andExpect(jsonPath("$.dailyTotals[1].date").value("2013-02-08"))
+                .andExpect(jsonPath("$.dailyTotals[1].totalAmount").value(21.0));
+    }
+
+    @Test
+    void getPlateTotals_ShouldReturnZero_WhenVehicleWasNotCharged() throws Exception {
+        mockMvc.perform(get("/api/toll/plates/UNKNOWN/totals").param("month", "2013-02"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalAmount").value(0.0))
+                .andExpect(jsonPath("$.dailyTotals").isEmpty());
+    }
+
+    @Test
+    void getPlateTotals_ShouldRejectInvalidMonth() throws Exception {
+        mockMvc.perform(get("/api/toll/plates/ABC123/totals").param("month", "February"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getAllTotals_ShouldReturnEveryChargedVehicleOrderedByPlateNumber() throws Exception {
+        // Arrange
+        tollPassRepository.save(new TollPass("XYZ999", LocalDateTime.of(2013, 3, 1, 6, 20), 800));
+        tollPassRepository.save(new TollPass("ABC123", LocalDateTime.of(2013, 3, 1, 6, 20), 1300));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/toll/totals").param("month", "2013-03"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].plateNumber").value("ABC123"))
+                .andExpect(jsonPath("$[0].totalAmount").value(13.0))
+                .andExpect(jsonPath("$[1].plateNumber").value("XYZ999"))
+                .andExpect(jsonPath("$[1].totalAmount").value(8.0));
+    }
+}
@@ -0,0 +1,93 @@
+package com.peter.solution.controller;
+
+import com.peter.solution.dto.BatchResultDTO;
+import com.peter.solution.dto.DailyTotalDTO;
+import com.peter.solution.dto.VehicleDTO;
+import com.peter.solution.service.BatchTollCalculator;
+import com.peter.solution.service.ReactiveTollCalculatorImpl;
+import com.peter.solution.service.TaxRateCalculator;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.when;
+
+@WebFluxTest(ReactiveTollCalculationController.class)
+@Import(ReactiveTollCalculatorImpl.class)
+class ReactiveTollCalculationControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @MockBean
+    private TaxRateCalculator taxRateCalculator;
+
+    @MockBean
+    private BatchTollCalculator batchTollCalculator;
+
+    @Test
+    void testTaxRateCalculator() {
+        String vehicleJson = "{\"plateNumber\":\"ABC123\",\"type\":\"Car\",\"tollPassDateTime\":\"2024-11-13T10:00:00\"}";
+        when(taxRateCalculator.calculate(new VehicleDTO("Car", "ABC123", LocalDateTime.of(2024, 11, 13, 10, 0)))).thenReturn(2000L);
+
+        webTestClient.post().uri("/api/toll/calculate")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(vehicleJson)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.taxAmount").isEqualTo(20.0);
+    }
+
+    @Test
+    void testBatchTaxRateCalculator() {
+        String vehiclesJson = "[{\"plateNumber\":\"ABC123\",\"type\":\"Car\",\"tollPassDateTime\":\"2013-02-08T06:20:27\"}," +
+                "{\"plateNumber\":\"ABC123\",\"type\":\"Car\",\"tollPassDateTime\":\"2013-02-08T15:29:00\"}]";
+        VehicleDTO morning = new VehicleDTO("Car", "ABC123", LocalDateTime.of(2013, 2, 8, 6, 20, 27));
+        morning.setTaxAmount(800);
+        VehicleDTO afternoon = new VehicleDTO("Car", "ABC123", LocalDateTime.of(2013, 2, 8, 15, 29));
+        afternoon.setTaxAmount(1300);
+        DailyTotalDTO dailyTotal = new DailyTotalDTO("ABC123", LocalDate.of(2013, 2, 8), 2100);
+        when(batchTollCalculator.calculate(anyList()))
+                .thenReturn(new BatchResultDTO(List.of(morning, afternoon), List.of(dailyTotal)));
+
+        webTestClient.post().uri("/api/toll/calculate/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(vehiclesJson)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.passes[0].taxAmount").isEqualTo(8.0)
+                .jsonPath("$.passes[1].taxAmount").isEqualTo(13.0)
+                .jsonPath("$.dailyTotals[0].totalAmount").isEqualTo(21.0);
+    }
+
+    @Test
+    void testTaxRateCalculatorStream() {
+        String vehiclesNdjson = """
+                {"plateNumber":"ABC123","type":"Car","tollPassDateTime":"2013-02-08T06:20:27"}
+                {"plateNumber":"ABC123","type":"Car","tollPassDateTime":"2013-02-08T07:10:00"}
+                """;
+        when(taxRateCalculator.calculate(new VehicleDTO("Car", "ABC123", LocalDateTime.of(2013, 2, 8, 6, 20, 27)))).thenReturn(800L);
+        when(taxRateCalculator.calculate(new VehicleDTO("Car", "ABC123", LocalDateTime.of(2013, 2, 8, 7, 10)))).thenReturn(1800L);
+
+        webTestClient.post().uri("/api/toll/calculate/stream")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .bodyValue(vehiclesNdjson)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.APPLICATION_NDJSON)
+                .expectBody(String.class).isEqualTo(
+                        "{\"type\":\"Car\",\"plateNumber\":\"ABC123\",\"tollPassDateTime\":\"2013-02-08T06:20:27\",\"taxAmount\":8.00}\n" +
+                        "{\"type\":\"Car\",\"plateNumber\":\"ABC123\",\"tollPassDateTime\":\"2013-02-08T07:10:00\",\"taxAmount\":18.00}\n");
+    }
+}
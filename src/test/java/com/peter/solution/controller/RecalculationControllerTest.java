@@ -0,0 +1,77 @@
+package com.peter.solution.controller;
+
+import com.peter.solution.service.RecalculationJob;
+import com.peter.solution.service.RecalculationScope;
+import com.peter.solution.service.TollRecalculator;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(RecalculationController.class)
+class RecalculationControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private TollRecalculator tollRecalculator;
+
+    @Test
+    void getRecalculation_ShouldReturnProgressOfJob() throws Exception {
+        RecalculationJob job = mock(RecalculationJob.class);
+        when(job.getId()).thenReturn(7L);
+        when(job.getDescription()).thenReturn("holiday 2013-02-08");
+        when(job.getStatus()).thenReturn(RecalculationJob.Status.RUNNING);
+        when(job.getPlateDays()).thenReturn(2_000_000L);
+        when(job.getRecalculatedPlateDays()).thenReturn(500_000L);
+        when(job.getAdjustment()).thenReturn(-105_000L);
+        when(tollRecalculator.findJob(7L)).thenReturn(Optional.of(job));
+
+        mockMvc.perform(get("/api/recalculations/7"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(7))
+                .andExpect(jsonPath("$.description").value("holiday 2013-02-08"))
+                .andExpect(jsonPath("$.status").value("RUNNING"))
+                .andExpect(jsonPath("$.plateDays").value(2_000_000))
+                .andExpect(jsonPath("$.recalculatedPlateDays").value(500_000))
+                .andExpect(jsonPath("$.adjustment").value(-1050.0));
+    }
+
+    @Test
+    void getRecalculation_ShouldReturnNotFound_WhenJobIsUnknown() throws Exception {
+        when(tollRecalculator.findJob(anyLong())).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/api/recalculations/42"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void startRecalculation_ShouldSubmitScopeOfDays() throws Exception {
+        RecalculationJob job = mock(RecalculationJob.class);
+        when(job.getId()).thenReturn(1L);
+        when(job.getStatus()).thenReturn(RecalculationJob.Status.RUNNING);
+        when(tollRecalculator.submit(any(RecalculationScope.class))).thenReturn(job);
+
+        mockMvc.perform(post("/api/recalculations").param("from", "2013-02-01").param("to", "2013-02-28"))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.id").value(1));
+
+        ArgumentCaptor<RecalculationScope> scope = ArgumentCaptor.forClass(RecalculationScope.class);
+        verify(tollRecalculator).submit(scope.capture());
+        assertTrue(scope.getValue().days().test(LocalDate.of(2013, 2, 28)));
+        assertFalse(scope.getValue().days().test(LocalDate.of(2013, 3, 1)));
+    }
+}
@@ -3,6 +3,8 @@ package com.peter.solution.controller;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.peter.solution.repository.dates.ExemptedDate;
 import com.peter.solution.repository.dates.ExemptedDateRepository;
+import com.peter.solution.service.RecalculationScope;
+import com.peter.solution.service.TollRecalculator;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -25,6 +27,9 @@ class TaxExemptedDatesControllerTest {
     @Autowired
     private MockMvc mockMvc;
 
+    @MockBean
+    private TollRecalculator tollRecalculator;
+
     @MockBean
     private ExemptedDateRepository exemptedDateRepository;
 
@@ -68,16 +73,20 @@ class TaxExemptedDatesControllerTest {
                 .andExpect(jsonPath("$.type").value("HOLIDAY_DATE"));
 
         verify(exemptedDateRepository).save(Mockito.any(ExemptedDate.class));
+        verify(tollRecalculator).submit(Mockito.any(RecalculationScope.class));
     }
 
     @Test
     void deleteExemptedDate_ShouldDeleteExemptedDate_WhenIdExists() throws Exception {
+        when(exemptedDateRepository.findAll())
+                .thenReturn(List.of(ExemptedDate.ofHolidayDate(1L, LocalDate.of(2023, 5, 15))));
         doNothing().when(exemptedDateRepository).deleteById(anyLong());
 
         mockMvc.perform(delete("/api/tax-exempted-dates/1"))
                 .andExpect(status().isNoContent());
 
         verify(exemptedDateRepository, times(1)).deleteById(anyLong());
+        verify(tollRecalculator).submit(Mockito.any(RecalculationScope.class));
     }
 
 }
\ No newline at end of file
@@ -3,6 +3,8 @@ package com.peter.solution.controller;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.peter.solution.repository.taxrate.TaxRate;
 import com.peter.solution.repository.taxrate.TaxRateRepository;
+import com.peter.solution.service.RecalculationScope;
+import com.peter.solution.service.TollRecalculator;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -24,6 +26,9 @@ class TaxRateControllerTest {
     @Autowired
     private MockMvc mockMvc;
 
+    @MockBean
+    private TollRecalculator tollRecalculator;
+
     @MockBean
     private TaxRateRepository taxRateRepository;
 
@@ -42,8 +47,8 @@ class TaxRateControllerTest {
 
     @Test
     void getAllTaxRates_ShouldReturnListOfTaxRates() throws Exception {
-        TaxRate rate1 = new TaxRate(1L, LocalTime.of(8, 0), LocalTime.of(10, 0), 10.0);
-        TaxRate rate2 = new TaxRate(2L, LocalTime.of(10, 0), LocalTime.of(12, 0), 15.0);
+        TaxRate rate1 = new TaxRate(1L, LocalTime.of(8, 0), LocalTime.of(10, 0), 1000);
+        TaxRate rate2 = new TaxRate(2L, LocalTime.of(10, 0), LocalTime.of(12, 0), 1550);
         when(taxRateRepository.findAll()).thenReturn(List.of(rate1, rate2));
 
         mockMvc.perform(get("/api/tax-rates")
@@ -57,13 +62,13 @@ class TaxRateControllerTest {
                 .andExpect(jsonPath("$[1].id").value(2))
                 .andExpect(jsonPath("$[1].startTime").value("10:00:00"))
                 .andExpect(jsonPath("$[1].endTime").value("12:00:00"))
-                .andExpect(jsonPath("$[1].amount").value(15.0));
+                .andExpect(jsonPath("$[1].amount").value(15.5));
     }
 
     @Test
     void createTaxRate_ShouldReturnCreatedStatusAndSavedTaxRate() throws Exception {
-        TaxRate newRate = new TaxRate(1L, LocalTime.of(14, 0), LocalTime.of(16, 0), 20.0);
-        TaxRate savedRate = new TaxRate(3L, LocalTime.of(14, 0), LocalTime.of(16, 0), 20.0);
+        TaxRate newRate = new TaxRate(1L, LocalTime.of(14, 0), LocalTime.of(16, 0), 2000);
+        TaxRate savedRate = new TaxRate(3L, LocalTime.of(14, 0), LocalTime.of(16, 0), 2000);
         when(taxRateRepository.save(Mockito.any(TaxRate.class))).thenReturn(savedRate);
 
         mockMvc.perform(post("/api/tax-rates")
@@ -76,16 +81,20 @@ class TaxRateControllerTest {
                 .andExpect(jsonPath("$.amount").value(20.0));
 
         verify(taxRateRepository).save(Mockito.any(TaxRate.class));
+        verify(tollRecalculator).submit(Mockito.any(RecalculationScope.class));
     }
 
     @Test
     void deleteTaxRate_ShouldDeleteTaxRate_WhenIdExists() throws Exception {
+        when(taxRateRepository.findAll())
+                .thenReturn(List.of(new TaxRate(1L, LocalTime.of(6, 0), LocalTime.of(6, 29), 800)));
         doNothing().when(taxRateRepository).deleteById(anyLong());
 
         mockMvc.perform(delete("/api/tax-rates/1"))
                 .andExpect(status().isNoContent());
 
         verify(taxRateRepository).deleteById(1L);
+        verify(tollRecalculator).submit(Mockito.any(RecalculationScope.class));
     }
 
 }
\ No newline at end of file
@@ -1,6 +1,9 @@
 package com.peter.solution.controller;
 
+import com.peter.solution.dto.BatchResultDTO;
+import com.peter.solution.dto.DailyTotalDTO;
 import com.peter.solution.dto.VehicleDTO;
+import com.peter.solution.service.BatchTollCalculator;
 import com.peter.solution.service.TaxRateCalculator;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -9,8 +12,11 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.List;
 
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
@@ -25,10 +31,13 @@ class TollCalculationControllerTest {
     @MockBean
     private TaxRateCalculator taxRateCalculator;
 
+    @MockBean
+    private BatchTollCalculator batchTollCalculator;
+
     @Test
     void testTaxRageCalculator() throws Exception {
         String vehicleJson = "{\"plateNumber\":\"ABC123\",\"type\":\"Car\",\"tollPassDateTime\":\"2024-11-13T10:00:00\"}";
-        when(taxRateCalculator.calculate(new VehicleDTO("Car", "ABC123", LocalDateTime.of(2024, 11, 13, 10, 0)))).thenReturn(20.0);
+        when(taxRateCalculator.calculate(new VehicleDTO("Car", "ABC123", LocalDateTime.of(2024, 11, 13, 10, 0)))).thenReturn(2000L);
 
         mockMvc.perform(post("/api/toll/calculate")
                         .contentType(MediaType.APPLICATION_JSON)
@@ -36,4 +45,26 @@ class TollCalculationControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.taxAmount").value(20.0));
     }
-}
\ No newline at end of file
+
+    @Test
+    void testBatchTaxRateCalculator() throws Exception {
+        String vehiclesJson = "[{\"plateNumber\":\"ABC123\",\"type\":\"Car\",\"tollPassDateTime\":\"2013-02-08T06:20:27\"}," +
+                "{\"plateNumber\":\"ABC123\",\"type\":\"Car\",\"tollPassDateTime\":\"2013-02-08T15:29:00\"}]";
+        VehicleDTO morning = new VehicleDTO("Car", "ABC123", LocalDateTime.of(2013, 2, 8, 6, 20, 27));
+        morning.setTaxAmount(800);
+        VehicleDTO afternoon = new VehicleDTO("Car", "ABC123", LocalDateTime.of(2013, 2, 8, 15, 29));
+        afternoon.setTaxAmount(1300);
+        DailyTotalDTO dailyTotal = new DailyTotalDTO("ABC123", LocalDate.of(2013, 2, 8), 2100);
+        when(batchTollCalculator.calculate(anyList()))
+                .thenReturn(new BatchResultDTO(List.of(morning, afternoon), List.of(dailyTotal)));
+
+        mockMvc.perform(post("/api/toll/calculate/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(vehiclesJson))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.passes.length()").value(2))
+                .andExpect(jsonPath("$.passes[1].taxAmount").value(13.0))
+                .andExpect(jsonPath("$.dailyTotals[0].date").value("2013-02-08"))
+                .andExpect(jsonPath("$.dailyTotals[0].totalAmount").value(21.0));
+    }
+}
@@ -0,0 +1,72 @@
+package com.peter.solution.controller;
+
+import com.peter.solution.dto.VehicleDTO;
+import com.peter.solution.repository.city.UnknownCityException;
+import com.peter.solution.service.TaxRateCalculator;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+
+import static org.hamcrest.Matchers.matchesPattern;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(TollStreamController.class)
+class TollStreamControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private TaxRateCalculator taxRateCalculator;
+
+    @Test
+    void testTaxRateCalculatorStream() throws Exception {
+        String vehiclesNdjson = """
+                {"plateNumber":"ABC123","type":"Car","tollPassDateTime":"2013-02-08T06:20:27"}
+                {"plateNumber":"XYZ999","type":"Car","tollPassDateTime":"2013-02-08T07:10:00"}
+                """;
+        when(taxRateCalculator.calculate(new VehicleDTO("Car", "ABC123", LocalDateTime.of(2013, 2, 8, 6, 20, 27)))).thenReturn(800L);
+        when(taxRateCalculator.calculate(new VehicleDTO("Car", "XYZ999", LocalDateTime.of(2013, 2, 8, 7, 10)))).thenReturn(1800L);
+
+        mockMvc.perform(post("/api/toll/calculate/stream")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(vehiclesNdjson))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(
+                        "{\"type\":\"Car\",\"plateNumber\":\"ABC123\",\"tollPassDateTime\":\"2013-02-08T06:20:27\",\"taxAmount\":8.00}\n" +
+                        "{\"type\":\"Car\",\"plateNumber\":\"XYZ999\",\"tollPassDateTime\":\"2013-02-08T07:10:00\",\"taxAmount\":18.00}"));
+    }
+
+    @Test
+    void testTaxRateCalculatorStreamWritesAnErrorLineForAFailedPass() throws Exception {
+        String vehiclesNdjson = """
+                {"plateNumber":"ABC123","type":"Car","tollPassDateTime":"2013-02-08T06:20:27","city":"nowhere"}
+                {"plateNumber":"ABC123","type":"Car","tollPassDateTime":"yesterday"}
+                {"plateNumber":"XYZ999","type":"Car","tollPassDateTime":"2013-02-08T07:10:00"}
+                {"plateNumber":
+                """;
+        VehicleDTO nowhere = new VehicleDTO("Car", "ABC123", LocalDateTime.of(2013, 2, 8, 6, 20, 27));
+        nowhere.setCity("nowhere");
+        when(taxRateCalculator.calculate(nowhere)).thenThrow(new UnknownCityException("nowhere"));
+        when(taxRateCalculator.calculate(new VehicleDTO("Car", "XYZ999", LocalDateTime.of(2013, 2, 8, 7, 10)))).thenReturn(1800L);
+
+        mockMvc.perform(post("/api/toll/calculate/stream")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(vehiclesNdjson))
+                .andExpect(status().isOk())
+                .andExpect(content().string(matchesPattern(
+                        "\\{\"pass\":1,\"error\":\"[^\"]*nowhere[^\"]*\"}\n" +
+                        "\\{\"pass\":2,\"error\":\"[^\\n]*\"}\n" +
+                        "\\{\"type\":\"Car\",\"plateNumber\":\"XYZ999\",\"tollPassDateTime\":\"2013-02-08T07:10:00\",\"taxAmount\":18.00}\n" +
+                        "\\{\"pass\":4,\"error\":\"[^\\n]*\"}")));
+    }
+}
@@ -0,0 +1,168 @@
+package com.peter.solution.gantry;
+
+import com.peter.solution.dto.VehicleDTO;
+import com.peter.solution.repository.city.CityRuleSets;
+import com.peter.solution.repository.dates.ExemptedDateRepository;
+import com.peter.solution.repository.taxrate.TaxRateRepository;
+import com.peter.solution.repository.tollpass.DailyTollStateRepository;
+import com.peter.solution.repository.tollpass.TollPassRepository;
+import com.peter.solution.repository.vehicle.TaxExemptedVehicleRepository;
+import com.peter.solution.service.CalculationMetrics;
+import com.peter.solution.service.TaxRateCalculatorImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.time.LocalDateTime;
+import java.time.Month;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class GantryServerTest {
+
+    private static final LocalDateTime MORNING = LocalDateTime.of(2013, Month.FEBRUARY, 8, 6, 20);
+
+    private TollPassRepository tollPassRepository;
+    private GantryServer gantryServer;
+
+    @BeforeEach
+    void setUp() {
+        tollPassRepository = new TollPassRepository();
+        TaxRateCalculatorImpl taxRateCalculator = new TaxRateCalculatorImpl(
+                new CityRuleSets(
+                        new ExemptedDateRepository(),
+                        new TaxRateRepository(),
+                        new TaxExemptedVehicleRepository()),
+                tollPassRepository,
+                new DailyTollStateRepository(),
+                new CalculationMetrics()
+        );
+        gantryServer = new GantryServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 2,
+                taxRateCalculator);
+        gantryServer.start();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        gantryServer.close();
+    }
+
+    @Test
+    void shouldAnswerPipelinedRequestsInOrder() throws IOException {
+        // Arrange
+        ByteBuffer requests = ByteBuffer.allocate(GantryProtocol.REQUEST_SIZE * 3);
+        GantryProtocol.writeRequest(requests, 1, new VehicleDTO("Car", "ABC123", MORNING));
+        GantryProtocol.writeRequest(requests, 2, new VehicleDTO("Car", "ABC123", MORNING.plusMinutes(30)));
+        GantryProtocol.writeRequest(requests, 3, new VehicleDTO("Motorcycle", "MC001", MORNING));
+        requests.flip();
+
+        try (SocketChannel gantry = connect()) {
+            // Act
+            writeFully(gantry, requests);
+            ByteBuffer responses = readFully(gantry, GantryProtocol.RESPONSE_SIZE * 3);
+
+            // Assert
+            assertEquals(1, responses.getLong());
+            assertEquals(800, responses.getLong());
+            assertEquals(2, responses.getLong());
+            assertEquals(500, responses.getLong());
+            assertEquals(3, responses.getLong());
+            assertEquals(0, responses.getLong());
+        }
+        assertEquals(2, tollPassRepository.count());
+    }
+
+    @Test
+    void shouldReassembleRequestsSplitAcrossReads() throws IOException {
+        // Arrange
+        ByteBuffer request = ByteBuffer.allocate(GantryProtocol.REQUEST_SIZE);
+        GantryProtocol.writeRequest(request, 42, new VehicleDTO("Car", "XYZ999", MORNING.withHour(7)));
+        request.flip();
+
+        try (SocketChannel gantry = connect()) {
+            // Act
+            writeFully(gantry, request.slice(0, 10));
+            sleep();
+            writeFully(gantry, request.slice(10, GantryProtocol.REQUEST_SIZE - 10));
+            ByteBuffer response = readFully(gantry, GantryProtocol.RESPONSE_SIZE);
+
+            // Assert
+            assertEquals(42, response.getLong());
+            assertEquals(1800, response.getLong());
+        }
+    }
+
+    @Test
+    void shouldRejectUnknownVehicleTypeCodes() throws IOException {
+        // Arrange
+        ByteBuffer request = ByteBuffer.allocate(GantryProtocol.REQUEST_SIZE);
+        GantryProtocol.writeRequest(request, 7, new VehicleDTO("Car", "ABC123", MORNING));
+        request.put(16, (byte) 99).flip();
+
+        try (SocketChannel gantry = connect()) {
+            // Act
+            writeFully(gantry, request);
+            ByteBuffer response = readFully(gantry, GantryProtocol.RESPONSE_SIZE);
+
+            // Assert
+            assertEquals(7, response.getLong());
+            assertEquals(GantryProtocol.INVALID_FRAME, response.getLong());
+        }
+        assertEquals(0, tollPassRepository.count());
+    }
+
+    @Test
+    void shouldRejectPassTimesOutOfRangeAndKeepServing() throws IOException {
+        // Arrange
+        ByteBuffer requests = ByteBuffer.allocate(GantryProtocol.REQUEST_SIZE * 2);
+        GantryProtocol.writeRequest(requests, 1, new VehicleDTO("Car", "ABC123", MORNING));
+        requests.putLong(8, Long.MAX_VALUE);
+        GantryProtocol.writeRequest(requests, 2, new VehicleDTO("Car", "ABC123", MORNING));
+        requests.flip();
+
+        try (SocketChannel gantry = connect()) {
+            // Act
+            writeFully(gantry, requests.slice(0, GantryProtocol.REQUEST_SIZE));
+            ByteBuffer rejected = readFully(gantry, GantryProtocol.RESPONSE_SIZE);
+            writeFully(gantry, requests.slice(GantryProtocol.REQUEST_SIZE, GantryProtocol.REQUEST_SIZE));
+            ByteBuffer served = readFully(gantry, GantryProtocol.RESPONSE_SIZE);
+
+            // Assert
+            assertEquals(1, rejected.getLong());
+            assertEquals(GantryProtocol.INVALID_FRAME, rejected.getLong());
+            assertEquals(2, served.getLong());
+            assertEquals(800, served.getLong());
+        }
+    }
+
+    private SocketChannel connect() throws IOException {
+        return SocketChannel.open(new InetSocketAddress(InetAddress.getLoopbackAddress(), gantryServer.getPort()));
+    }
+
+    private static void writeFully(SocketChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private static ByteBuffer readFully(SocketChannel channel, int size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) == -1) throw new IOException("Connection closed");
+        }
+        return buffer.flip();
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(50);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.peter.solution.json;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.peter.solution.dto.VehicleDTO;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OreAmountJsonTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    @Test
+    void serialize_ShouldWriteKronorWithTwoDecimals() throws Exception {
+        // Arrange
+        VehicleDTO vehicle = new VehicleDTO("Car", "ABC123", null);
+        vehicle.setTaxAmount(1350);
+
+        // Act
+        String json = objectMapper.writeValueAsString(vehicle);
+
+        // Assert
+        assertTrue(json.contains("\"taxAmount\":13.50"), json);
+    }
+
+    @Test
+    void serialize_ShouldWriteTheSameAsBigDecimal() throws Exception {
+        for (long ore : new long[]{0, 5, 50, 100, 123456789, -5, -1350, Long.MAX_VALUE, Long.MIN_VALUE}) {
+            // Arrange
+            VehicleDTO vehicle = new VehicleDTO("Car", "ABC123", null);
+            vehicle.setTaxAmount(ore);
+
+            // Act
+            String json = objectMapper.writeValueAsString(vehicle);
+
+            // Assert
+            String expected = "\"taxAmount\":" + BigDecimal.valueOf(ore, 2).toPlainString() + "}";
+            assertTrue(json.endsWith(expected), json);
+        }
+    }
+
+    @Test
+    void deserialize_ShouldReadKronorAsOre() throws Exception {
+        // Act
+        VehicleDTO whole = objectMapper.readValue("{\"taxAmount\":8}", VehicleDTO.class);
+        VehicleDTO fraction = objectMapper.readValue("{\"taxAmount\":13.5}", VehicleDTO.class);
+        VehicleDTO rounded = objectMapper.readValue("{\"taxAmount\":0.005}", VehicleDTO.class);
+
+        // Assert
+        assertEquals(800, whole.getTaxAmount());
+        assertEquals(1350, fraction.getTaxAmount());
+        assertEquals(1, rounded.getTaxAmount());
+    }
+
+    @Test
+    void deserialize_ShouldRejectNonNumericAmount() {
+        // Act & Assert
+        assertThrows(MismatchedInputException.class,
+                () -> objectMapper.readValue("{\"taxAmount\":\"eight\"}", VehicleDTO.class));
+    }
+}
@@ -0,0 +1,165 @@
+package com.peter.solution.json;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+import com.fasterxml.jackson.databind.exc.UnrecognizedPropertyException;
+import com.peter.solution.dto.TollAdjustmentDTO;
+import com.peter.solution.dto.VehicleDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class VehicleDTOJsonTest {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+
+    private final ObjectMapper beanBindingMapper = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .mixIn(VehicleDTO.class, BeanBinding.class)
+            .build();
+
+    @Test
+    void serialize_ShouldWriteTheSameAsTheBeanBinding() throws Exception {
+        // Arrange
+        List<VehicleDTO> vehicles = List.of(
+                vehicle("Car", "ABC123", null, LocalDateTime.of(2013, 2, 8, 7, 10), 1350),
+                vehicle("Car", "ABC123", "stockholm", LocalDateTime.of(2013, 2, 8, 7, 10, 5, 120_000_000), 0),
+                vehicle("Bus", "XYZ999", null, LocalDateTime.of(2013, 2, 8, 7, 10, 5, 1), 800),
+                vehicle(null, null, null, null, 0),
+                vehicle("Car", "ABC123", null, LocalDateTime.of(12013, 2, 8, 7, 10), 0));
+        vehicles.get(0).setAdjustments(List.of(
+                new TollAdjustmentDTO(7, LocalDateTime.of(2013, 2, 8, 7, 30), 1800, 450)));
+        vehicles.get(1).setAdjustments(List.of());
+
+        for (VehicleDTO vehicle : vehicles) {
+            // Act
+            String json = objectMapper.writeValueAsString(vehicle);
+
+            // Assert
+            assertEquals(beanBindingMapper.writeValueAsString(vehicle), json);
+        }
+    }
+
+    @Test
+    void serialize_ShouldFallBackToTimestampsWhenEnabled() throws Exception {
+        // Arrange
+        ObjectMapper timestampMapper = Jackson2ObjectMapperBuilder.json().build();
+        VehicleDTO vehicle = vehicle("Car", "ABC123", null, LocalDateTime.of(2013, 2, 8, 7, 10), 800);
+
+        // Act
+        String json = timestampMapper.writeValueAsString(vehicle);
+
+        // Assert
+        assertEquals("{\"type\":\"Car\",\"plateNumber\":\"ABC123\",\"tollPassDateTime\":[2013,2,8,7,10],"
+                + "\"taxAmount\":8.00}", json);
+    }
+
+    @Test
+    void deserialize_ShouldReadTheSameAsTheBeanBinding() throws Exception {
+        // Arrange
+        List<String> inputs = List.of(
+                "{\"plateNumber\":\"ABC123\",\"type\":\"Car\",\"tollPassDateTime\":\"2013-02-08T06:20:27\"}",
+                "{\"type\":\"Car\",\"plateNumber\":\"ABC123\",\"city\":\"stockholm\",\"tollPassDateTime\":\"2013-02-08T06:20\",\"taxAmount\":13.5}",
+                "{\"tollPassDateTime\":\"2013-02-08T06:20:27.5\"}",
+                "{\"tollPassDateTime\":\"2013-02-08T06:20:27.000000001\"}",
+                "{\"tollPassDateTime\":\"+12013-02-08T06:20:27\"}",
+                "{\"tollPassDateTime\":\"2013-02-08T06:20:27Z\"}",
+                "{\"tollPassDateTime\":[2013,2,8,6,20]}",
+                "{\"tollPassDateTime\":null,\"type\":null}",
+                "{\"type\":\"Car\",\"adjustments\":[{\"tollPassId\":7,\"tollPassDateTime\":\"2013-02-08T07:30:00\",\"previousAmount\":18.00,\"amount\":4.50}]}",
+                "{\"adjustments\":null}",
+                "{\"type\":5,\"plateNumber\":true}",
+                "{\"unknown\":{\"nested\":[1,2]},\"type\":\"Car\"}",
+                "{}");
+
+        for (String input : inputs) {
+            // Act
+            VehicleDTO vehicle = objectMapper.readValue(input, VehicleDTO.class);
+
+            // Assert
+            assertEquals(beanBindingMapper.readValue(input, VehicleDTO.class), vehicle, input);
+        }
+    }
+
+    @Test
+    void deserialize_ShouldReadNullAmountAsZero() throws Exception {
+        // Act
+        VehicleDTO vehicle = objectMapper.readValue("{\"taxAmount\":null}", VehicleDTO.class);
+
+        // Assert
+        assertEquals(0, vehicle.getTaxAmount());
+    }
+
+    @Test
+    void deserialize_ShouldRejectInvalidPassTimes() {
+        // Act & Assert
+        assertThrows(InvalidFormatException.class,
+                () -> objectMapper.readValue("{\"tollPassDateTime\":\"2013-13-08T06:20:27\"}", VehicleDTO.class));
+        assertThrows(InvalidFormatException.class,
+                () -> objectMapper.readValue("{\"tollPassDateTime\":\"2013-02-08 06:20:27\"}", VehicleDTO.class));
+    }
+
+    @Test
+    void deserialize_ShouldRejectPlateNumbersLongerThanStored() throws Exception {
+        // Act & Assert
+        assertEquals("ÅÄÖ" + "1".repeat(25),
+                objectMapper.readValue("{\"plateNumber\":\"ÅÄÖ" + "1".repeat(25) + "\"}", VehicleDTO.class)
+                        .getPlateNumber());
+        assertThrows(InvalidFormatException.class,
+                () -> objectMapper.readValue("{\"plateNumber\":\"ÅÄÖ" + "1".repeat(26) + "\"}", VehicleDTO.class));
+    }
+
+    @Test
+    void deserialize_ShouldRejectUnknownPropertiesWhenConfigured() throws Exception {
+        // Arrange
+        ObjectMapper strictMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToEnable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                .build();
+
+        // Act & Assert
+        assertThrows(UnrecognizedPropertyException.class,
+                () -> strictMapper.readValue("{\"unknown\":1}", VehicleDTO.class));
+        assertNull(strictMapper.readValue("null", VehicleDTO.class));
+    }
+
+    private static VehicleDTO vehicle(String type, String plateNumber, String city, LocalDateTime passTime,
+                                      long taxAmount) {
+        VehicleDTO vehicle = new VehicleDTO();
+        vehicle.setType(type);
+        vehicle.setPlateNumber(plateNumber);
+        vehicle.setCity(city);
+        vehicle.setTollPassDateTime(passTime);
+        vehicle.setTaxAmount(taxAmount);
+        return vehicle;
+    }
+
+    /**
+     * Restores Jackson's bean binding of {@link VehicleDTO}, as it was before the dedicated serializers.
+     */
+    @JsonSerialize(using = JsonSerializer.None.class)
+    @JsonDeserialize(using = JsonDeserializer.None.class)
+    private abstract static class BeanBinding {
+
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        private String city;
+
+        @JsonSerialize(using = OreAmountSerializer.class)
+        @JsonDeserialize(using = OreAmountDeserializer.class)
+        private long taxAmount;
+    }
+}
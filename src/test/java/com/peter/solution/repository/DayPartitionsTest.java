@@ -0,0 +1,74 @@
+package com.peter.solution.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class DayPartitionsTest {
+
+    private static final LocalDate DATE = LocalDate.of(2013, Month.FEBRUARY, 8);
+
+    @Test
+    void getOrCreate_ShouldReturnSamePartitionForSameDay() {
+        // Arrange
+        DayPartitions<List<String>> partitions = new DayPartitions<>(3, ArrayList::new);
+
+        // Act
+        List<String> first = partitions.getOrCreate(DATE);
+        List<String> second = partitions.getOrCreate(DATE);
+
+        // Assert
+        assertSame(first, second);
+        assertSame(first, partitions.get(DATE));
+    }
+
+    @Test
+    void getOrCreate_ShouldDropPartitionsOutsideRetentionWindow() {
+        // Arrange
+        DayPartitions<List<String>> partitions = new DayPartitions<>(3, ArrayList::new);
+        partitions.getOrCreate(DATE);
+        partitions.getOrCreate(DATE.plusDays(1));
+
+        // Act
+        partitions.getOrCreate(DATE.plusDays(3));
+
+        // Assert
+        assertNull(partitions.get(DATE));
+        assertNotNull(partitions.get(DATE.plusDays(1)));
+        assertEquals(List.of(DATE.plusDays(1), DATE.plusDays(3)), List.copyOf(partitions.byDay().keySet()));
+    }
+
+    @Test
+    void getOrCreate_ShouldRejectDaysTooFarAheadOfTheClockWithoutDroppingAny() {
+        // Arrange
+        Clock clock = Clock.fixed(DATE.plusDays(1).atStartOfDay().toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+        DayPartitions<List<String>> partitions = new DayPartitions<>(3, 1, clock, ArrayList::new);
+        partitions.getOrCreate(DATE);
+        partitions.getOrCreate(DATE.plusDays(1));
+
+        // Act
+        List<String> tomorrow = partitions.getOrCreate(DATE.plusDays(2));
+
+        // Assert
+        assertNotNull(tomorrow);
+        assertThrows(FutureDayException.class, () -> partitions.getOrCreate(LocalDate.of(2999, Month.JANUARY, 1)));
+        assertEquals(List.of(DATE, DATE.plusDays(1), DATE.plusDays(2)), List.copyOf(partitions.byDay().keySet()));
+    }
+
+    @Test
+    void constructor_ShouldRejectRetentionBelowOneDay() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> new DayPartitions<>(0, ArrayList::new));
+    }
+}
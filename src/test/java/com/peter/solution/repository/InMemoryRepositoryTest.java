@@ -0,0 +1,62 @@
+package com.peter.solution.repository;
+
+import com.peter.solution.repository.vehicle.TaxExemptedVehicle;
+import com.peter.solution.repository.vehicle.TaxExemptedVehicleRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryRepositoryTest {
+
+    private TaxExemptedVehicleRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = new TaxExemptedVehicleRepository();
+    }
+
+    @Test
+    void snapshot_ShouldBeReusedUntilRepositoryChanges() {
+        // Act
+        Snapshot<TaxExemptedVehicle> first = repository.snapshot();
+        Snapshot<TaxExemptedVehicle> second = repository.snapshot();
+
+        // Assert
+        assertSame(first, second);
+        assertSame(first.entities(), repository.findAll());
+        assertThrows(UnsupportedOperationException.class, () -> first.entities().clear());
+    }
+
+    @Test
+    void snapshot_ShouldBeRepublishedAfterSaveAndDelete() {
+        // Arrange
+        Snapshot<TaxExemptedVehicle> initial = repository.snapshot();
+
+        // Act
+        TaxExemptedVehicle saved = repository.save(TaxExemptedVehicle.ofVehicle("Bus"));
+        Snapshot<TaxExemptedVehicle> afterSave = repository.snapshot();
+        repository.deleteById(saved.getId());
+        Snapshot<TaxExemptedVehicle> afterDelete = repository.snapshot();
+
+        // Assert
+        assertTrue(afterSave.version() > initial.version());
+        assertEquals(initial.entities().size() + 1, afterSave.entities().size());
+        assertTrue(afterDelete.version() > afterSave.version());
+        assertEquals(initial.entities().size(), afterDelete.entities().size());
+    }
+
+    @Test
+    void forEach_ShouldVisitAllEntities() {
+        // Arrange
+        AtomicInteger count = new AtomicInteger();
+
+        // Act
+        repository.forEach(vehicle -> count.incrementAndGet());
+
+        // Assert
+        assertEquals(repository.findAll().size(), count.get());
+    }
+}
@@ -0,0 +1,47 @@
+package com.peter.solution.repository;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class IntIntMapTest {
+
+    @Test
+    void put_ShouldKeepAllEntriesWhileGrowing() {
+        // Arrange
+        IntIntMap map = new IntIntMap();
+
+        // Act
+        for (int key = 0; key < 100_000; key++) {
+            map.put(key * 7, key);
+        }
+
+        // Assert
+        assertEquals(100_000, map.size());
+        for (int key = 0; key < 100_000; key++) {
+            assertEquals(key, map.get(key * 7, -1));
+        }
+        assertEquals(-1, map.get(1, -1));
+    }
+
+    @Test
+    void put_ShouldReplaceTheValueOfAnExistingKey() {
+        // Arrange
+        IntIntMap map = new IntIntMap();
+        map.put(0, 1);
+
+        // Act
+        map.put(0, 2);
+
+        // Assert
+        assertEquals(2, map.get(0, -1));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    void put_ShouldRejectNegativeKeys() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> new IntIntMap().put(-1, 0));
+    }
+}
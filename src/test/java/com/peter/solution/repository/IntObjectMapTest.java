@@ -0,0 +1,90 @@
+package com.peter.solution.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IntObjectMapTest {
+
+    @Test
+    void computeIfAbsent_ShouldCreateEachValueOnce() {
+        // Arrange
+        IntObjectMap<String> map = new IntObjectMap<>();
+
+        // Act
+        String first = map.computeIfAbsent(42, key -> "value" + key);
+        String second = map.computeIfAbsent(42, key -> "other");
+
+        // Assert
+        assertEquals("value42", first);
+        assertSame(first, second);
+        assertSame(first, map.get(42));
+        assertNull(map.get(43));
+    }
+
+    @Test
+    void forEach_ShouldVisitEveryValueAfterGrowing() {
+        // Arrange
+        IntObjectMap<String> map = new IntObjectMap<>();
+        for (int key = 0; key < 100; key++) {
+            map.computeIfAbsent(key, k -> "value" + k);
+        }
+        List<String> visited = new ArrayList<>();
+
+        // Act
+        map.forEach(visited::add);
+
+        // Assert
+        assertEquals(100, visited.size());
+        for (int key = 0; key < 100; key++) {
+            assertTrue(visited.contains("value" + key));
+        }
+    }
+
+    @Test
+    void computeIfAbsent_ShouldCreateOneValuePerKeyUnderConcurrentCalls() throws Exception {
+        // Arrange
+        int threads = 8;
+        int keys = 20_000;
+        IntObjectMap<AtomicInteger> map = new IntObjectMap<>();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        // Act
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < threads; thread++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int key = 0; key < keys; key++) {
+                        map.computeIfAbsent(key, k -> new AtomicInteger()).incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        // Assert
+        assertEquals(keys, map.size());
+        for (int key = 0; key < keys; key++) {
+            assertEquals(threads, map.get(key).get());
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.peter.solution.repository.city;
+
+import com.peter.solution.repository.dates.ExemptedDate;
+import com.peter.solution.repository.dates.ExemptedDateRepository;
+import com.peter.solution.repository.taxrate.TaxRateRepository;
+import com.peter.solution.repository.vehicle.TaxExemptedVehicle;
+import com.peter.solution.repository.vehicle.TaxExemptedVehicleRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CityRuleSetsTest {
+
+    private ExemptedDateRepository exemptedDateRepository;
+    private TaxRateRepository taxRateRepository;
+    private TaxExemptedVehicleRepository exemptedVehicleRepository;
+    private CityRuleSets cityRuleSets;
+
+    @BeforeEach
+    void setUp() {
+        exemptedDateRepository = new ExemptedDateRepository();
+        taxRateRepository = new TaxRateRepository();
+        exemptedVehicleRepository = new TaxExemptedVehicleRepository();
+        cityRuleSets = new CityRuleSets(exemptedDateRepository, taxRateRepository, exemptedVehicleRepository);
+    }
+
+    @Test
+    void ruleSetFor_ShouldUseDefaultCityWithoutCity() {
+        // Act
+        CityRuleSet ruleSet = cityRuleSets.ruleSetFor(null);
+
+        // Assert
+        assertEquals(CityRuleSets.DEFAULT_CITY, ruleSet.getCity());
+        assertSame(ruleSet, cityRuleSets.ruleSetFor("Gothenburg"));
+        assertEquals(800, ruleSet.tollAt(LocalTime.of(6, 0)));
+    }
+
+    @Test
+    void ruleSetFor_ShouldFollowTheRepositoriesOfTheDefaultCity() {
+        // Arrange
+        CityRuleSet before = cityRuleSets.ruleSetFor(null);
+        TaxExemptedVehicle bus = exemptedVehicleRepository.save(TaxExemptedVehicle.ofVehicle("Bus"));
+        exemptedDateRepository.save(ExemptedDate.ofHolidayDate(null, LocalDate.of(2013, 2, 8)));
+        taxRateRepository.deleteById(1L);
+
+        // Act
+        CityRuleSet after = cityRuleSets.ruleSetFor(null);
+
+        // Assert
+        assertTrue(after.isVehicleExempted("bus"));
+        assertTrue(after.isDateExempted(LocalDate.of(2013, 2, 8)));
+        assertEquals(0, after.tollAt(LocalTime.of(6, 10)));
+        assertEquals(800, before.tollAt(LocalTime.of(6, 10)));
+        exemptedVehicleRepository.deleteById(bus.getId());
+        assertFalse(cityRuleSets.ruleSetFor(null).isVehicleExempted("Bus"));
+    }
+
+    @Test
+    void ruleSetFor_ShouldReturnRegisteredCityIgnoringCase() {
+        // Arrange
+        CityRuleSet stockholm = CityRuleSet.compile("stockholm", 1, List.of(), List.of(), List.of(), 2000,
+                Duration.ofMinutes(30));
+
+        // Act
+        cityRuleSets.register(stockholm);
+
+        // Assert
+        assertSame(stockholm, cityRuleSets.ruleSetFor(" Stockholm"));
+    }
+
+    @Test
+    void ruleSetFor_ShouldRejectUnknownCity() {
+        // Act & Assert
+        assertThrows(UnknownCityException.class, () -> cityRuleSets.ruleSetFor("Atlantis"));
+    }
+
+    @Test
+    void register_ShouldOverrideRepositoriesOfDefaultCityUntilUnregistered() {
+        // Arrange
+        CityRuleSet gothenburg = CityRuleSet.compile(CityRuleSets.DEFAULT_CITY, 1, List.of(), List.of(), List.of(),
+                0, Duration.ZERO);
+
+        // Act
+        cityRuleSets.register(gothenburg);
+
+        // Assert
+        assertSame(gothenburg, cityRuleSets.ruleSetFor(null));
+        cityRuleSets.unregister("Gothenburg");
+        assertEquals(800, cityRuleSets.ruleSetFor(null).tollAt(LocalTime.of(6, 0)));
+    }
+}
@@ -0,0 +1,169 @@
+package com.peter.solution.repository.city;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.peter.solution.repository.dates.ExemptedDateRepository;
+import com.peter.solution.repository.taxrate.TaxRateRepository;
+import com.peter.solution.repository.vehicle.TaxExemptedVehicleRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CityRuleStoreTest {
+
+    private static final String STOCKHOLM = """
+            {
+              "dailyCap": 135,
+              "singleChargeWindow": "PT30M",
+              "taxRates": [{"startTime": "06:00", "endTime": "06:29", "amount": 15.5}],
+              "exemptedDates": [{"type": "HOLIDAY_DATE", "holidayDate": "2024-12-25"}],
+              "exemptedVehicles": ["Emergency"]
+            }
+            """;
+
+    @TempDir
+    Path directory;
+
+    private CityRuleSets cityRuleSets;
+    private CityRuleStore store;
+
+    @BeforeEach
+    void setUp() {
+        cityRuleSets = new CityRuleSets(new ExemptedDateRepository(), new TaxRateRepository(),
+                new TaxExemptedVehicleRepository());
+        store = new CityRuleStore(directory, cityRuleSets, new ObjectMapper().registerModule(new JavaTimeModule()));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        store.close();
+    }
+
+    @Test
+    void loadAll_ShouldCompileRuleFileOfEveryCity() throws Exception {
+        // Arrange
+        Files.writeString(directory.resolve("Stockholm.json"), STOCKHOLM);
+
+        // Act
+        store.loadAll();
+
+        // Assert
+        CityRuleSet stockholm = cityRuleSets.ruleSetFor("stockholm");
+        assertEquals(1550, stockholm.tollAt(LocalTime.of(6, 15)));
+        assertEquals(0, stockholm.tollAt(LocalTime.of(7, 0)));
+        assertEquals(13500, stockholm.getDailyCap());
+        assertEquals(Duration.ofMinutes(30), stockholm.getSingleChargeWindow());
+        assertTrue(stockholm.isDateExempted(LocalDate.of(2024, 12, 24)));
+        assertTrue(stockholm.isVehicleExempted("emergency"));
+        assertFalse(stockholm.isVehicleExempted("Motorcycle"));
+    }
+
+    @Test
+    void load_ShouldKeepPreviousRulesWhenFileIsInvalid() throws Exception {
+        // Arrange
+        Path file = directory.resolve("stockholm.json");
+        Files.writeString(file, STOCKHOLM);
+        store.load(file);
+        CityRuleSet previous = cityRuleSets.ruleSetFor("stockholm");
+        Files.writeString(file, "{\"taxRates\": [");
+
+        // Act
+        boolean loaded = store.load(file);
+
+        // Assert
+        assertFalse(loaded);
+        assertSame(previous, cityRuleSets.ruleSetFor("stockholm"));
+    }
+
+    @Test
+    void load_ShouldKeepPreviousRulesWhenRulesAreInvalid() throws Exception {
+        // Arrange
+        Path file = directory.resolve("stockholm.json");
+        Files.writeString(file, STOCKHOLM);
+        store.load(file);
+        CityRuleSet previous = cityRuleSets.ruleSetFor("stockholm");
+        List<String> invalidRules = List.of(
+                STOCKHOLM.replace("\"PT30M\"", "null"),
+                STOCKHOLM.replace("\"PT30M\"", "\"PT0S\""),
+                STOCKHOLM.replace("135", "-1"),
+                STOCKHOLM.replace("\"amount\": 15.5}", "\"amount\": 15.5}, {\"startTime\": \"06:29\", \"endTime\": \"06:59\", \"amount\": 20}"),
+                STOCKHOLM.replace("\"endTime\": \"06:29\", ", ""),
+                STOCKHOLM.replace("\"holidayDate\": \"2024-12-25\"", "\"month\": \"DECEMBER\""));
+
+        for (String rules : invalidRules) {
+            Files.writeString(file, rules);
+
+            // Act
+            boolean loaded = store.load(file);
+
+            // Assert
+            assertFalse(loaded, rules);
+            assertSame(previous, cityRuleSets.ruleSetFor("stockholm"));
+        }
+    }
+
+    @Test
+    void load_ShouldVersionRulesAfterTheRulesOfTheDefaultCity() throws Exception {
+        // Arrange
+        long defaultVersion = cityRuleSets.ruleSetFor(CityRuleSets.DEFAULT_CITY).getVersion();
+        Path file = directory.resolve("stockholm.json");
+        Files.writeString(file, STOCKHOLM);
+
+        // Act
+        store.load(file);
+
+        // Assert
+        assertTrue(cityRuleSets.ruleSetFor("stockholm").getVersion() > defaultVersion);
+    }
+
+    @Test
+    void load_ShouldRemoveRulesOfDeletedFile() throws Exception {
+        // Arrange
+        Path file = directory.resolve("stockholm.json");
+        Files.writeString(file, STOCKHOLM);
+        store.load(file);
+        Files.delete(file);
+
+        // Act
+        store.load(file);
+
+        // Assert
+        assertThrows(UnknownCityException.class, () -> cityRuleSets.ruleSetFor("stockholm"));
+    }
+
+    @Test
+    void start_ShouldPublishNewVersionWhenFileIsReplaced() throws Exception {
+        // Arrange
+        Files.writeString(directory.resolve("stockholm.json"), STOCKHOLM);
+        store.start();
+        long initialVersion = cityRuleSets.ruleSetFor("stockholm").getVersion();
+        Path staged = Files.writeString(directory.resolve("stockholm.tmp"), STOCKHOLM.replace("15.5", "20"));
+
+        // Act
+        Files.move(staged, directory.resolve("stockholm.json"), StandardCopyOption.ATOMIC_MOVE);
+
+        // Assert
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (cityRuleSets.ruleSetFor("stockholm").getVersion() == initialVersion && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        CityRuleSet reloaded = cityRuleSets.ruleSetFor("stockholm");
+        assertTrue(reloaded.getVersion() > initialVersion);
+        assertEquals(2000, reloaded.tollAt(LocalTime.of(6, 15)));
+    }
+}
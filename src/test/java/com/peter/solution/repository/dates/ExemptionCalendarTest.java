@@ -0,0 +1,93 @@
+package com.peter.solution.repository.dates;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.Month;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ExemptionCalendarTest {
+
+    private ExemptedDateRepository exemptedDateRepository;
+
+    @BeforeEach
+    void setUp() {
+        exemptedDateRepository = new ExemptedDateRepository();
+    }
+
+    @Test
+    void isExempted_ShouldCoverWeekendsAndJuly() {
+        assertTrue(exemptedDateRepository.isExempted(LocalDate.of(2013, Month.FEBRUARY, 9)));
+        assertTrue(exemptedDateRepository.isExempted(LocalDate.of(2013, Month.FEBRUARY, 10)));
+        assertFalse(exemptedDateRepository.isExempted(LocalDate.of(2013, Month.FEBRUARY, 8)));
+        assertTrue(exemptedDateRepository.isExempted(LocalDate.of(2013, Month.JULY, 1)));
+        assertTrue(exemptedDateRepository.isExempted(LocalDate.of(2013, Month.JULY, 31)));
+        assertFalse(exemptedDateRepository.isExempted(LocalDate.of(2013, Month.AUGUST, 1)));
+    }
+
+    @Test
+    void isExempted_ShouldCoverHolidayAndDayBefore() {
+        // Arrange
+        exemptedDateRepository.isExempted(LocalDate.of(2013, Month.JANUARY, 1));
+        exemptedDateRepository.save(ExemptedDate.ofHolidayDate(null, LocalDate.of(2013, Month.MARCH, 29)));
+
+        // Act & Assert
+        assertFalse(exemptedDateRepository.isExempted(LocalDate.of(2013, Month.MARCH, 27)));
+        assertTrue(exemptedDateRepository.isExempted(LocalDate.of(2013, Month.MARCH, 28)));
+        assertTrue(exemptedDateRepository.isExempted(LocalDate.of(2013, Month.MARCH, 29)));
+    }
+
+    @Test
+    void isExempted_ShouldCoverDayBeforeHolidayInPreviousYear() {
+        // Arrange
+        exemptedDateRepository.save(ExemptedDate.ofHolidayDate(null, LocalDate.of(2014, Month.JANUARY, 1)));
+
+        // Act & Assert
+        assertTrue(exemptedDateRepository.isExempted(LocalDate.of(2013, Month.DECEMBER, 31)));
+        assertTrue(exemptedDateRepository.isExempted(LocalDate.of(2014, Month.JANUARY, 1)));
+    }
+
+    @Test
+    void isExempted_ShouldFollowDeletedRules() {
+        // Arrange
+        ExemptedDate holiday = exemptedDateRepository.save(
+                ExemptedDate.ofHolidayDate(null, LocalDate.of(2013, Month.MAY, 1)));
+        ExemptedDate friday = exemptedDateRepository.save(ExemptedDate.ofDayOfWeek(null, DayOfWeek.FRIDAY));
+        assertTrue(exemptedDateRepository.isExempted(LocalDate.of(2013, Month.APRIL, 30)));
+        assertTrue(exemptedDateRepository.isExempted(LocalDate.of(2013, Month.FEBRUARY, 8)));
+
+        // Act
+        exemptedDateRepository.deleteById(holiday.getId());
+        exemptedDateRepository.deleteById(friday.getId());
+
+        // Assert
+        assertFalse(exemptedDateRepository.isExempted(LocalDate.of(2013, Month.APRIL, 30)));
+        assertFalse(exemptedDateRepository.isExempted(LocalDate.of(2013, Month.MAY, 1)));
+        assertFalse(exemptedDateRepository.isExempted(LocalDate.of(2013, Month.FEBRUARY, 8)));
+    }
+
+    @Test
+    void isExempted_ShouldKeepABoundedNumberOfYearsCompiled() {
+        // Arrange
+        ExemptionCalendar calendar = new ExemptionCalendar(
+                () -> List.of(ExemptedDate.ofDayOfWeek(null, DayOfWeek.SATURDAY)), new ReentrantLock());
+        calendar.isExempted(LocalDate.of(2013, Month.FEBRUARY, 8));
+
+        // Act
+        for (int year = 1; year <= 1_000; year++) {
+            calendar.isExempted(LocalDate.of(year * 1_000, Month.JANUARY, 1));
+        }
+
+        // Assert
+        assertEquals(ExemptionCalendar.MAX_COMPILED_YEARS, calendar.compiledYears());
+        assertTrue(calendar.isExempted(LocalDate.of(2013, Month.FEBRUARY, 9)));
+        assertFalse(calendar.isExempted(LocalDate.of(2013, Month.FEBRUARY, 8)));
+    }
+}
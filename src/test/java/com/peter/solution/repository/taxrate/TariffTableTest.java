@@ -0,0 +1,72 @@
+package com.peter.solution.repository.taxrate;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TariffTableTest {
+
+    @Test
+    void amountAt_ShouldIncludeStartAndEndMinuteOfRate() {
+        // Arrange
+        TariffTable tariffTable = new TaxRateRepository().getTariffTable();
+
+        // Act & Assert
+        assertEquals(0, tariffTable.amountAt(LocalTime.of(5, 59, 59)));
+        assertEquals(800, tariffTable.amountAt(LocalTime.of(6, 0)));
+        assertEquals(800, tariffTable.amountAt(LocalTime.of(6, 29, 59)));
+        assertEquals(1300, tariffTable.amountAt(LocalTime.of(6, 30)));
+        assertEquals(800, tariffTable.amountAt(LocalTime.of(18, 29, 59)));
+        assertEquals(0, tariffTable.amountAt(LocalTime.of(18, 30)));
+    }
+
+    @Test
+    void compile_ShouldWrapRatesAroundMidnight() {
+        // Arrange
+        TaxRate night = new TaxRate(1L, LocalTime.of(22, 0), LocalTime.of(1, 59), 5);
+
+        // Act
+        TariffTable tariffTable = TariffTable.compile(List.of(night));
+
+        // Assert
+        assertEquals(0, tariffTable.amountAt(LocalTime.of(21, 59)));
+        assertEquals(5, tariffTable.amountAt(LocalTime.of(22, 0)));
+        assertEquals(5, tariffTable.amountAt(LocalTime.MIDNIGHT));
+        assertEquals(5, tariffTable.amountAt(LocalTime.of(1, 59, 59)));
+        assertEquals(0, tariffTable.amountAt(LocalTime.of(2, 0)));
+    }
+
+    @Test
+    void compile_ShouldPreferRateWithLowestIdWhenRatesOverlap() {
+        // Arrange
+        TaxRate wide = new TaxRate(2L, LocalTime.of(8, 0), LocalTime.of(10, 0), 10);
+        TaxRate narrow = new TaxRate(1L, LocalTime.of(9, 0), LocalTime.of(9, 29), 15);
+
+        // Act
+        TariffTable tariffTable = TariffTable.compile(List.of(wide, narrow));
+
+        // Assert
+        assertEquals(10, tariffTable.amountAt(LocalTime.of(8, 59)));
+        assertEquals(15, tariffTable.amountAt(LocalTime.of(9, 15)));
+        assertEquals(10, tariffTable.amountAt(LocalTime.of(9, 30)));
+    }
+
+    @Test
+    void getTariffTable_ShouldBeRebuiltWhenRatesChange() {
+        // Arrange
+        TaxRateRepository taxRateRepository = new TaxRateRepository();
+        TaxRate saved = taxRateRepository.save(new TaxRate(LocalTime.of(5, 0), LocalTime.of(5, 59), 3));
+
+        // Act & Assert
+        assertEquals(0, taxRateRepository.getTariffTable().amountAt(LocalTime.of(5, 30)));
+        taxRateRepository.findAll().stream()
+                .filter(taxRate -> taxRate.getStartTime().equals(LocalTime.of(18, 30)))
+                .forEach(taxRate -> taxRateRepository.deleteById(taxRate.getId()));
+        assertEquals(3, taxRateRepository.getTariffTable().amountAt(LocalTime.of(5, 30)));
+        taxRateRepository.deleteById(saved.getId());
+        assertEquals(0, taxRateRepository.getTariffTable().amountAt(LocalTime.of(5, 30)));
+    }
+}
@@ -0,0 +1,133 @@
+package com.peter.solution.repository.tollpass;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DailyTollStateTest {
+
+    private static final Duration WINDOW = Duration.ofMinutes(60);
+    private static final long DAILY_CAP = 6000;
+    private static final LocalDateTime MIDNIGHT = LocalDateTime.of(2013, 2, 8, 0, 0);
+
+    @Test
+    void charge_ShouldApplyTheSingleChargeRuleInTimeOrder() {
+        // Arrange
+        DailyTollState state = new DailyTollState();
+
+        // Act
+        long first = state.charge(1, MIDNIGHT.withHour(6).withMinute(20), 800, WINDOW, DAILY_CAP, null);
+        long second = state.charge(2, MIDNIGHT.withHour(7).withMinute(10), 1800, WINDOW, DAILY_CAP, null);
+        long third = state.charge(3, MIDNIGHT.withHour(7).withMinute(30), 1800, WINDOW, DAILY_CAP, null);
+
+        // Assert
+        assertEquals(800, first);
+        assertEquals(1000, second);
+        assertEquals(1800, third);
+        assertEquals(3600, state.getDailyTotal());
+    }
+
+    @Test
+    void charge_ShouldReportTheChangedChargesOfALatePass() {
+        // Arrange
+        DailyTollState state = new DailyTollState();
+        state.charge(1, MIDNIGHT.withHour(7).withMinute(10), 1800, WINDOW, DAILY_CAP, null);
+        state.charge(2, MIDNIGHT.withHour(8).withMinute(0), 1300, WINDOW, DAILY_CAP, null);
+        List<TollAdjustment> adjustments = new ArrayList<>();
+
+        // Act
+        long late = state.charge(3, MIDNIGHT.withHour(6).withMinute(20), 800, WINDOW, DAILY_CAP, adjustments);
+
+        // Assert
+        assertEquals(800, late);
+        assertEquals(List.of(
+                new TollAdjustment(1, MIDNIGHT.withHour(7).withMinute(10), 1800, 1000),
+                new TollAdjustment(2, MIDNIGHT.withHour(8).withMinute(0), 0, 1300)), adjustments);
+        assertEquals(3100, state.getDailyTotal());
+        assertEquals(1000, state.chargeOf(1));
+    }
+
+    @Test
+    void charge_ShouldMoveTheCapToTheLastPassesOfTheDay() {
+        // Arrange
+        DailyTollState state = new DailyTollState();
+        for (int hour = 9; hour < 19; hour += 2) {
+            state.charge(hour, MIDNIGHT.withHour(hour).withMinute(30), 1300, WINDOW, DAILY_CAP, null);
+        }
+        List<TollAdjustment> adjustments = new ArrayList<>();
+
+        // Act
+        long late = state.charge(7, MIDNIGHT.withHour(7).withMinute(30), 1800, WINDOW, DAILY_CAP, adjustments);
+
+        // Assert
+        assertEquals(1800, late);
+        assertEquals(List.of(
+                new TollAdjustment(15, MIDNIGHT.withHour(15).withMinute(30), 1300, 300),
+                new TollAdjustment(17, MIDNIGHT.withHour(17).withMinute(30), 800, 0)), adjustments);
+        assertEquals(DAILY_CAP, state.getDailyTotal());
+    }
+
+    @Test
+    void charge_ShouldChargeTheSameWhateverTheArrivalOrder() {
+        // Arrange
+        Random random = new Random(42);
+        long[] tolls = {800, 1300, 1800, 1300, 800};
+        for (int day = 0; day < 500; day++) {
+            List<long[]> passes = new ArrayList<>();
+            int count = 1 + random.nextInt(16);
+            for (int id = 0; id < count; id++) {
+                passes.add(new long[]{id, random.nextInt(16 * 60) + 6 * 60, tolls[random.nextInt(tolls.length)]});
+            }
+            List<long[]> arrival = new ArrayList<>(passes);
+            Collections.shuffle(arrival, random);
+            DailyTollState inOrder = new DailyTollState();
+            DailyTollState outOfOrder = new DailyTollState();
+
+            // Act
+            passes.sort(Comparator.comparingLong((long[] pass) -> pass[1]).thenComparingLong(pass -> pass[0]));
+            for (long[] pass : passes) {
+                inOrder.charge(pass[0], MIDNIGHT.plusMinutes(pass[1]), pass[2], WINDOW, DAILY_CAP, null);
+            }
+            long[] charged = new long[count];
+            for (long[] pass : arrival) {
+                List<TollAdjustment> adjustments = new ArrayList<>();
+                charged[(int) pass[0]] = outOfOrder.charge(pass[0], MIDNIGHT.plusMinutes(pass[1]), pass[2],
+                        WINDOW, DAILY_CAP, adjustments);
+                for (TollAdjustment adjustment : adjustments) {
+                    assertEquals(charged[(int) adjustment.tollPassId()], adjustment.previousAmount());
+                    charged[(int) adjustment.tollPassId()] = adjustment.amount();
+                }
+            }
+
+            // Assert
+            long total = 0;
+            for (long[] pass : passes) {
+                assertEquals(inOrder.chargeOf(pass[0]), outOfOrder.chargeOf(pass[0]));
+                assertEquals(inOrder.chargeOf(pass[0]), charged[(int) pass[0]]);
+                total += charged[(int) pass[0]];
+            }
+            assertEquals(inOrder.getDailyTotal(), outOfOrder.getDailyTotal());
+            assertEquals(total, outOfOrder.getDailyTotal());
+            assertTrue(total <= DAILY_CAP);
+        }
+    }
+
+    @Test
+    void chargeOf_ShouldRejectUnknownPasses() {
+        // Arrange
+        DailyTollState state = new DailyTollState();
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> state.chargeOf(1));
+    }
+}
@@ -0,0 +1,74 @@
+package com.peter.solution.repository.tollpass;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PlateDictionaryTest {
+
+    @Test
+    void idOf_ShouldAssignDenseIdentifiersOnce() {
+        // Arrange
+        PlateDictionary dictionary = new PlateDictionary();
+
+        // Act
+        int first = dictionary.idOf("ABC123");
+        int second = dictionary.idOf("XYZ999");
+        int again = dictionary.idOf(new String("ABC123"));
+
+        // Assert
+        assertEquals(0, first);
+        assertEquals(1, second);
+        assertEquals(first, again);
+        assertEquals("XYZ999", dictionary.plateOf(second));
+        assertEquals(PlateDictionary.UNKNOWN, dictionary.find("NOPE"));
+    }
+
+    @Test
+    void idOf_ShouldAgreeOnIdentifiersUnderConcurrentInterning() throws Exception {
+        // Arrange
+        int threads = 8;
+        int plates = 50_000;
+        PlateDictionary dictionary = new PlateDictionary();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<int[]>> futures = new ArrayList<>();
+
+        // Act
+        try {
+            for (int thread = 0; thread < threads; thread++) {
+                int offset = thread;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    int[] ids = new int[plates];
+                    for (int i = 0; i < plates; i++) {
+                        int plate = (i + offset * 997) % plates;
+                        ids[plate] = dictionary.idOf("PLATE" + plate);
+                    }
+                    return ids;
+                }));
+            }
+            start.countDown();
+
+            // Assert
+            int[] expected = futures.get(0).get();
+            for (Future<int[]> future : futures) {
+                int[] ids = future.get();
+                for (int plate = 0; plate < plates; plate++) {
+                    assertEquals(expected[plate], ids[plate]);
+                    assertEquals("PLATE" + plate, dictionary.plateOf(ids[plate]));
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(plates - 1, dictionary.idOf("PLATE" + plates) - 1);
+    }
+}
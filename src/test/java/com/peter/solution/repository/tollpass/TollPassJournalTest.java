@@ -0,0 +1,275 @@
+package com.peter.solution.repository.tollpass;
+
+import com.peter.solution.config.JournalProperties;
+import com.peter.solution.config.TollPassJournalConfiguration;
+import com.peter.solution.dto.VehicleDTO;
+import com.peter.solution.repository.city.CityRuleSet;
+import com.peter.solution.repository.city.CityRuleSets;
+import com.peter.solution.repository.dates.ExemptedDateRepository;
+import com.peter.solution.repository.taxrate.TaxRate;
+import com.peter.solution.repository.taxrate.TaxRateRepository;
+import com.peter.solution.repository.vehicle.TaxExemptedVehicleRepository;
+import com.peter.solution.service.CalculationMetrics;
+import com.peter.solution.service.TaxRateCalculatorImpl;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.Month;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TollPassJournalTest {
+
+    private static final LocalDateTime DATE_TIME = LocalDateTime.of(2013, Month.FEBRUARY, 8, 6, 20, 27, 500);
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    void replay_ShouldReturnAppendedPassesAndDeletionsInOrder() throws Exception {
+        // Arrange
+        Path path = directory.resolve("toll-passes.journal");
+        try (TollPassJournal journal = new TollPassJournal(path, Duration.ofMillis(1), true)) {
+            journal.append(tollPass(1L, "ABC123", DATE_TIME, 8));
+            TollPass stockholm = tollPass(2L, "ÅÄÖ987", DATE_TIME.plusMinutes(30), 5);
+            stockholm.setCity("stockholm");
+            journal.append(stockholm);
+            journal.appendDeletion(1L);
+        }
+        List<TollPass> passes = new ArrayList<>();
+        List<Long> deletions = new ArrayList<>();
+
+        // Act
+        try (TollPassJournal journal = new TollPassJournal(path, Duration.ofMillis(1), false)) {
+            journal.replay(passes::add, deletions::add, correction -> { }, total -> { });
+            journal.append(tollPass(3L, "XYZ999", DATE_TIME, 8));
+        }
+
+        // Assert
+        assertEquals(2, passes.size());
+        assertEquals(2L, passes.get(1).getId());
+        assertEquals("ÅÄÖ987", passes.get(1).getPlateNumber());
+        assertEquals(DATE_TIME.plusMinutes(30), passes.get(1).getPassDateTime());
+        assertEquals(5, passes.get(1).getTollAmount());
+        assertEquals("stockholm", passes.get(1).getCity());
+        assertNull(passes.get(0).getCity());
+        assertEquals(List.of(1L), deletions);
+        try (TollPassJournal journal = new TollPassJournal(path, Duration.ofMillis(1), false)) {
+            List<TollPass> afterReopen = new ArrayList<>();
+            journal.replay(afterReopen::add, id -> { }, correction -> { }, total -> { });
+            assertEquals(3L, afterReopen.get(2).getId());
+        }
+    }
+
+    @Test
+    void replay_ShouldRestoreCorrectedAmountsAndTotals() throws Exception {
+        // Arrange
+        Path path = directory.resolve("toll-passes.journal");
+        TollPassRepository beforeRestart = new TollPassRepository();
+        try (TollPassJournal journal = new TollPassJournal(path, Duration.ofMillis(1), false)) {
+            beforeRestart.attachJournal(journal);
+            int plateId = beforeRestart.plateIdOf("ABC123");
+            beforeRestart.save(new TollPass("ABC123", DATE_TIME, 800), plateId);
+            beforeRestart.save(new TollPass("ABC123", DATE_TIME.plusHours(1), 1800), plateId);
+            beforeRestart.correctAmounts(plateId, null, DATE_TIME.toLocalDate(),
+                    (id, passTime, amount) -> passTime.getHour() == 7 ? 1000 : amount);
+        }
+
+        // Act
+        TollPassRepository afterRestart = new TollPassRepository();
+        try (TollPassJournal journal = new TollPassJournal(path, Duration.ofMillis(1), false)) {
+            journal.replay(afterRestart::restore, afterRestart::deleteById, afterRestart::restoreCorrection,
+                    afterRestart::restoreDayTotal);
+        }
+
+        // Assert
+        assertEquals(List.of(800L, 1000L), afterRestart.findAll().stream().map(TollPass::getTollAmount).toList());
+        PlateMonthTotals totals = afterRestart.findMonthTotals("ABC123", YearMonth.from(DATE_TIME));
+        assertEquals(1800, totals.getDailyTotal(DATE_TIME.getDayOfMonth()));
+        assertEquals(1800, totals.getTotal());
+    }
+
+    @Test
+    void save_ShouldStoreNothingWhenTheJournalRejectsThePass() throws Exception {
+        // Arrange
+        TollPassRepository repository = new TollPassRepository();
+        TollPass tollPass = new TollPass("A".repeat(32), DATE_TIME, 800);
+
+        try (TollPassJournal journal = new TollPassJournal(directory.resolve("toll-passes.journal"),
+                Duration.ofMillis(1), true)) {
+            repository.attachJournal(journal);
+
+            // Act & Assert
+            assertThrows(IllegalArgumentException.class,
+                    () -> repository.save(tollPass, repository.plateIdOf(tollPass.getPlateNumber())));
+            assertEquals(0, repository.count());
+            assertNull(repository.findMonthTotals(tollPass.getPlateNumber(), YearMonth.from(DATE_TIME)));
+        }
+    }
+
+    @Test
+    void tollPassJournal_ShouldRestoreDailyStateAfterRestart() throws Exception {
+        // Arrange
+        JournalProperties properties = new JournalProperties();
+        properties.setPath(directory.resolve("toll-passes.journal"));
+        TollPassJournalConfiguration configuration = new TollPassJournalConfiguration();
+
+        TollPassRepository beforeRestart = new TollPassRepository();
+        TaxRateCalculatorImpl calculatorBeforeRestart = newCalculator(beforeRestart);
+        try (TollPassJournal ignored = configuration.tollPassJournal(properties, beforeRestart, calculatorBeforeRestart,
+                Optional.empty())) {
+            calculatorBeforeRestart.calculate(new VehicleDTO("Car", "ABC123", DATE_TIME));
+            calculatorBeforeRestart.calculate(new VehicleDTO("Car", "ABC123", DATE_TIME.plusMinutes(15)));
+        }
+
+        // Act
+        TollPassRepository afterRestart = new TollPassRepository();
+        TaxRateCalculatorImpl calculatorAfterRestart = newCalculator(afterRestart);
+        long toll;
+        try (TollPassJournal ignored = configuration.tollPassJournal(properties, afterRestart, calculatorAfterRestart,
+                Optional.empty())) {
+            toll = calculatorAfterRestart.calculate(new VehicleDTO("Car", "ABC123", DATE_TIME.plusMinutes(40)));
+        }
+
+        // Assert
+        assertEquals(500, toll);
+        assertEquals(3, afterRestart.findAll().size());
+        assertEquals(3L, afterRestart.findAll().stream().mapToLong(TollPass::getId).max().orElseThrow());
+    }
+
+    @Test
+    void tollPassJournal_ShouldRestoreTheAmountsCorrectedByALatePass() throws Exception {
+        // Arrange
+        JournalProperties properties = new JournalProperties();
+        properties.setPath(directory.resolve("toll-passes.journal"));
+        TollPassJournalConfiguration configuration = new TollPassJournalConfiguration();
+
+        TollPassRepository beforeRestart = new TollPassRepository();
+        TaxRateCalculatorImpl calculatorBeforeRestart = newCalculator(beforeRestart);
+        try (TollPassJournal ignored = configuration.tollPassJournal(properties, beforeRestart, calculatorBeforeRestart,
+                Optional.empty())) {
+            calculatorBeforeRestart.calculate(new VehicleDTO("Car", "ABC123", DATE_TIME.withHour(7).withMinute(10)));
+            calculatorBeforeRestart.calculate(new VehicleDTO("Car", "ABC123", DATE_TIME));
+        }
+
+        // Act
+        TollPassRepository afterRestart = new TollPassRepository();
+        TaxRateCalculatorImpl calculatorAfterRestart = newCalculator(afterRestart);
+        try (TollPassJournal ignored = configuration.tollPassJournal(properties, afterRestart, calculatorAfterRestart,
+                Optional.empty())) {
+            // nothing is calculated after the restart
+        }
+
+        // Assert
+        assertEquals(List.of(1000L, 800L), afterRestart.findAll().stream().map(TollPass::getTollAmount).toList());
+        PlateMonthTotals totals = afterRestart.findMonthTotals("ABC123", YearMonth.from(DATE_TIME));
+        assertEquals(1800, totals.getDailyTotal(DATE_TIME.getDayOfMonth()));
+        assertEquals(1800, calculatorAfterRestart.findDailyTotal("ABC123", null, DATE_TIME.toLocalDate()));
+    }
+
+    @Test
+    void tollPassJournal_ShouldCompactTheJournalToTheRetainedPassesAndTotals() throws Exception {
+        // Arrange
+        JournalProperties properties = new JournalProperties();
+        properties.setPath(directory.resolve("toll-passes.journal"));
+        TollPassJournalConfiguration configuration = new TollPassJournalConfiguration();
+
+        TollPassRepository beforeRestart = new TollPassRepository(1);
+        TaxRateCalculatorImpl calculatorBeforeRestart = newCalculator(beforeRestart);
+        try (TollPassJournal ignored = configuration.tollPassJournal(properties, beforeRestart, calculatorBeforeRestart,
+                Optional.empty())) {
+            calculatorBeforeRestart.calculate(new VehicleDTO("Car", "ABC123", DATE_TIME.minusDays(1)));
+            calculatorBeforeRestart.calculate(new VehicleDTO("Car", "ABC123", DATE_TIME));
+        }
+
+        // Act
+        TollPassRepository afterRestart = new TollPassRepository(1);
+        configuration.tollPassJournal(properties, afterRestart, newCalculator(afterRestart), Optional.empty()).close();
+        TollPassRepository afterSecondRestart = new TollPassRepository(1);
+        configuration.tollPassJournal(properties, afterSecondRestart, newCalculator(afterSecondRestart),
+                Optional.empty()).close();
+
+        // Assert
+        List<TollPass> passes = new ArrayList<>();
+        List<PlateDayTotal> totals = new ArrayList<>();
+        try (TollPassJournal journal = new TollPassJournal(properties.getPath(), Duration.ofMillis(1), false)) {
+            journal.replay(passes::add, id -> { }, correction -> { }, totals::add);
+        }
+        assertEquals(List.of(DATE_TIME.withNano(0)), passes.stream().map(TollPass::getPassDateTime).toList());
+        assertEquals(List.of(new PlateDayTotal("ABC123", DATE_TIME.toLocalDate().minusDays(1), 800)), totals);
+        assertEquals(1, afterSecondRestart.findAll().size());
+        PlateMonthTotals monthTotals = afterSecondRestart.findMonthTotals("ABC123", YearMonth.from(DATE_TIME));
+        assertEquals(800, monthTotals.getDailyTotal(DATE_TIME.getDayOfMonth() - 1));
+        assertEquals(1600, monthTotals.getTotal());
+    }
+
+    @Test
+    void tollPassJournal_ShouldRestoreDailyStateInTheCityOfThePass() throws Exception {
+        // Arrange
+        JournalProperties properties = new JournalProperties();
+        properties.setPath(directory.resolve("toll-passes.journal"));
+        TollPassJournalConfiguration configuration = new TollPassJournalConfiguration();
+        VehicleDTO stockholm = new VehicleDTO("Car", "ABC123", DATE_TIME);
+        stockholm.setCity("Stockholm");
+
+        TollPassRepository beforeRestart = new TollPassRepository();
+        TaxRateCalculatorImpl calculatorBeforeRestart = newCalculator(beforeRestart);
+        try (TollPassJournal ignored = configuration.tollPassJournal(properties, beforeRestart, calculatorBeforeRestart,
+                Optional.empty())) {
+            calculatorBeforeRestart.calculate(stockholm);
+        }
+
+        // Act
+        TollPassRepository afterRestart = new TollPassRepository();
+        TaxRateCalculatorImpl calculatorAfterRestart = newCalculator(afterRestart);
+        long stockholmToll;
+        long gothenburgToll;
+        try (TollPassJournal ignored = configuration.tollPassJournal(properties, afterRestart, calculatorAfterRestart,
+                Optional.empty())) {
+            stockholm.setTollPassDateTime(DATE_TIME.plusMinutes(15));
+            stockholmToll = calculatorAfterRestart.calculate(stockholm);
+            gothenburgToll = calculatorAfterRestart.calculate(
+                    new VehicleDTO("Car", "ABC123", DATE_TIME.plusMinutes(15)));
+        }
+
+        // Assert
+        assertEquals(0, stockholmToll);
+        assertEquals(1300, gothenburgToll);
+        assertEquals("stockholm", afterRestart.findAll().get(0).getCity());
+    }
+
+    private static TollPass tollPass(Long id, String plateNumber, LocalDateTime dateTime, long amount) {
+        TollPass tollPass = new TollPass(plateNumber, dateTime, amount);
+        tollPass.setId(id);
+        return tollPass;
+    }
+
+    private static TaxRateCalculatorImpl newCalculator(TollPassRepository tollPassRepository) {
+        CityRuleSets cityRuleSets = new CityRuleSets(
+                new ExemptedDateRepository(),
+                new TaxRateRepository(),
+                new TaxExemptedVehicleRepository());
+        cityRuleSets.register(CityRuleSet.compile("stockholm", 1,
+                List.of(new TaxRate(1L, LocalTime.of(6, 0), LocalTime.of(18, 29), 1500)),
+                List.of(),
+                List.of(),
+                2000,
+                Duration.ofMinutes(30)));
+        return new TaxRateCalculatorImpl(
+                cityRuleSets,
+                tollPassRepository,
+                new DailyTollStateRepository(),
+                new CalculationMetrics()
+        );
+    }
+}
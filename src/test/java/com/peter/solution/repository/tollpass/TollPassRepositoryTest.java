@@ -0,0 +1,277 @@
+package com.peter.solution.repository.tollpass;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.Month;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TollPassRepositoryTest {
+
+    private static final LocalDate DATE = LocalDate.of(2013, Month.FEBRUARY, 8);
+
+    private TollPassRepository tollPassRepository;
+
+    @BeforeEach
+    void setUp() {
+        tollPassRepository = new TollPassRepository();
+    }
+
+    @Test
+    void findAllByPlateNumberAndDateTime_ShouldReturnOnlyPassesOfPlateWithinRange() {
+        // Arrange
+        TollPass morning = tollPassRepository.save(new TollPass("ABC123", DATE.atTime(6, 20), 8));
+        TollPass afternoon = tollPassRepository.save(new TollPass("ABC123", DATE.atTime(15, 29), 13));
+        tollPassRepository.save(new TollPass("XYZ999", DATE.atTime(6, 20), 8));
+        tollPassRepository.save(new TollPass("ABC123", DATE.plusDays(1).atTime(6, 20), 8));
+
+        // Act
+        List<TollPass> tollPasses = tollPassRepository.findAllByPlateNumberAndDateTime(
+                "ABC123", DATE.atStartOfDay(), DATE.atTime(23, 59, 59));
+
+        // Assert
+        assertEquals(List.of(morning, afternoon), tollPasses);
+    }
+
+    @Test
+    void findAllByPlateNumberAndDateTime_ShouldSpanSeveralDays() {
+        // Arrange
+        LocalDateTime lateEvening = DATE.atTime(23, 30);
+        TollPass evening = tollPassRepository.save(new TollPass("ABC123", lateEvening, 0));
+        TollPass nextMorning = tollPassRepository.save(new TollPass("ABC123", lateEvening.plusMinutes(45), 0));
+
+        // Act
+        List<TollPass> tollPasses = tollPassRepository.findAllByPlateNumberAndDateTime(
+                "ABC123", lateEvening, lateEvening.plusHours(1));
+
+        // Assert
+        assertEquals(List.of(evening, nextMorning), tollPasses);
+    }
+
+    @Test
+    void deleteById_ShouldRemovePassFromIndex() {
+        // Arrange
+        TollPass tollPass = tollPassRepository.save(new TollPass("ABC123", DATE.atTime(6, 20), 8));
+
+        // Act
+        tollPassRepository.deleteById(tollPass.getId());
+
+        // Assert
+        assertTrue(tollPassRepository.findAll().isEmpty());
+        assertTrue(tollPassRepository.findAllByPlateNumberAndDateTime(
+                "ABC123", DATE.atStartOfDay(), DATE.atTime(23, 59, 59)).isEmpty());
+    }
+
+    @Test
+    void save_ShouldDropDaysOutsideRetentionWindow() {
+        // Arrange
+        TollPassRepository repository = new TollPassRepository(2);
+        repository.save(new TollPass("ABC123", DATE.atTime(6, 20), 8));
+        TollPass secondDay = repository.save(new TollPass("ABC123", DATE.plusDays(1).atTime(6, 20), 8));
+
+        // Act
+        TollPass thirdDay = repository.save(new TollPass("ABC123", DATE.plusDays(2).atTime(6, 20), 8));
+
+        // Assert
+        assertEquals(2, repository.count());
+        assertEquals(List.of(secondDay, thirdDay), repository.findAllByPlateNumberAndDateTime(
+                "ABC123", DATE.atStartOfDay(), DATE.plusDays(3).atStartOfDay()));
+    }
+
+    @Test
+    void save_ShouldNotKeepPassOlderThanRetentionWindow() {
+        // Arrange
+        TollPassRepository repository = new TollPassRepository(1);
+        TollPass today = repository.save(new TollPass("ABC123", DATE.atTime(6, 20), 8));
+
+        // Act
+        repository.save(new TollPass("ABC123", DATE.minusDays(1).atTime(6, 20), 8));
+
+        // Assert
+        assertEquals(List.of(today), repository.findAll());
+    }
+
+    @Test
+    void findAll_ShouldReturnStoredValuesOfEveryPass() {
+        // Arrange
+        tollPassRepository.save(new TollPass("ABC123", DATE.atTime(6, 20, 27), 8));
+        tollPassRepository.save(new TollPass("XYZ999", DATE.atTime(15, 29), 1350));
+
+        // Act
+        List<TollPass> tollPasses = tollPassRepository.findAll();
+
+        // Assert
+        assertEquals(2, tollPasses.size());
+        TollPass first = tollPasses.get(0);
+        assertEquals("ABC123", first.getPlateNumber());
+        assertEquals(DATE.atTime(6, 20, 27), first.getPassDateTime());
+        assertEquals(8, first.getTollAmount());
+        TollPass second = tollPasses.get(1);
+        assertEquals("XYZ999", second.getPlateNumber());
+        assertEquals(1350, second.getTollAmount());
+    }
+
+    @Test
+    void deleteById_ShouldKeepOtherPassesOfSamePlate() {
+        // Arrange
+        TollPass morning = tollPassRepository.save(new TollPass("ABC123", DATE.atTime(6, 20), 8));
+        TollPass noon = tollPassRepository.save(new TollPass("ABC123", DATE.atTime(12, 0), 8));
+        TollPass afternoon = tollPassRepository.save(new TollPass("ABC123", DATE.atTime(15, 29), 13));
+
+        // Act
+        tollPassRepository.deleteById(noon.getId());
+
+        // Assert
+        assertEquals(2, tollPassRepository.count());
+        assertEquals(List.of(morning, afternoon), tollPassRepository.findAllByPlateNumberAndDateTime(
+                "ABC123", DATE.atStartOfDay(), DATE.atTime(23, 59, 59)));
+    }
+
+    @Test
+    void findAllByPlateNumberAndDateTime_ShouldReturnEmptyListForUnknownPlate() {
+        // Arrange
+        tollPassRepository.save(new TollPass("ABC123", DATE.atTime(6, 20), 8));
+
+        // Act & Assert
+        assertTrue(tollPassRepository.findAllByPlateNumberAndDateTime(
+                "XYZ999", DATE.atStartOfDay(), DATE.atTime(23, 59, 59)).isEmpty());
+    }
+
+    @Test
+    void save_ShouldStoreManyPassesAcrossChunks() {
+        // Arrange
+        for (int i = 0; i < 5_000; i++) {
+            tollPassRepository.save(new TollPass("PLATE" + (i % 10), DATE.atStartOfDay().plusSeconds(i), 8));
+        }
+
+        // Act
+        List<TollPass> tollPasses = tollPassRepository.findAllByPlateNumberAndDateTime(
+                "PLATE3", DATE.atStartOfDay(), DATE.atTime(23, 59, 59));
+
+        // Assert
+        assertEquals(5_000, tollPassRepository.count());
+        assertEquals(500, tollPasses.size());
+        assertEquals(DATE.atStartOfDay().plusSeconds(3), tollPasses.get(0).getPassDateTime());
+        assertEquals(DATE.atStartOfDay().plusSeconds(4_993), tollPasses.get(499).getPassDateTime());
+    }
+    @Test
+    void findMonthTotals_ShouldSumSavedAndRestoredPassesPerDayAndMonth() {
+        // Arrange
+        tollPassRepository.save(new TollPass("ABC123", DATE.atTime(6, 20), 800));
+        tollPassRepository.save(new TollPass("ABC123", DATE.atTime(15, 29), 1300));
+        TollPass restored = new TollPass("ABC123", DATE.plusDays(6).atTime(7, 0), 1800);
+        restored.setId(100L);
+        tollPassRepository.restore(restored);
+        tollPassRepository.save(new TollPass("ABC123", DATE.plusMonths(1).atTime(7, 0), 1800));
+        tollPassRepository.save(new TollPass("XYZ999", DATE.atTime(6, 20), 800));
+
+        // Act
+        PlateMonthTotals totals = tollPassRepository.findMonthTotals("ABC123", YearMonth.of(2013, Month.FEBRUARY));
+
+        // Assert
+        assertEquals(3900, totals.getTotal());
+        assertEquals(2100, totals.getDailyTotal(8));
+        assertEquals(1800, totals.getDailyTotal(14));
+        assertEquals(0, totals.getDailyTotal(9));
+        assertNull(tollPassRepository.findMonthTotals("UNKNOWN", YearMonth.of(2013, Month.FEBRUARY)));
+        assertNull(tollPassRepository.findMonthTotals("ABC123", YearMonth.of(2013, Month.APRIL)));
+    }
+
+    @Test
+    void deleteById_ShouldTakeAmountBackFromMonthTotals() {
+        // Arrange
+        tollPassRepository.save(new TollPass("ABC123", DATE.atTime(6, 20), 800));
+        TollPass afternoon = tollPassRepository.save(new TollPass("ABC123", DATE.atTime(15, 29), 1300));
+
+        // Act
+        tollPassRepository.deleteById(afternoon.getId());
+
+        // Assert
+        PlateMonthTotals totals = tollPassRepository.findMonthTotals("ABC123", YearMonth.from(DATE));
+        assertEquals(800, totals.getTotal());
+        assertEquals(800, totals.getDailyTotal(8));
+    }
+
+    @Test
+    void findMonthTotals_ShouldKeepTotalsOfDaysOutsideRetentionWindow() {
+        // Arrange
+        TollPassRepository repository = new TollPassRepository(1, 2);
+        repository.save(new TollPass("ABC123", DATE.atTime(6, 20), 800));
+        repository.save(new TollPass("ABC123", DATE.plusDays(1).atTime(6, 20), 800));
+
+        // Act
+        repository.save(new TollPass("ABC123", DATE.plusMonths(2).atTime(6, 20), 800));
+
+        // Assert
+        assertEquals(1, repository.count());
+        assertNull(repository.findMonthTotals("ABC123", YearMonth.from(DATE)));
+        assertEquals(800, repository.findMonthTotals("ABC123", YearMonth.from(DATE.plusMonths(2))).getTotal());
+    }
+
+    @Test
+    void findAllMonthTotals_ShouldReturnTotalsOfEveryChargedVehicle() {
+        // Arrange
+        tollPassRepository.save(new TollPass("ABC123", DATE.atTime(6, 20), 800));
+        tollPassRepository.save(new TollPass("XYZ999", DATE.atTime(6, 20), 1300));
+        tollPassRepository.save(new TollPass("FREE01", DATE.atTime(6, 20), 0));
+
+        // Act
+        List<PlateMonthTotals> totals = tollPassRepository.findAllMonthTotals(YearMonth.from(DATE));
+
+        // Assert
+        assertEquals(2, totals.size());
+        assertEquals(2100, totals.stream().mapToLong(PlateMonthTotals::getTotal).sum());
+    }
+    @Test
+    void findPlateIds_ShouldReturnPlatesWithPassOfCityWithinTimeRange() {
+        // Arrange
+        tollPassRepository.save(new TollPass("ABC123", DATE.atTime(6, 20), 800));
+        tollPassRepository.save(new TollPass("XYZ999", DATE.atTime(9, 0), 800));
+        TollPass stockholm = new TollPass("STO001", DATE.atTime(6, 20), 1500);
+        stockholm.setCity("stockholm");
+        tollPassRepository.save(stockholm);
+
+        // Act
+        int[] plateIds = tollPassRepository.findPlateIds(DATE, null, LocalTime.of(6, 0), LocalTime.of(6, 29, 59));
+
+        // Assert
+        assertArrayEquals(new int[]{tollPassRepository.plateIdOf("ABC123")}, plateIds);
+        assertEquals(0, tollPassRepository.findPlateIds(DATE.plusDays(1), null, LocalTime.MIN, LocalTime.MAX).length);
+    }
+
+    @Test
+    void correctAmounts_ShouldReplaceAmountsInStoredOrderAndAdjustTotals() {
+        // Arrange
+        tollPassRepository.save(new TollPass("ABC123", DATE.atTime(15, 29), 1300));
+        tollPassRepository.save(new TollPass("ABC123", DATE.atTime(6, 20), 800));
+        TollPass stockholm = new TollPass("ABC123", DATE.atTime(7, 0), 1500);
+        stockholm.setCity("stockholm");
+        tollPassRepository.save(stockholm);
+        List<LocalDateTime> corrected = new ArrayList<>();
+
+        // Act
+        long delta = tollPassRepository.correctAmounts(tollPassRepository.plateIdOf("ABC123"), null, DATE,
+                (id, passTime, amount) -> {
+                    corrected.add(passTime);
+                    return amount / 2;
+                });
+
+        // Assert
+        assertEquals(-1050, delta);
+        assertEquals(List.of(DATE.atTime(15, 29), DATE.atTime(6, 20)), corrected);
+        assertEquals(List.of(650L, 400L, 1500L), tollPassRepository.findAll().stream()
+                .map(TollPass::getTollAmount)
+                .toList());
+        assertEquals(2550, tollPassRepository.findMonthTotals("ABC123", YearMonth.from(DATE)).getTotal());
+    }
+}
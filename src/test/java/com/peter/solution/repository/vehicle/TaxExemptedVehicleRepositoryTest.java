@@ -0,0 +1,52 @@
+package com.peter.solution.repository.vehicle;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaxExemptedVehicleRepositoryTest {
+
+    private TaxExemptedVehicleRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = new TaxExemptedVehicleRepository();
+    }
+
+    @Test
+    void isExempted_ShouldIgnoreCaseAndSurroundingWhitespace() {
+        assertTrue(repository.isExempted("Motorcycle"));
+        assertTrue(repository.isExempted("MOTORCYCLE"));
+        assertTrue(repository.isExempted(" motorcycle "));
+        assertFalse(repository.isExempted("Car"));
+        assertFalse(repository.isExempted(null));
+    }
+
+    @Test
+    void save_ShouldIgnoreDuplicateTypes() {
+        // Arrange
+        int size = repository.findAll().size();
+
+        // Act
+        TaxExemptedVehicle duplicate = repository.save(TaxExemptedVehicle.ofVehicle("tractor"));
+
+        // Assert
+        assertNull(duplicate.getId());
+        assertEquals(size, repository.findAll().size());
+    }
+
+    @Test
+    void deleteById_ShouldRemoveExemption() {
+        // Arrange
+        TaxExemptedVehicle bus = repository.save(TaxExemptedVehicle.ofVehicle("Bus"));
+        assertTrue(repository.isExempted("bus"));
+
+        // Act
+        repository.deleteById(bus.getId());
+
+        // Assert
+        assertFalse(repository.isExempted("bus"));
+        assertNotNull(repository.save(TaxExemptedVehicle.ofVehicle("Bus")).getId());
+    }
+}
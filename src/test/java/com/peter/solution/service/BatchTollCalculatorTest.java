@@ -0,0 +1,142 @@
+package com.peter.solution.service;
+
+import com.peter.solution.dto.BatchResultDTO;
+import com.peter.solution.dto.DailyTotalDTO;
+import com.peter.solution.dto.VehicleDTO;
+import com.peter.solution.repository.city.CityRuleSet;
+import com.peter.solution.repository.city.CityRuleSets;
+import com.peter.solution.repository.city.UnknownCityException;
+import com.peter.solution.repository.dates.ExemptedDateRepository;
+import com.peter.solution.repository.taxrate.TaxRate;
+import com.peter.solution.repository.taxrate.TaxRateRepository;
+import com.peter.solution.repository.tollpass.DailyTollStateRepository;
+import com.peter.solution.repository.tollpass.TollPassRepository;
+import com.peter.solution.repository.vehicle.TaxExemptedVehicleRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BatchTollCalculatorTest {
+
+    private static final List<String> POST_IT_DATES = List.of(
+            "2013-01-14T21:00:00", "2013-01-15T21:00:00", "2013-02-07T06:23:27", "2013-02-07T15:27:00",
+            "2013-02-08T06:27:00", "2013-02-08T06:20:27", "2013-02-08T14:35:00", "2013-02-08T15:29:00",
+            "2013-02-08T15:47:00", "2013-02-08T16:01:00", "2013-02-08T16:48:00", "2013-02-08T17:49:00",
+            "2013-02-08T18:29:00", "2013-02-08T18:35:00", "2013-03-26T14:25:00", "2013-03-28T14:07:27");
+
+    @Test
+    void calculate_ShouldMatchSequentialCalculationPerVehicle() {
+        // Arrange
+        List<VehicleDTO> batch = new ArrayList<>();
+        for (int plate = 0; plate < 50; plate++) {
+            for (String dateTime : POST_IT_DATES) {
+                batch.add(new VehicleDTO("Car", "PLATE" + plate, LocalDateTime.parse(dateTime)));
+            }
+        }
+        Collections.shuffle(batch, new Random(42));
+
+        TaxRateCalculator sequentialCalculator = newCalculator();
+        List<Long> expected = batch.stream()
+                .sorted((a, b) -> a.getTollPassDateTime().compareTo(b.getTollPassDateTime()))
+                .map(vehicle -> new VehicleDTO(vehicle.getType(), vehicle.getPlateNumber(), vehicle.getTollPassDateTime()))
+                .peek(vehicle -> vehicle.setTaxAmount(sequentialCalculator.calculate(vehicle)))
+                .filter(vehicle -> vehicle.getPlateNumber().equals("PLATE7"))
+                .map(VehicleDTO::getTaxAmount)
+                .toList();
+
+        // Act
+        BatchResultDTO result = new BatchTollCalculatorImpl(newCalculator()).calculate(batch);
+
+        // Assert
+        List<Long> actual = result.getPasses().stream()
+                .filter(vehicle -> vehicle.getPlateNumber().equals("PLATE7"))
+                .sorted((a, b) -> a.getTollPassDateTime().compareTo(b.getTollPassDateTime()))
+                .map(VehicleDTO::getTaxAmount)
+                .toList();
+        assertEquals(expected, actual);
+        assertEquals(batch.size(), result.getPasses().size());
+
+        long total = result.getDailyTotals().stream()
+                .filter(dailyTotal -> dailyTotal.getPlateNumber().equals("PLATE7"))
+                .mapToLong(DailyTotalDTO::getTotalAmount)
+                .sum();
+        assertEquals(expected.stream().mapToLong(Long::longValue).sum(), total);
+    }
+
+    @Test
+    void calculate_ShouldReportTheDailyTotalPerCityIncludingEarlierPasses() {
+        // Arrange
+        CityRuleSets cityRuleSets = newCityRuleSets();
+        cityRuleSets.register(CityRuleSet.compile("stockholm", 1,
+                List.of(new TaxRate(1L, LocalTime.of(6, 0), LocalTime.of(18, 29), 1500)),
+                List.of(),
+                List.of(),
+                2000,
+                Duration.ofMinutes(30)));
+        TaxRateCalculator calculator = newCalculator(cityRuleSets);
+        calculator.calculate(new VehicleDTO("Car", "ABC123", LocalDateTime.parse("2013-02-08T06:20:00")));
+        VehicleDTO stockholm = new VehicleDTO("Car", "ABC123", LocalDateTime.parse("2013-02-08T08:00:00"));
+        stockholm.setCity(" Stockholm");
+        List<VehicleDTO> batch = List.of(
+                new VehicleDTO("Car", "ABC123", LocalDateTime.parse("2013-02-08T15:29:00")),
+                stockholm);
+
+        // Act
+        BatchResultDTO result = new BatchTollCalculatorImpl(calculator).calculate(batch);
+
+        // Assert
+        assertEquals(List.of(
+                        new DailyTotalDTO("ABC123", CityRuleSets.DEFAULT_CITY, LocalDate.of(2013, 2, 8), 2100),
+                        new DailyTotalDTO("ABC123", "stockholm", LocalDate.of(2013, 2, 8), 1500)),
+                result.getDailyTotals().stream()
+                        .sorted(Comparator.comparing(DailyTotalDTO::getCity))
+                        .toList());
+    }
+
+    @Test
+    void calculate_ShouldChargeNothingWhenAPassOfTheBatchIsRejected() {
+        // Arrange
+        TaxRateCalculator calculator = newCalculator();
+        VehicleDTO nowhere = new VehicleDTO("Car", "ABC123", LocalDateTime.parse("2013-02-11T06:20:00"));
+        nowhere.setCity("nowhere");
+        List<VehicleDTO> batch = List.of(
+                new VehicleDTO("Car", "ABC123", LocalDateTime.parse("2013-02-08T06:20:00")),
+                nowhere);
+        BatchTollCalculator batchCalculator = new BatchTollCalculatorImpl(calculator);
+
+        // Act & Assert
+        assertThrows(UnknownCityException.class, () -> batchCalculator.calculate(batch));
+        assertEquals(0, calculator.findDailyTotal("ABC123", null, LocalDate.of(2013, 2, 8)));
+    }
+
+    private static TaxRateCalculator newCalculator() {
+        return newCalculator(newCityRuleSets());
+    }
+
+    private static CityRuleSets newCityRuleSets() {
+        return new CityRuleSets(
+                new ExemptedDateRepository(),
+                new TaxRateRepository(),
+                new TaxExemptedVehicleRepository());
+    }
+
+    private static TaxRateCalculator newCalculator(CityRuleSets cityRuleSets) {
+        return new TaxRateCalculatorImpl(
+                cityRuleSets,
+                new TollPassRepository(),
+                new DailyTollStateRepository(),
+                new CalculationMetrics()
+        );
+    }
+}
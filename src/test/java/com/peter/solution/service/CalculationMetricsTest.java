@@ -0,0 +1,70 @@
+package com.peter.solution.service;
+
+import com.peter.solution.dto.VehicleDTO;
+import com.peter.solution.repository.city.CityRuleSets;
+import com.peter.solution.repository.dates.ExemptedDateRepository;
+import com.peter.solution.repository.taxrate.TaxRateRepository;
+import com.peter.solution.repository.tollpass.DailyTollStateRepository;
+import com.peter.solution.repository.tollpass.TollPassRepository;
+import com.peter.solution.repository.vehicle.TaxExemptedVehicleRepository;
+import com.peter.solution.service.CalculationMetrics.Stage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.Month;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class CalculationMetricsTest {
+
+    private static final LocalDateTime MORNING = LocalDateTime.of(2013, Month.FEBRUARY, 8, 7, 0);
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void calculate_ShouldCountPassesByOutcome() {
+        // Arrange
+        TaxRateCalculator taxRateCalculator = newCalculator(new CalculationMetrics(registry, Set.of()));
+
+        // Act
+        taxRateCalculator.calculate(new VehicleDTO("Motorcycle", "ABC123", MORNING));
+        for (int hour = 0; hour < 7; hour++) {
+            taxRateCalculator.calculate(new VehicleDTO("Car", "ABC123", MORNING.plusMinutes(hour * 61L)));
+        }
+
+        // Assert
+        assertEquals(1, registry.get("congestion.calculation.passes").tag("outcome", "exempt").counter().count());
+        assertEquals(5, registry.get("congestion.calculation.passes").tag("outcome", "charged").counter().count());
+        assertEquals(2, registry.get("congestion.calculation.passes").tag("outcome", "capped").counter().count());
+        assertEquals(8, registry.get("congestion.calculation.stage").tag("stage", "vehicle-exemption").timer().count());
+        assertEquals(7, registry.get("congestion.calculation.stage").tag("stage", "save").timer().count());
+    }
+
+    @Test
+    void calculate_ShouldNotTimeDisabledStages() {
+        // Arrange
+        TaxRateCalculator taxRateCalculator = newCalculator(new CalculationMetrics(registry, Set.of(Stage.SAVE)));
+
+        // Act
+        taxRateCalculator.calculate(new VehicleDTO("Car", "ABC123", MORNING));
+
+        // Assert
+        assertNull(registry.find("congestion.calculation.stage").tag("stage", "save").timer());
+        assertEquals(1, registry.get("congestion.calculation.stage").tag("stage", "pass-history").timer().count());
+    }
+
+    private static TaxRateCalculator newCalculator(CalculationMetrics metrics) {
+        return new TaxRateCalculatorImpl(
+                new CityRuleSets(
+                        new ExemptedDateRepository(),
+                        new TaxRateRepository(),
+                        new TaxExemptedVehicleRepository()),
+                new TollPassRepository(),
+                new DailyTollStateRepository(),
+                metrics
+        );
+    }
+}
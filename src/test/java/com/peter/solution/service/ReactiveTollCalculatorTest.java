@@ -0,0 +1,94 @@
+package com.peter.solution.service;
+
+import com.peter.solution.dto.VehicleDTO;
+import com.peter.solution.repository.city.CityRuleSets;
+import com.peter.solution.repository.dates.ExemptedDateRepository;
+import com.peter.solution.repository.taxrate.TaxRateRepository;
+import com.peter.solution.repository.tollpass.DailyTollStateRepository;
+import com.peter.solution.repository.tollpass.TollPassRepository;
+import com.peter.solution.repository.vehicle.TaxExemptedVehicleRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDateTime;
+import java.time.Month;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ReactiveTollCalculatorTest {
+
+    private static final int PLATES = 50;
+    private static final int PASSES_PER_PLATE = 20;
+    private static final LocalDateTime FIRST_PASS = LocalDateTime.of(2013, Month.FEBRUARY, 8, 6, 0);
+
+    private ReactiveTollCalculatorImpl reactiveTollCalculator;
+
+    @BeforeEach
+    void setUp() {
+        TaxRateCalculatorImpl taxRateCalculator = new TaxRateCalculatorImpl(
+                new CityRuleSets(
+                        new ExemptedDateRepository(),
+                        new TaxRateRepository(),
+                        new TaxExemptedVehicleRepository()),
+                new TollPassRepository(),
+                new DailyTollStateRepository(),
+                new CalculationMetrics()
+        );
+        reactiveTollCalculator = new ReactiveTollCalculatorImpl(taxRateCalculator,
+                new BatchTollCalculatorImpl(taxRateCalculator), 4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        reactiveTollCalculator.destroy();
+    }
+
+    @Test
+    void calculateStream_ShouldKeepTheOrderOfThePassesOfEachPlate() {
+        // Arrange
+        List<VehicleDTO> passes = new ArrayList<>();
+        for (int pass = 0; pass < PASSES_PER_PLATE; pass++) {
+            for (int plate = 0; plate < PLATES; plate++) {
+                passes.add(new VehicleDTO("Car", "PLATE" + plate, FIRST_PASS.plusMinutes(pass * 30L)));
+            }
+        }
+
+        // Act
+        List<VehicleDTO> results = reactiveTollCalculator.calculateStream(Flux.fromIterable(passes))
+                .collectList()
+                .block();
+
+        // Assert
+        assertEquals(passes.size(), results.size());
+        Map<String, List<LocalDateTime>> passTimesByPlate = new LinkedHashMap<>();
+        results.forEach(result -> passTimesByPlate
+                .computeIfAbsent(result.getPlateNumber(), plate -> new ArrayList<>())
+                .add(result.getTollPassDateTime()));
+        passTimesByPlate.forEach((plate, passTimes) ->
+                assertEquals(passTimes.stream().sorted().toList(), passTimes, plate));
+    }
+
+    @Test
+    void calculateStream_ShouldChargeLikeTheBlockingCalculator() {
+        // Arrange
+        Flux<VehicleDTO> passes = Flux.just(
+                new VehicleDTO("Car", "ABC123", FIRST_PASS.withHour(6).withMinute(20)),
+                new VehicleDTO("Car", "ABC123", FIRST_PASS.withHour(6).withMinute(50)),
+                new VehicleDTO("Car", "ABC123", FIRST_PASS.withHour(15).withMinute(29)));
+
+        // Act
+        List<Long> amounts = reactiveTollCalculator.calculateStream(passes)
+                .map(VehicleDTO::getTaxAmount)
+                .collectList()
+                .block();
+
+        // Assert
+        assertEquals(List.of(800L, 500L, 1300L), amounts);
+    }
+}
@@ -0,0 +1,104 @@
+package com.peter.solution.service;
+
+import com.peter.solution.dto.VehicleDTO;
+import com.peter.solution.repository.city.CityRuleSets;
+import com.peter.solution.repository.dates.ExemptedDateRepository;
+import com.peter.solution.repository.taxrate.TaxRateRepository;
+import com.peter.solution.repository.tollpass.DailyTollStateRepository;
+import com.peter.solution.repository.tollpass.TollPassRepository;
+import com.peter.solution.repository.vehicle.TaxExemptedVehicleRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.Month;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TaxRateCalculatorConcurrencyTest {
+
+    private static final int THREADS = 16;
+    private static final int PLATES = 2_000;
+    private static final LocalDateTime EARLY = LocalDateTime.of(2013, Month.FEBRUARY, 8, 6, 50);
+    private static final LocalDateTime LATE = EARLY.plusMinutes(20);
+
+    @Test
+    void calculate_ShouldKeepDailyTotalsCorrectUnderConcurrentPassesOfSamePlate() throws Exception {
+        // Arrange
+        Set<Long> sequentialTotals = new HashSet<>(List.of(
+                sequentialTotal(EARLY, LATE),
+                sequentialTotal(LATE, EARLY)));
+
+        TollPassRepository tollPassRepository = new TollPassRepository();
+        TaxRateCalculator taxRateCalculator = newCalculator(tollPassRepository);
+
+        List<VehicleDTO> passes = new ArrayList<>();
+        for (int plate = 0; plate < PLATES; plate++) {
+            passes.add(new VehicleDTO("Car", "PLATE" + plate, EARLY));
+            passes.add(new VehicleDTO("Car", "PLATE" + plate, LATE));
+        }
+        Collections.shuffle(passes, new Random(42));
+
+        Map<String, Long> dailyTotals = new ConcurrentHashMap<>();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+
+        // Act
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < THREADS; thread++) {
+                int offset = thread;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = offset; i < passes.size(); i += THREADS) {
+                        VehicleDTO vehicle = passes.get(i);
+                        dailyTotals.merge(vehicle.getPlateNumber(), taxRateCalculator.calculate(vehicle), Long::sum);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        // Assert
+        assertEquals(passes.size(), tollPassRepository.findAll().size());
+        assertEquals(PLATES, dailyTotals.size());
+        dailyTotals.forEach((plateNumber, total) -> assertTrue(sequentialTotals.contains(total),
+                () -> plateNumber + " was charged " + total + ", expected one of " + sequentialTotals));
+    }
+
+    private static long sequentialTotal(LocalDateTime first, LocalDateTime second) {
+        TaxRateCalculator taxRateCalculator = newCalculator(new TollPassRepository());
+        return taxRateCalculator.calculate(new VehicleDTO("Car", "ABC123", first))
+                + taxRateCalculator.calculate(new VehicleDTO("Car", "ABC123", second));
+    }
+
+    private static TaxRateCalculator newCalculator(TollPassRepository tollPassRepository) {
+        return new TaxRateCalculatorImpl(
+                new CityRuleSets(
+                        new ExemptedDateRepository(),
+                        new TaxRateRepository(),
+                        new TaxExemptedVehicleRepository()),
+                tollPassRepository,
+                new DailyTollStateRepository(),
+                new CalculationMetrics()
+        );
+    }
+}
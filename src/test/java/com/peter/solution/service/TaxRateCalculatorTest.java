@@ -1,9 +1,15 @@
 package com.peter.solution.service;
 
+import com.peter.solution.dto.TollAdjustmentDTO;
 import com.peter.solution.dto.VehicleDTO;
+import com.peter.solution.repository.city.CityRuleSet;
+import com.peter.solution.repository.city.CityRuleSets;
+import com.peter.solution.repository.city.UnknownCityException;
 import com.peter.solution.repository.dates.ExemptedDateRepository;
+import com.peter.solution.repository.taxrate.TaxRate;
 import com.peter.solution.repository.taxrate.TaxRateRepository;
-import com.peter.solution.repository.tollpass.TollPass;
+import com.peter.solution.repository.tollpass.DailyTollStateRepository;
+import com.peter.solution.repository.tollpass.TollPassCorrection;
 import com.peter.solution.repository.tollpass.TollPassRepository;
 import com.peter.solution.repository.vehicle.TaxExemptedVehicleRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -12,28 +18,37 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.time.Month;
 import java.util.List;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class TaxRateCalculatorTest {
 
     private TaxRateCalculatorImpl taxRateCalculator;
+    private CityRuleSets cityRuleSets;
 
     @Mock
     private TollPassRepository tollPassRepository;
 
     @BeforeEach
     void setUp() {
-        taxRateCalculator = new TaxRateCalculatorImpl(
+        cityRuleSets = new CityRuleSets(
                 new ExemptedDateRepository(),
                 new TaxRateRepository(),
-                new TaxExemptedVehicleRepository(),
-                tollPassRepository
+                new TaxExemptedVehicleRepository());
+        taxRateCalculator = new TaxRateCalculatorImpl(
+                cityRuleSets,
+                tollPassRepository,
+                new DailyTollStateRepository(),
+                new CalculationMetrics()
         );
     }
 
@@ -43,7 +58,7 @@ class TaxRateCalculatorTest {
         VehicleDTO vehicle = new VehicleDTO("Motorcycle", "XYZ999");
 
         // Act
-        double toll = taxRateCalculator.calculate(vehicle);
+        long toll = taxRateCalculator.calculate(vehicle);
 
         // Assert
         assertEquals(0, toll);
@@ -56,7 +71,7 @@ class TaxRateCalculatorTest {
         VehicleDTO vehicle = new VehicleDTO("Car", "XYZ999", firstOfJuly);
 
         // Act
-        double toll = taxRateCalculator.calculate(vehicle);
+        long toll = taxRateCalculator.calculate(vehicle);
 
         // Assert
         assertEquals(0, toll);
@@ -69,10 +84,10 @@ class TaxRateCalculatorTest {
         VehicleDTO vehicle = new VehicleDTO("Car", "XYZ999", dateTime);
 
         // Act
-        double toll = taxRateCalculator.calculate(vehicle);
+        long toll = taxRateCalculator.calculate(vehicle);
 
         // Assert
-        assertEquals(8, toll);
+        assertEquals(800, toll);
     }
 
     @Test
@@ -82,57 +97,131 @@ class TaxRateCalculatorTest {
         VehicleDTO vehicle = new VehicleDTO("Car", "XYZ999", dateTime);
 
         // Act
-        double toll = taxRateCalculator.calculate(vehicle);
+        long toll = taxRateCalculator.calculate(vehicle);
 
         // Assert
-        assertEquals(13, toll);
+        assertEquals(1300, toll);
     }
 
     @Test
     void testCalculateTollForVehicleWithExistingTollPass() {
         // Arrange
-        LocalDateTime dateTime = LocalDateTime.of(2024, Month.NOVEMBER, 13, 6, 27);
+        LocalDateTime dateTime = LocalDateTime.of(2024, Month.NOVEMBER, 13, 6, 35);
         VehicleDTO vehicle = new VehicleDTO("Car", "XYZ999", dateTime);
-        TollPass tollPass = new TollPass("XYZ999", dateTime.minusMinutes(3), 13);
-        when(tollPassRepository.findAllByPlateNumberAndDateTime(anyString(), any(), any())).thenReturn(List.of(tollPass));
+        taxRateCalculator.calculate(new VehicleDTO("Car", "XYZ999", dateTime.minusMinutes(11)));
 
         // Act
-        double toll = taxRateCalculator.calculate(vehicle);
+        long toll = taxRateCalculator.calculate(vehicle);
 
         // Assert
-        assertEquals(13, toll);
+        assertEquals(500, toll);
+        verify(tollPassRepository).save(argThat(tollPass ->
+                        tollPass.getPassDateTime().equals(dateTime) && tollPass.getTollAmount() == 500),
+                anyInt(), eq(List.of()));
     }
 
     @Test
     void testCalculateTollForVehicleWithMultipleTollPasses() {
         // Arrange
-        LocalDateTime dateTime = LocalDateTime.of(2024, Month.NOVEMBER, 13, 14, 35);
+        LocalDateTime dateTime = LocalDateTime.of(2024, Month.NOVEMBER, 13, 15, 55);
         VehicleDTO vehicle = new VehicleDTO("Car", "XYZ999", dateTime);
-        TollPass tollPass1 = new TollPass("XYZ999", dateTime.minusMinutes(20), 13);
-        TollPass tollPass2 = new TollPass("XYZ999", dateTime.minusMinutes(30), 18);
-        when(tollPassRepository.findAllByPlateNumberAndDateTime(anyString(), any(), any())).thenReturn(List.of(tollPass1, tollPass2));
+        long firstToll = taxRateCalculator.calculate(new VehicleDTO("Car", "XYZ999", dateTime.minusMinutes(50)));
+        long secondToll = taxRateCalculator.calculate(new VehicleDTO("Car", "XYZ999", dateTime.minusMinutes(20)));
 
         // Act
-        double toll = taxRateCalculator.calculate(vehicle);
+        long toll = taxRateCalculator.calculate(vehicle);
 
         // Assert
-        assertEquals(18, toll);
+        assertEquals(1300, firstToll);
+        assertEquals(500, secondToll);
+        assertEquals(0, toll);
     }
 
     @Test
-    void testCalculateTollForVehicleWithMultipleTollPassesAbove60() {
+    void testCalculateTollDoesNotChargeAPassThatCouldNotBeSaved() {
         // Arrange
-        LocalDateTime dateTime = LocalDateTime.of(2024, Month.NOVEMBER, 13, 15, 29);
+        LocalDateTime dateTime = LocalDateTime.of(2024, Month.NOVEMBER, 13, 6, 35);
+        when(tollPassRepository.save(any(), anyInt(), anyList()))
+                .thenThrow(new IllegalStateException("Flushing the toll pass journal failed"))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        assertThrows(IllegalStateException.class,
+                () -> taxRateCalculator.calculate(new VehicleDTO("Car", "XYZ999", dateTime.minusMinutes(11))));
+
+        // Act
+        long toll = taxRateCalculator.calculate(new VehicleDTO("Car", "XYZ999", dateTime));
+
+        // Assert
+        assertEquals(1300, toll);
+    }
+
+    @Test
+    void testCalculateTollForLatePassAdjustsLaterPasses() {
+        // Arrange
+        LocalDateTime dateTime = LocalDateTime.of(2024, Month.NOVEMBER, 13, 6, 20);
         VehicleDTO vehicle = new VehicleDTO("Car", "XYZ999", dateTime);
-        TollPass tollPass1 = new TollPass("XYZ999", dateTime.minusMinutes(10), 65);
-        TollPass tollPass2 = new TollPass("XYZ999", dateTime.minusMinutes(15), 75);
-        when(tollPassRepository.findAllByPlateNumberAndDateTime(anyString(), any(), any())).thenReturn(List.of(tollPass1, tollPass2));
+        when(tollPassRepository.nextId()).thenReturn(1L, 2L);
+        taxRateCalculator.calculate(new VehicleDTO("Car", "XYZ999", dateTime.plusMinutes(50)));
+
+        // Act
+        long toll = taxRateCalculator.calculate(vehicle);
+
+        // Assert
+        assertEquals(800, toll);
+        assertEquals(List.of(new TollAdjustmentDTO(1, dateTime.plusMinutes(50), 1800, 1000)),
+                vehicle.getAdjustments());
+        verify(tollPassRepository).save(argThat(tollPass -> tollPass.getId() == 2L), anyInt(),
+                eq(List.of(new TollPassCorrection(1, "XYZ999", dateTime.plusMinutes(50), 1000))));
+    }
+
+    @Test
+    void testCalculateTollForVehicleWithMultipleTollPassesAbove60() {
+        // Arrange
+        LocalDateTime morning = LocalDateTime.of(2024, Month.NOVEMBER, 13, 6, 0);
+        long tollBeforeCap = Stream.of(0, 65, 130, 540)
+                .mapToLong(minutes -> taxRateCalculator.calculate(
+                        new VehicleDTO("Car", "XYZ999", morning.plusMinutes(minutes))))
+                .sum();
+
+        // Act
+        long cappedToll = taxRateCalculator.calculate(new VehicleDTO("Car", "XYZ999", morning.plusMinutes(605)));
+        long tollAfterCap = taxRateCalculator.calculate(new VehicleDTO("Car", "XYZ999", morning.plusMinutes(670)));
+
+        // Assert
+        assertEquals(5200, tollBeforeCap);
+        assertEquals(800, cappedToll);
+        assertEquals(0, tollAfterCap);
+    }
+
+    @Test
+    void testCalculateTollForNextDayIsNotCapped() {
+        // Arrange
+        LocalDateTime dateTime = LocalDateTime.of(2024, Month.NOVEMBER, 13, 7, 0);
+        for (int hour = 0; hour < 10; hour++) {
+            taxRateCalculator.calculate(new VehicleDTO("Car", "XYZ999", dateTime.plusMinutes(hour * 61L)));
+        }
 
         // Act
-        double toll = taxRateCalculator.calculate(vehicle);
+        long toll = taxRateCalculator.calculate(new VehicleDTO("Car", "XYZ999", dateTime.plusDays(1)));
 
         // Assert
-        assertEquals(60, toll);
+        assertEquals(1800, toll);
+    }
+
+    @Test
+    void testCalculateTollForPostItDay() {
+        // Arrange
+        Stream<String> passes = Stream.of("2013-02-08T06:20:27", "2013-02-08T06:27:00", "2013-02-08T14:35:00",
+                "2013-02-08T15:29:00", "2013-02-08T15:47:00", "2013-02-08T16:01:00", "2013-02-08T16:48:00",
+                "2013-02-08T17:49:00", "2013-02-08T18:29:00", "2013-02-08T18:35:00");
+
+        // Act
+        long total = passes
+                .mapToLong(dateTime -> taxRateCalculator.calculate(
+                        new VehicleDTO("Car", "XYZ999", LocalDateTime.parse(dateTime))))
+                .sum();
+
+        // Assert
+        assertEquals(6000, total);
     }
 
     @Test
@@ -142,9 +231,45 @@ class TaxRateCalculatorTest {
         VehicleDTO vehicle = new VehicleDTO("Car", "XYZ999", dateTime);
 
         // Act
-        double toll = taxRateCalculator.calculate(vehicle);
+        long toll = taxRateCalculator.calculate(vehicle);
 
         // Assert
         assertEquals(0, toll);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testCalculateTollForOtherCity() {
+        // Arrange
+        cityRuleSets.register(CityRuleSet.compile("stockholm", 1,
+                List.of(new TaxRate(1L, LocalTime.of(6, 0), LocalTime.of(18, 29), 1500)),
+                List.of(),
+                List.of("Emergency"),
+                2000,
+                Duration.ofMinutes(30)));
+        LocalDateTime dateTime = LocalDateTime.of(2024, Month.NOVEMBER, 13, 6, 20);
+        VehicleDTO vehicle = new VehicleDTO("Motorcycle", "XYZ999", dateTime);
+        vehicle.setCity("Stockholm");
+
+        // Act
+        long firstToll = taxRateCalculator.calculate(vehicle);
+        vehicle.setTollPassDateTime(dateTime.plusMinutes(40));
+        long secondToll = taxRateCalculator.calculate(vehicle);
+        long gothenburgToll = taxRateCalculator.calculate(new VehicleDTO("Car", "XYZ999", dateTime));
+
+        // Assert
+        assertEquals(1500, firstToll);
+        assertEquals(500, secondToll);
+        assertEquals(800, gothenburgToll);
+    }
+
+    @Test
+    void testCalculateTollForUnknownCity() {
+        // Arrange
+        VehicleDTO vehicle = new VehicleDTO("Car", "XYZ999", LocalDateTime.of(2024, Month.NOVEMBER, 13, 6, 20));
+        vehicle.setCity("Atlantis");
+
+        // Act & Assert
+        assertThrows(UnknownCityException.class, () -> taxRateCalculator.calculate(vehicle));
+        verifyNoInteractions(tollPassRepository);
+    }
+}
@@ -0,0 +1,145 @@
+package com.peter.solution.service;
+
+import com.peter.solution.dto.VehicleDTO;
+import com.peter.solution.repository.city.CityRuleSet;
+import com.peter.solution.repository.city.CityRuleSets;
+import com.peter.solution.repository.dates.ExemptedDate;
+import com.peter.solution.repository.dates.ExemptedDateRepository;
+import com.peter.solution.repository.taxrate.TaxRate;
+import com.peter.solution.repository.taxrate.TaxRateRepository;
+import com.peter.solution.repository.tollpass.DailyTollStateRepository;
+import com.peter.solution.repository.tollpass.TollPass;
+import com.peter.solution.repository.tollpass.TollPassRepository;
+import com.peter.solution.repository.vehicle.TaxExemptedVehicleRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.Month;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TollRecalculatorTest {
+
+    private static final LocalDate DATE = LocalDate.of(2013, Month.FEBRUARY, 8);
+    private static final int PLATES = 1_000;
+
+    private ExemptedDateRepository exemptedDateRepository;
+    private TaxRateRepository taxRateRepository;
+    private CityRuleSets cityRuleSets;
+    private TollPassRepository tollPassRepository;
+    private TaxRateCalculatorImpl taxRateCalculator;
+    private TollRecalculatorImpl tollRecalculator;
+
+    @BeforeEach
+    void setUp() {
+        exemptedDateRepository = new ExemptedDateRepository();
+        taxRateRepository = new TaxRateRepository();
+        tollPassRepository = new TollPassRepository();
+        cityRuleSets = new CityRuleSets(exemptedDateRepository, taxRateRepository, new TaxExemptedVehicleRepository());
+        taxRateCalculator = new TaxRateCalculatorImpl(
+                cityRuleSets,
+                tollPassRepository,
+                new DailyTollStateRepository(),
+                new CalculationMetrics());
+        tollRecalculator = new TollRecalculatorImpl(taxRateCalculator, tollPassRepository, 4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        tollRecalculator.destroy();
+    }
+
+    @Test
+    void submit_ShouldReleaseChargesOfAddedHoliday() throws Exception {
+        // Arrange
+        for (int plate = 0; plate < PLATES; plate++) {
+            taxRateCalculator.calculate(new VehicleDTO("Car", "PLATE" + plate, DATE.atTime(6, 20)));
+            taxRateCalculator.calculate(new VehicleDTO("Car", "PLATE" + plate, DATE.atTime(15, 29)));
+        }
+        taxRateCalculator.calculate(new VehicleDTO("Car", "PLATE0", DATE.minusDays(3).atTime(6, 20)));
+        cityRuleSets.register(CityRuleSet.compile("stockholm", 1,
+                List.of(new TaxRate(1L, LocalTime.of(6, 0), LocalTime.of(18, 29), 1500)),
+                List.of(),
+                List.of(),
+                2000,
+                Duration.ofMinutes(30)));
+        VehicleDTO stockholm = new VehicleDTO("Car", "PLATE1", DATE.atTime(8, 0));
+        stockholm.setCity("stockholm");
+        taxRateCalculator.calculate(stockholm);
+        ExemptedDate holiday = exemptedDateRepository.save(ExemptedDate.ofHolidayDate(null, DATE));
+
+        // Act
+        RecalculationJob job = awaitCompletion(tollRecalculator.submit(RecalculationScope.ofExemptedDate(holiday)));
+
+        // Assert
+        assertEquals(RecalculationJob.Status.COMPLETED, job.getStatus());
+        assertEquals(PLATES, job.getPlateDays());
+        assertEquals(PLATES, job.getRecalculatedPlateDays());
+        assertEquals(-PLATES * 2100L, job.getAdjustment());
+        assertTrue(tollPassRepository.findAllByPlateNumberAndDateTime("PLATE2", DATE.atStartOfDay(),
+                DATE.atTime(LocalTime.MAX)).stream().allMatch(tollPass -> tollPass.getTollAmount() == 0));
+        assertEquals(800, tollPassRepository.findMonthTotals("PLATE0", YearMonth.from(DATE)).getTotal());
+        assertEquals(1500, tollPassRepository.findMonthTotals("PLATE1", YearMonth.from(DATE)).getTotal());
+        assertEquals(0, taxRateCalculator.findDailyTotal("PLATE1", null, DATE));
+        assertEquals(1500, taxRateCalculator.findDailyTotal("PLATE1", "stockholm", DATE));
+        assertEquals(0, taxRateCalculator.calculate(new VehicleDTO("Car", "PLATE1", DATE.atTime(16, 0))));
+    }
+
+    @Test
+    void submit_ShouldRechargeDayWithChangedTaxRateAndContinueFromCorrectedState() throws Exception {
+        // Arrange
+        taxRateCalculator.calculate(new VehicleDTO("Car", "ABC123", DATE.atTime(6, 20)));
+        taxRateCalculator.calculate(new VehicleDTO("Car", "ABC123", DATE.atTime(6, 50)));
+        taxRateCalculator.calculate(new VehicleDTO("Car", "XYZ999", DATE.atTime(9, 0)));
+        TaxRate wrongRate = taxRateRepository.findAll().stream()
+                .filter(taxRate -> taxRate.getStartTime().equals(LocalTime.of(6, 30)))
+                .findFirst()
+                .orElseThrow();
+        taxRateRepository.deleteById(wrongRate.getId());
+        TaxRate fixedRate = taxRateRepository.save(new TaxRate(LocalTime.of(6, 30), LocalTime.of(6, 59), 2000));
+
+        // Act
+        RecalculationJob job = awaitCompletion(tollRecalculator.submit(RecalculationScope.ofTaxRate(fixedRate)));
+        long nextCharge = taxRateCalculator.calculate(new VehicleDTO("Car", "ABC123", DATE.atTime(7, 10)));
+
+        // Assert
+        assertEquals(1, job.getPlateDays());
+        assertEquals(700, job.getAdjustment());
+        assertEquals(0, nextCharge);
+        assertEquals(List.of(800L, 1200L, 0L), tollPassRepository.findAllByPlateNumberAndDateTime(
+                "ABC123", DATE.atStartOfDay(), DATE.atTime(LocalTime.MAX)).stream()
+                .map(TollPass::getTollAmount)
+                .toList());
+        assertEquals(2000, tollPassRepository.findMonthTotals("ABC123", YearMonth.from(DATE)).getTotal());
+        assertEquals(800, tollPassRepository.findMonthTotals("XYZ999", YearMonth.from(DATE)).getTotal());
+    }
+
+    @Test
+    void findAllJobs_ShouldReturnNewestJobFirst() throws Exception {
+        // Arrange
+        RecalculationJob first = awaitCompletion(tollRecalculator.submit(RecalculationScope.ofDays(DATE, DATE)));
+
+        // Act
+        RecalculationJob second = awaitCompletion(tollRecalculator.submit(RecalculationScope.ofDays(DATE, DATE)));
+
+        // Assert
+        assertEquals(List.of(second, first), tollRecalculator.findAllJobs());
+        assertEquals(first, tollRecalculator.findJob(first.getId()).orElseThrow());
+        assertTrue(tollRecalculator.findJob(42).isEmpty());
+    }
+
+    private static RecalculationJob awaitCompletion(RecalculationJob job) throws InterruptedException {
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (job.getStatus() == RecalculationJob.Status.RUNNING && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        return job;
+    }
+}